@@ -0,0 +1,44 @@
+package org.productMarket.benchmarks;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.products.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Per-thread cash desk, customer and a random basket of {@code basketSize} distinct products.
+ * The desk discards receipts so that checkout is measured without disk I/O.
+ */
+@State(Scope.Thread)
+public class BasketState {
+
+    @Param({"5", "25"})
+    public int basketSize;
+
+    public CashDesk cashDesk;
+    public Customer customer;
+    public Map<String, Integer> shoppingList;
+    public Map<Product, Integer> soldProducts;
+
+    @Setup(Level.Trial)
+    public void setUp(MarketState marketState) throws Exception {
+        Cashier cashier = new Cashier("Benchmark cashier", BigDecimal.valueOf(1000));
+        this.cashDesk = new CashDesk(cashier, receipt -> { });
+        this.customer = new Customer("Benchmark customer", new BigDecimal("1000000000000000"));
+
+        SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+        this.shoppingList = new HashMap<>();
+        this.soldProducts = new HashMap<>();
+        while (this.shoppingList.size() < Math.min(this.basketSize, marketState.products.size())) {
+            Product product = marketState.products.get(random.nextInt(marketState.products.size()));
+            this.shoppingList.put(product.getName(), 1);
+            this.soldProducts.put(product, 1);
+        }
+    }
+}
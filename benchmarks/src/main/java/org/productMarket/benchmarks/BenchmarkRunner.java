@@ -0,0 +1,35 @@
+package org.productMarket.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once per thread count, because JMH cannot use the thread count as a
+ * {@code @Param}. Thread counts come from {@code -Dthreads=1,4,16}, every other argument is
+ * passed to JMH as usual, e.g.
+ * <pre>
+ *     java -Dthreads=1,8 -jar benchmarks.jar CheckoutBenchmark -p catalogSize=40000
+ * </pre>
+ * Results of each run are written to {@code jmh-result-threads-N.json} for comparison
+ * against a baseline.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+
+        for (String threads : System.getProperty("threads", "1,4,16").split(",")) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-result-threads-" + threads.trim() + ".json");
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.productMarket.benchmarks;
+
+import org.productMarket.receipts.Receipt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Benchmark
+    public Receipt sellProducts(MarketState marketState, BasketState basket) {
+        return marketState.market.sellProducts(basket.shoppingList, basket.cashDesk, basket.customer);
+    }
+
+    @Benchmark
+    public Map<String, Integer> checkProductsAvailability(MarketState marketState, BasketState basket) {
+        return marketState.market.checkProductsAvailability(basket.shoppingList);
+    }
+}
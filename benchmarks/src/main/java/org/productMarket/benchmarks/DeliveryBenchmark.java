@@ -0,0 +1,26 @@
+package org.productMarket.benchmarks;
+
+import org.productMarket.products.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public void addDeliveredProduct(MarketState marketState, Cursor cursor) throws Exception {
+        // re-deliver existing batches, cycling through the whole catalog
+        Product product = marketState.products.get(cursor.next++ % marketState.products.size());
+        marketState.market.addDeliveredProduct(product, 1);
+    }
+}
@@ -0,0 +1,49 @@
+package org.productMarket.benchmarks;
+
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A market stocked with {@code catalogSize} products, shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class MarketState {
+
+    // enough stock that a measurement never sells a product out
+    static final int STOCK_PER_PRODUCT = 1_000_000_000;
+
+    @Param({"1000", "40000"})
+    public int catalogSize;
+
+    public Market market;
+    public List<Product> products;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.market = new Market(50, 25, 3, 10);
+        this.products = createProducts(this.catalogSize);
+        for (Product product : this.products) {
+            this.market.addDeliveredProduct(product, STOCK_PER_PRODUCT);
+        }
+    }
+
+    static List<Product> createProducts(int count) throws Exception {
+        LocalDate dateOfExpiry = LocalDate.now().plusYears(1);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BigDecimal deliveryPrice = BigDecimal.valueOf(100 + i % 900, 2);
+            products.add(i % 2 == 0
+                    ? new EdibleProduct("Product " + i, deliveryPrice, dateOfExpiry)
+                    : new NonEdibleProduct("Product " + i, deliveryPrice, dateOfExpiry));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,59 @@
+package org.productMarket.benchmarks;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.utils.ReceiptUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptBenchmark {
+
+    @State(Scope.Thread)
+    public static class ReceiptState {
+
+        Cashier cashier;
+        Receipt receipt;
+        long firstSerialNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(BasketState basket) {
+            this.cashier = new Cashier("Benchmark cashier", BigDecimal.valueOf(1000));
+            this.receipt = new Receipt(this.cashier, basket.soldProducts);
+            this.firstSerialNumber = this.receipt.getSerialNumber();
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteReceiptFiles() throws IOException {
+            // saveReceipt writes receipt_N.txt into the working directory
+            long lastSerialNumber = new Receipt(this.cashier, this.receipt.getProducts()).getSerialNumber();
+            for (long serialNumber = this.firstSerialNumber; serialNumber <= lastSerialNumber; serialNumber++) {
+                Files.deleteIfExists(Path.of("receipt_" + serialNumber + ".txt"));
+            }
+        }
+    }
+
+    @Benchmark
+    public Receipt createReceipt(ReceiptState state, BasketState basket) {
+        return new Receipt(state.cashier, basket.soldProducts);
+    }
+
+    @Benchmark
+    public String formatReceipt(ReceiptState state) {
+        return ReceiptUtil.formatReceipt(state.receipt);
+    }
+
+    @Benchmark
+    public void saveReceipt(ReceiptState state, BasketState basket) {
+        ReceiptUtil.saveReceipt(new Receipt(state.cashier, basket.soldProducts));
+    }
+}
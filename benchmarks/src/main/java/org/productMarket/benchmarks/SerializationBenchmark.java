@@ -0,0 +1,63 @@
+package org.productMarket.benchmarks;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.codecs.ReceiptCodec;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.utils.SerializerUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of one receipt through {@link SerializerUtil}'s Java serialization and
+ * through the binary {@link ReceiptCodec}, both via a file and in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @State(Scope.Thread)
+    public static class ReceiptFile {
+
+        Receipt receipt;
+        String javaPath;
+        String binaryPath;
+
+        @Setup(Level.Trial)
+        public void setUp(BasketState basket) throws IOException {
+            this.receipt = new Receipt(new Cashier("Benchmark cashier", BigDecimal.valueOf(1000)), basket.soldProducts);
+            this.javaPath = Files.createTempFile("receipt", ".ser").toString();
+            this.binaryPath = Files.createTempFile("receipt", ".bin").toString();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(Path.of(this.javaPath));
+            Files.deleteIfExists(Path.of(this.binaryPath));
+        }
+    }
+
+    @Benchmark
+    public Receipt javaSerializationFileRoundTrip(ReceiptFile file) throws Exception {
+        SerializerUtil.serializeReceipt(file.javaPath, file.receipt);
+        return SerializerUtil.deserializeReceipt(file.javaPath);
+    }
+
+    @Benchmark
+    public Receipt binaryCodecFileRoundTrip(ReceiptFile file) throws IOException {
+        SerializerUtil.serializeReceiptBinary(file.binaryPath, file.receipt);
+        return SerializerUtil.deserializeReceiptBinary(file.binaryPath);
+    }
+
+    @Benchmark
+    public Receipt binaryCodecInMemoryRoundTrip(ReceiptFile file) throws IOException {
+        return ReceiptCodec.decode(ReceiptCodec.encode(file.receipt));
+    }
+}
@@ -1,18 +1,30 @@
 package org.productMarket.cashiers;
 
+import org.productMarket.identities.Identity;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.util.UUID;
 
 public class Cashier implements Serializable {
 
     private String name;
-    private String id;
+    private Identity id;
     private BigDecimal salary;
 
     public Cashier(String name, BigDecimal salary) {
+        this(name, Identity.random(), salary);
+    }
+
+    public Cashier(String name, String id, BigDecimal salary) {
+        this(name, Identity.of(id), salary);
+    }
+
+    public Cashier(String name, Identity id, BigDecimal salary) {
+        if (id == null) {
+            throw new NullPointerException("ID cannot be null!");
+        }
         this.setName(name);
-        this.id = UUID.randomUUID().toString();
+        this.id = id;
         this.salary = salary;
     }
 
@@ -21,6 +33,10 @@ public class Cashier implements Serializable {
     }
 
     public String getId() {
+        return id.toString();
+    }
+
+    public Identity getIdentity() {
         return id;
     }
 
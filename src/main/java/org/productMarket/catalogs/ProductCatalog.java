@@ -0,0 +1,222 @@
+package org.productMarket.catalogs;
+
+import org.productMarket.enums.ProductCategory;
+import org.productMarket.exceptions.InvalidQuantityOfProduct;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NonSellableExpiredProduct;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Products and their delivered quantities, stored in a catalog file a store can load
+ * at startup instead of creating and delivering every product on its own.
+ *
+ * <p>The file has a 16-byte header (magic, version, product count, size of the string area),
+ * then one fixed-size {@value #RECORD_SIZE}-byte record per product and finally the UTF-8
+ * IDs and names the records point to. Fixed-size records let {@link #read(Path)} map the
+ * file and decode the products in parallel, each record on its own, without parsing text
+ * or generating IDs.
+ */
+public class ProductCatalog {
+
+    private static final int MAGIC = 0x504D4354; // "PMCT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    // delivery price, expiry day, quantity, ID offset, name offset, ID length, name length, category, 3 bytes padding
+    static final int RECORD_SIZE = 32;
+
+    private final Product[] products;
+    private final int[] quantities;
+
+    private ProductCatalog(Product[] products, int[] quantities) {
+        this.products = products;
+        this.quantities = quantities;
+    }
+
+    /**
+     * Writes the products with their quantities, e.g. {@link Market#getProductsInStock()}.
+     * Products with no quantity left are skipped. The file is written next to the target and moved over it, so readers never see half of it.
+     * A live view may keep changing, so it is copied once and the count and records are written from the copy.
+     */
+    public static void write(Path file, Map<Product, Integer> stock) throws IOException {
+        List<Map.Entry<Product, Integer>> entries = new ArrayList<>(stock.size());
+        for (Map.Entry<Product, Integer> entry : stock.entrySet()) {
+            // each quantity is read once
+            int quantity = entry.getValue();
+            if (quantity > 0) {
+                entries.add(Map.entry(entry.getKey(), quantity));
+            }
+        }
+        int count = entries.size();
+        ByteBuffer records = ByteBuffer.allocate(Math.multiplyExact(count, RECORD_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        StringArea strings = new StringArea();
+
+        for (Map.Entry<Product, Integer> entry : entries) {
+            Product product = entry.getKey();
+            byte[] id = strings.encode(product.getID());
+            byte[] name = strings.encode(product.getName());
+            records.putLong(product.getDeliveryPriceMinor())
+                    .putInt(Math.toIntExact(product.getDateOfExpiry().toEpochDay()))
+                    .putInt(entry.getValue())
+                    .putInt(strings.add(id))
+                    .putInt(strings.add(name))
+                    .putShort((short) id.length)
+                    .putShort((short) name.length)
+                    .put((byte) product.getType().ordinal())
+                    .put(new byte[3]);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION).putInt(count).putInt(strings.size());
+        ByteBuffer[] buffers = {header.flip(), records.flip(), strings.toBuffer()};
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long remaining = HEADER_SIZE + records.limit() + strings.size();
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the catalog file and creates its products in parallel.
+     */
+    public static ProductCatalog read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new StreamCorruptedException("Not a product catalog: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new StreamCorruptedException("Unsupported product catalog version " + buffer.getInt(4) + "!");
+        }
+        int count = buffer.getInt(8);
+        long stringsEnd = HEADER_SIZE + (long) count * RECORD_SIZE + buffer.getInt(12);
+        if (count < 0 || stringsEnd != buffer.capacity()) {
+            throw new StreamCorruptedException("Truncated product catalog: " + file);
+        }
+        int stringsStart = HEADER_SIZE + count * RECORD_SIZE;
+
+        Product[] products = new Product[count];
+        int[] quantities = new int[count];
+        try {
+            // absolute reads do not move the buffer's position, so the records can be decoded concurrently
+            IntStream.range(0, count).parallel().forEach(i -> {
+                int record = HEADER_SIZE + i * RECORD_SIZE;
+                quantities[i] = buffer.getInt(record + 12);
+                products[i] = readProduct(buffer, record, stringsStart);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new ProductCatalog(products, quantities);
+    }
+
+    private static Product readProduct(ByteBuffer buffer, int record, int stringsStart) {
+        BigDecimal deliveryPrice = BigDecimal.valueOf(buffer.getLong(record), 2);
+        LocalDate dateOfExpiry = LocalDate.ofEpochDay(buffer.getInt(record + 8));
+        String id = readString(buffer, stringsStart + buffer.getInt(record + 16), buffer.getShort(record + 24) & 0xFFFF);
+        String name = readString(buffer, stringsStart + buffer.getInt(record + 20), buffer.getShort(record + 26) & 0xFFFF);
+        int type = buffer.get(record + 28);
+
+        try {
+            if (type == ProductCategory.EDIBLE.ordinal()) {
+                return new EdibleProduct(id, name, deliveryPrice, dateOfExpiry);
+            } else if (type == ProductCategory.NON_EDIBLE.ordinal()) {
+                return new NonEdibleProduct(id, name, deliveryPrice, dateOfExpiry);
+            }
+            throw new UncheckedIOException(new StreamCorruptedException("Unknown product category " + type + "!"));
+        } catch (NegativeDeliveryPrice e) {
+            throw new UncheckedIOException(new StreamCorruptedException(e.getMessage()));
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || offset + length > buffer.capacity()) {
+            throw new UncheckedIOException(new StreamCorruptedException("String outside of the product catalog at " + offset + "!"));
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Delivers every product of the catalog to the market in one bulk delivery.
+     */
+    public void deliverTo(Market market) throws InvalidQuantityOfProduct, NonSellableExpiredProduct {
+        market.addDeliveredProducts(this.products, this.quantities);
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    public Product getProduct(int index) {
+        return products[index];
+    }
+
+    public int getQuantity(int index) {
+        return quantities[index];
+    }
+
+    // the UTF-8 IDs and names the records point to
+    private static class StringArea {
+
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        byte[] encode(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > 0xFFFF) {
+                throw new IllegalArgumentException("Product IDs and names cannot be longer than 65535 bytes!");
+            }
+            return encoded;
+        }
+
+        int add(byte[] encoded) {
+            if (this.size + encoded.length > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.size + encoded.length, this.bytes.length * 2));
+            }
+            System.arraycopy(encoded, 0, this.bytes, this.size, encoded.length);
+            this.size += encoded.length;
+            return this.size - encoded.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(this.bytes, 0, this.size);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.productMarket.chains;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.markets.Market;
+import org.productMarket.markets.MarketListener;
+import org.productMarket.money.Money;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.receipts.ReceiptHistory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chain-wide rollups over the markets of a chain, kept up to date from the markets' events.
+ *
+ * <p>When stores are added their current state is rolled up once, in parallel on a
+ * fork-join pool; after that every delivery, sale, cashier hire and expiry is added to
+ * the running totals as it happens, so {@link #getReport()} costs one pass over the stores
+ * and product names instead of over every market's stock and receipts.
+ * {@link #recompute()} rolls up everything from scratch the same way. Stores are added and
+ * removed between their markets' changes, see {@link Market#runBetweenChanges(Runnable)},
+ * so every change is counted exactly once, either by the rollup or by the running totals.
+ */
+public class ChainAggregator {
+
+    // stores per fork-join leaf, rolling up a store already scans its whole stock and receipts
+    private static final int STORES_PER_TASK = 2;
+
+    private final ForkJoinPool pool;
+    private final Map<String, Store> stores;
+    private final ConcurrentHashMap<String, LongAdder> stockByName;
+    private final ConcurrentHashMap<String, LongAdder> soldByName;
+
+    public ChainAggregator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ChainAggregator(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullPointerException("Pool cannot be null!");
+        }
+        this.pool = pool;
+        this.stores = new ConcurrentHashMap<>();
+        this.stockByName = new ConcurrentHashMap<>();
+        this.soldByName = new ConcurrentHashMap<>();
+    }
+
+    public void addStore(String storeId, Market market) {
+        addStores(Map.of(storeId, market));
+    }
+
+    /**
+     * Adds the stores and rolls up their current state in parallel, while their markets
+     * wait to make further changes.
+     */
+    public synchronized void addStores(Map<String, Market> markets) {
+        for (String storeId : markets.keySet()) {
+            if (this.stores.containsKey(storeId)) {
+                throw new IllegalArgumentException("Store " + storeId + " is already in the chain!");
+            }
+        }
+
+        List<Map.Entry<String, Market>> entries = new ArrayList<>(markets.entrySet());
+        // always locked in the order of the market numbers, so two chains sharing markets cannot deadlock
+        entries.sort(Comparator.comparingInt(entry -> entry.getValue().getNumber()));
+        betweenChanges(entries, 0, () -> {
+            Rollup rollup = this.pool.invoke(new RollupTask(entries));
+            rollup.stockByName.forEach((name, quantity) -> add(this.stockByName, name, quantity));
+            rollup.soldByName.forEach((name, quantity) -> add(this.soldByName, name, quantity));
+            for (StoreFigures figures : rollup.stores) {
+                Store store = new Store(figures.getStoreId(), markets.get(figures.getStoreId()));
+                store.income.add(figures.getIncomeMinor());
+                store.expenses.add(figures.getExpensesMinor());
+                this.stores.put(store.storeId, store);
+                // the markets' write locks are held by this thread, so adding is reentrant
+                store.market.addListener(store);
+            }
+        });
+    }
+
+    /**
+     * Removes the store and takes its current stock and sales out of the chain's totals.
+     */
+    public synchronized Market removeStore(String storeId) {
+        Store store = this.stores.remove(storeId);
+        if (store == null) {
+            return null;
+        }
+
+        store.market.runBetweenChanges(() -> {
+            store.market.removeListener(store);
+            Rollup rollup = rollUp(storeId, store.market);
+            rollup.stockByName.forEach((name, quantity) -> add(this.stockByName, name, -quantity));
+            rollup.soldByName.forEach((name, quantity) -> add(this.soldByName, name, -quantity));
+        });
+        return store.market;
+    }
+
+    // runs the task while every market from the index on holds back its changes
+    private static void betweenChanges(List<Map.Entry<String, Market>> markets, int from, Runnable task) {
+        if (from == markets.size()) {
+            task.run();
+            return;
+        }
+        markets.get(from).getValue().runBetweenChanges(() -> betweenChanges(markets, from + 1, task));
+    }
+
+    public Set<String> getStoreIds() {
+        return Collections.unmodifiableSet(this.stores.keySet());
+    }
+
+    /**
+     * Returns the running totals. Changes made while the report is built may be partly included.
+     */
+    public ChainReport getReport() {
+        Map<String, StoreFigures> figures = new HashMap<>();
+        for (Store store : this.stores.values()) {
+            figures.put(store.storeId, new StoreFigures(store.storeId, store.income.sum(), store.expenses.sum()));
+        }
+        return new ChainReport(figures, sums(this.stockByName), sums(this.soldByName));
+    }
+
+    /**
+     * Rolls up every store from scratch, in parallel, without using the running totals.
+     */
+    public ChainReport recompute() {
+        Rollup rollup = this.pool.invoke(new RollupTask(new ArrayList<>(marketsById().entrySet())));
+        Map<String, StoreFigures> figures = new HashMap<>();
+        for (StoreFigures storeFigures : rollup.stores) {
+            figures.put(storeFigures.getStoreId(), storeFigures);
+        }
+        rollup.stockByName.values().removeIf(quantity -> quantity == 0);
+        return new ChainReport(figures, rollup.stockByName, rollup.soldByName);
+    }
+
+    private Map<String, Market> marketsById() {
+        Map<String, Market> markets = new HashMap<>();
+        this.stores.forEach((storeId, store) -> markets.put(storeId, store.market));
+        return markets;
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+        Map<String, Long> sums = new HashMap<>();
+        adders.forEach((name, adder) -> {
+            long sum = adder.sum();
+            if (sum != 0) {
+                sums.put(name, sum);
+            }
+        });
+        return sums;
+    }
+
+    private static void add(ConcurrentHashMap<String, LongAdder> adders, String name, long quantity) {
+        adders.computeIfAbsent(name, key -> new LongAdder()).add(quantity);
+    }
+
+    private static Rollup rollUp(String storeId, Market market) {
+        Rollup rollup = new Rollup();
+        rollup.stores.add(new StoreFigures(storeId, Money.toMinor(market.getIncome()), Money.toMinor(market.getExpenses())));
+        market.getStockCatalog().forEachInStock((product, quantity) -> rollup.stockByName.merge(product.getName(), (long) quantity, Long::sum));
+
+        // read the history page by page, spilled receipts are loaded a page at a time
+        ReceiptHistory history = market.getReceiptHistory();
+        for (int offset = 0; ; offset += ReceiptHistory.PAGE_SIZE) {
+            List<Receipt> page = history.getPage(Math.min(offset, history.size()), ReceiptHistory.PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            for (Receipt receipt : page) {
+                receipt.getProducts().forEach((product, quantity) -> rollup.soldByName.merge(product.getName(), (long) quantity, Long::sum));
+            }
+        }
+        return rollup;
+    }
+
+    // partial result of a fork-join task
+    private static class Rollup {
+
+        private final List<StoreFigures> stores = new ArrayList<>();
+        private final Map<String, Long> stockByName = new HashMap<>();
+        private final Map<String, Long> soldByName = new HashMap<>();
+
+        Rollup merge(Rollup other) {
+            this.stores.addAll(other.stores);
+            other.stockByName.forEach((name, quantity) -> this.stockByName.merge(name, quantity, Long::sum));
+            other.soldByName.forEach((name, quantity) -> this.soldByName.merge(name, quantity, Long::sum));
+            return this;
+        }
+    }
+
+    // only runs in the aggregator's pool, never serialized
+    @SuppressWarnings("serial")
+    private static class RollupTask extends RecursiveTask<Rollup> {
+
+        private final List<Map.Entry<String, Market>> markets;
+
+        RollupTask(List<Map.Entry<String, Market>> markets) {
+            this.markets = markets;
+        }
+
+        @Override
+        protected Rollup compute() {
+            if (this.markets.size() <= STORES_PER_TASK) {
+                Rollup rollup = new Rollup();
+                for (Map.Entry<String, Market> entry : this.markets) {
+                    rollup.merge(rollUp(entry.getKey(), entry.getValue()));
+                }
+                return rollup;
+            }
+
+            int middle = this.markets.size() / 2;
+            RollupTask left = new RollupTask(this.markets.subList(0, middle));
+            left.fork();
+            Rollup right = new RollupTask(this.markets.subList(middle, this.markets.size())).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // adds a store's events to the running totals
+    private class Store implements MarketListener {
+
+        private final String storeId;
+        private final Market market;
+        private final LongAdder income = new LongAdder();
+        private final LongAdder expenses = new LongAdder();
+
+        Store(String storeId, Market market) {
+            this.storeId = storeId;
+            this.market = market;
+        }
+
+        @Override
+        public void onDelivery(Product product, int quantity) {
+            this.expenses.add(Money.times(product.getDeliveryPriceMinor(), quantity));
+            add(stockByName, product.getName(), quantity);
+        }
+
+        @Override
+        public void onSale(Receipt receipt) {
+            this.income.add(receipt.getTotalPriceMinor());
+            receipt.getProducts().forEach((product, quantity) -> {
+                add(soldByName, product.getName(), quantity);
+                add(stockByName, product.getName(), -quantity);
+            });
+        }
+
+        @Override
+        public void onCashierHire(Cashier cashier) {
+            this.expenses.add(Money.toMinor(cashier.getSalary()));
+        }
+
+        @Override
+        public void onExpired(Map<Product, Integer> expired) {
+            expired.forEach((product, quantity) -> add(stockByName, product.getName(), -quantity));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.productMarket.chains;
+
+import org.productMarket.money.Money;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Chain-wide rollup: the figures of every store, the stock left per product name across
+ * all stores and the quantity sold per product name.
+ */
+public class ChainReport {
+
+    private final Map<String, StoreFigures> stores;
+    private final Map<String, Long> stockByName;
+    private final Map<String, Long> soldByName;
+
+    public ChainReport(Map<String, StoreFigures> stores, Map<String, Long> stockByName, Map<String, Long> soldByName) {
+        this.stores = Collections.unmodifiableMap(stores);
+        this.stockByName = Collections.unmodifiableMap(stockByName);
+        this.soldByName = Collections.unmodifiableMap(soldByName);
+    }
+
+    public Map<String, StoreFigures> getStores() {
+        return stores;
+    }
+
+    public StoreFigures getStore(String storeId) {
+        return stores.get(storeId);
+    }
+
+    public Map<String, BigDecimal> getProfitPerStore() {
+        Map<String, BigDecimal> profits = new TreeMap<>();
+        this.stores.forEach((storeId, figures) -> profits.put(storeId, figures.getProfit()));
+        return profits;
+    }
+
+    public BigDecimal getTotalIncome() {
+        long income = 0;
+        for (StoreFigures figures : this.stores.values()) {
+            income += figures.getIncomeMinor();
+        }
+        return Money.toBigDecimal(income);
+    }
+
+    public BigDecimal getTotalExpenses() {
+        long expenses = 0;
+        for (StoreFigures figures : this.stores.values()) {
+            expenses += figures.getExpensesMinor();
+        }
+        return Money.toBigDecimal(expenses);
+    }
+
+    public BigDecimal getTotalProfit() {
+        long profit = 0;
+        for (StoreFigures figures : this.stores.values()) {
+            profit += figures.getIncomeMinor() - figures.getExpensesMinor();
+        }
+        return Money.toBigDecimal(profit);
+    }
+
+    public Map<String, Long> getStockByName() {
+        return stockByName;
+    }
+
+    public long getStock(String productName) {
+        return stockByName.getOrDefault(productName, 0L);
+    }
+
+    public Map<String, Long> getSoldByName() {
+        return soldByName;
+    }
+
+    /**
+     * Returns the {@code count} best selling product names with the quantity sold, best first.
+     * Ties are ordered by name.
+     */
+    public Map<String, Long> getTopSellingProducts(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be a negative number!");
+        }
+
+        Comparator<Map.Entry<String, Long>> bySales = Map.Entry.<String, Long>comparingByValue()
+                .thenComparing(Map.Entry.<String, Long>comparingByKey().reversed());
+        // keep only the best count entries in a min-heap instead of sorting every name
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(count + 1, bySales);
+        for (Map.Entry<String, Long> entry : this.soldByName.entrySet()) {
+            top.add(entry);
+            if (top.size() > count) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<String, Long>> best = new ArrayList<>(top);
+        best.sort(bySales.reversed());
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : best) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ChainReport{" +
+                "stores=" + stores.values() +
+                ", stockByName=" + stockByName +
+                ", soldByName=" + soldByName +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package org.productMarket.chains;
+
+import org.productMarket.money.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Income and expenses of one store of the chain, in cents.
+ */
+public class StoreFigures {
+
+    private final String storeId;
+    private final long incomeMinor;
+    private final long expensesMinor;
+
+    public StoreFigures(String storeId, long incomeMinor, long expensesMinor) {
+        this.storeId = storeId;
+        this.incomeMinor = incomeMinor;
+        this.expensesMinor = expensesMinor;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public long getIncomeMinor() {
+        return incomeMinor;
+    }
+
+    public long getExpensesMinor() {
+        return expensesMinor;
+    }
+
+    public BigDecimal getIncome() {
+        return Money.toBigDecimal(incomeMinor);
+    }
+
+    public BigDecimal getExpenses() {
+        return Money.toBigDecimal(expensesMinor);
+    }
+
+    public BigDecimal getProfit() {
+        return Money.toBigDecimal(incomeMinor - expensesMinor);
+    }
+
+    @Override
+    public String toString() {
+        return "StoreFigures{" +
+                "storeId='" + storeId + '\'' +
+                ", income=" + getIncome() +
+                ", expenses=" + getExpenses() +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package org.productMarket.checkouts;
+
+import org.productMarket.enums.LineStatus;
+
+import java.io.Serializable;
+
+public class CheckoutLine implements Serializable {
+
+    private final String productName;
+    private final int requestedQuantity;
+    private final int availableQuantity;
+    private final LineStatus status;
+
+    public CheckoutLine(String productName, int requestedQuantity, int availableQuantity, LineStatus status) {
+        this.productName = productName;
+        this.requestedQuantity = requestedQuantity;
+        this.availableQuantity = availableQuantity;
+        this.status = status;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getRequestedQuantity() {
+        return requestedQuantity;
+    }
+
+    public int getAvailableQuantity() {
+        return availableQuantity;
+    }
+
+    public LineStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutLine{" +
+                "productName='" + productName + '\'' +
+                ", requestedQuantity=" + requestedQuantity +
+                ", availableQuantity=" + availableQuantity +
+                ", status=" + status +
+                '}';
+    }
+}
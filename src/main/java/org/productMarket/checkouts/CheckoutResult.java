@@ -0,0 +1,69 @@
+package org.productMarket.checkouts;
+
+import org.productMarket.enums.CheckoutStatus;
+import org.productMarket.enums.LineStatus;
+import org.productMarket.money.Money;
+import org.productMarket.receipts.Receipt;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CheckoutResult implements Serializable {
+
+    private final CheckoutStatus status;
+    private final Receipt receipt;
+    private final List<CheckoutLine> lines;
+    private final long totalPriceMinor;
+
+    public CheckoutResult(CheckoutStatus status, Receipt receipt, List<CheckoutLine> lines, long totalPriceMinor) {
+        this.status = status;
+        this.receipt = receipt;
+        this.lines = lines;
+        this.totalPriceMinor = totalPriceMinor;
+    }
+
+    public boolean isCompleted() {
+        return status == CheckoutStatus.COMPLETED;
+    }
+
+    public CheckoutStatus getStatus() {
+        return status;
+    }
+
+    // null unless the checkout is completed
+    public Receipt getReceipt() {
+        return receipt;
+    }
+
+    public List<CheckoutLine> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    public List<CheckoutLine> getUnsoldLines() {
+        return lines.stream()
+                .filter(line -> line.getStatus() != LineStatus.SOLD)
+                .collect(Collectors.toList());
+    }
+
+    // the price of the lines that could be sold, also when the customer could not pay for them
+    public BigDecimal getTotalPrice() {
+        return Money.toBigDecimal(totalPriceMinor);
+    }
+
+    public long getTotalPriceMinor() {
+        return totalPriceMinor;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutResult{" +
+                "status=" + status +
+                ", receipt=" + receipt +
+                ", lines=" + lines +
+                ", totalPrice=" + getTotalPrice() +
+                '}';
+    }
+}
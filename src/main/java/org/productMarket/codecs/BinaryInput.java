@@ -0,0 +1,116 @@
+package org.productMarket.codecs;
+
+import org.productMarket.identities.Identity;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Reads the encodings written by {@link BinaryOutput}.
+ */
+public class BinaryInput {
+
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    public BinaryInput(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public BinaryInput(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() throws IOException {
+        require(1);
+        return this.bytes[this.position++] & 0xFF;
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint!");
+    }
+
+    public int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value > 0xFFFFFFFFL) {
+            throw new StreamCorruptedException("Malformed varint!");
+        }
+        return (int) value;
+    }
+
+    public long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readLong() throws IOException {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (this.bytes[this.position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public String readString() throws IOException {
+        int length = readVarInt();
+        require(length);
+        String value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+        this.position += length;
+        return value;
+    }
+
+    public BigDecimal readMoney() throws IOException {
+        int scale = (byte) readByte();
+        return BigDecimal.valueOf(readSignedVarLong(), scale);
+    }
+
+    public String readId() throws IOException {
+        int kind = readByte();
+        if (kind == 0) {
+            return readString();
+        } else if (kind == 1) {
+            return new UUID(readLong(), readLong()).toString();
+        }
+        throw new StreamCorruptedException("Unknown ID encoding " + kind + "!");
+    }
+
+    public Identity readIdentity() throws IOException {
+        int kind = readByte();
+        if (kind == 0) {
+            return Identity.of(readString());
+        } else if (kind == 1) {
+            return Identity.of(readLong(), readLong());
+        }
+        throw new StreamCorruptedException("Unknown ID encoding " + kind + "!");
+    }
+
+    public boolean hasRemaining() {
+        return this.position < this.limit;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    private void require(int count) throws IOException {
+        if (count < 0 || this.limit - this.position < count) {
+            throw new EOFException("Unexpected end of encoded data!");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.productMarket.codecs;
+
+import org.productMarket.identities.Identity;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Growable byte buffer with the primitive encodings used by the binary codecs:
+ * LEB128 varints, zig-zag signed varints, length-prefixed UTF-8 strings,
+ * money as a scale byte plus an unscaled long, and UUID strings as two longs.
+ */
+public class BinaryOutput {
+
+    private byte[] bytes;
+    private int size;
+
+    public BinaryOutput() {
+        this(256);
+    }
+
+    public BinaryOutput(int capacity) {
+        this.bytes = new byte[capacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, this.bytes, this.size, value.length);
+        this.size += value.length;
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            this.bytes[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            this.bytes[this.size++] = (byte) (value >>> shift);
+        }
+    }
+
+    public void writeString(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(encoded.length);
+        writeBytes(encoded);
+    }
+
+    public void writeMoney(BigDecimal value) {
+        // throws ArithmeticException for amounts that do not fit in a long, which no price does
+        writeByte(value.scale());
+        writeSignedVarLong(value.unscaledValue().longValueExact());
+    }
+
+    public void writeId(String id) {
+        // canonical UUID strings shrink from 37 bytes to 17, anything else is kept as a string
+        UUID uuid = parseUuid(id);
+        if (uuid == null) {
+            writeByte(0);
+            writeString(id);
+        } else {
+            writeByte(1);
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    public void writeId(Identity id) {
+        // same encoding as writeId(String), without formatting and parsing the UUID
+        if (id.isUuid()) {
+            writeByte(1);
+            writeLong(id.getMostSignificantBits());
+            writeLong(id.getLeastSignificantBits());
+        } else {
+            writeByte(0);
+            writeString(id.toString());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // wraps the written bytes without copying them, valid until the next write or reset
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(this.bytes, 0, this.size);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.bytes, this.size);
+    }
+
+    public void reset() {
+        this.size = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.size + extra > this.bytes.length) {
+            this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + extra));
+        }
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.productMarket.codecs;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.enums.ProductCategory;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NegativeSellingPrice;
+import org.productMarket.identities.Identity;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Versioned binary format for {@link Receipt}, {@link Product} and {@link Cashier}.
+ *
+ * <p>A stream starts with the magic bytes {@code 'R' 'C'} and a version byte, followed by
+ * receipt records. Quantities, counts and dates are varints, money is a scale byte plus a
+ * zig-zag varint of the unscaled value, and UUID IDs are stored as two longs. Cashiers and
+ * products are dictionary-encoded: the first reference writes the full definition, later
+ * references in the same stream only write its index. The selling price is written per
+ * line, because it changes over the life of a product.
+ */
+public class ReceiptCodec {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC_1 = 'R';
+    private static final int MAGIC_2 = 'C';
+
+    public static byte[] encode(Receipt receipt) {
+        BinaryOutput out = new BinaryOutput();
+        Encoder encoder = new Encoder();
+        encoder.writeHeader(out);
+        encoder.write(receipt, out);
+        return out.toByteArray();
+    }
+
+    public static Receipt decode(byte[] bytes) throws IOException {
+        BinaryInput in = new BinaryInput(bytes);
+        Decoder decoder = new Decoder();
+        decoder.readHeader(in);
+        return decoder.read(in);
+    }
+
+    /**
+     * Writes a single self-contained product, including its selling price.
+     */
+    public static void writeProduct(Product product, BinaryOutput out) {
+        writeProductDefinition(product, out);
+        writeOptionalMoney(product.getSellingPrice(), out);
+    }
+
+    public static Product readProduct(BinaryInput in) throws IOException {
+        return readProductDefinition(in).toProduct(readOptionalMoney(in));
+    }
+
+    public static void writeCashier(Cashier cashier, BinaryOutput out) {
+        out.writeId(cashier.getIdentity());
+        out.writeString(cashier.getName());
+        writeOptionalMoney(cashier.getSalary(), out);
+    }
+
+    public static Cashier readCashier(BinaryInput in) throws IOException {
+        Identity id = in.readIdentity();
+        String name = in.readString();
+        return new Cashier(name, id, readOptionalMoney(in));
+    }
+
+    private static void writeProductDefinition(Product product, BinaryOutput out) {
+        out.writeId(product.getIdentity());
+        out.writeString(product.getName());
+        out.writeByte(product.getType().ordinal());
+        out.writeMoney(product.getDeliveryPrice());
+        out.writeSignedVarLong(product.getDateOfExpiry().toEpochDay());
+    }
+
+    private static ProductDefinition readProductDefinition(BinaryInput in) throws IOException {
+        Identity id = in.readIdentity();
+        String name = in.readString();
+        int type = in.readByte();
+        if (type >= ProductCategory.values().length) {
+            throw new StreamCorruptedException("Unknown product category " + type + "!");
+        }
+        BigDecimal deliveryPrice = in.readMoney();
+        LocalDate dateOfExpiry = LocalDate.ofEpochDay(in.readSignedVarLong());
+
+        return new ProductDefinition(id, name, ProductCategory.values()[type], deliveryPrice, dateOfExpiry);
+    }
+
+    private static void writeOptionalMoney(BigDecimal value, BinaryOutput out) {
+        if (value == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(1);
+            out.writeMoney(value);
+        }
+    }
+
+    private static BigDecimal readOptionalMoney(BinaryInput in) throws IOException {
+        return in.readByte() == 0 ? null : in.readMoney();
+    }
+
+    public static class Encoder {
+
+        private final Map<Identity, Integer> cashiers = new HashMap<>();
+        private final Map<Identity, Integer> products = new HashMap<>();
+
+        public void writeHeader(BinaryOutput out) {
+            out.writeByte(MAGIC_1);
+            out.writeByte(MAGIC_2);
+            out.writeByte(VERSION);
+        }
+
+        public void write(Receipt receipt, BinaryOutput out) {
+            out.writeVarLong(receipt.getSerialNumber());
+            out.writeSignedVarLong(receipt.getDateOfIssue().toEpochDay());
+            writeCashierReference(receipt.getCashier(), out);
+
+            Map<Product, Integer> lines = receipt.getProducts();
+            out.writeVarInt(lines.size());
+            for (Map.Entry<Product, Integer> line : lines.entrySet()) {
+                writeProductReference(line.getKey(), out);
+                writeOptionalMoney(receipt.getUnitPrice(line.getKey()), out);
+                out.writeVarInt(line.getValue());
+            }
+        }
+
+        private void writeCashierReference(Cashier cashier, BinaryOutput out) {
+            Integer index = this.cashiers.get(cashier.getIdentity());
+            if (index != null) {
+                out.writeVarInt(index);
+                return;
+            }
+
+            // an index equal to the dictionary size announces a new definition
+            index = this.cashiers.size();
+            this.cashiers.put(cashier.getIdentity(), index);
+            out.writeVarInt(index);
+            writeCashier(cashier, out);
+        }
+
+        private void writeProductReference(Product product, BinaryOutput out) {
+            Integer index = this.products.get(product.getIdentity());
+            if (index != null) {
+                out.writeVarInt(index);
+                return;
+            }
+
+            index = this.products.size();
+            this.products.put(product.getIdentity(), index);
+            out.writeVarInt(index);
+            writeProductDefinition(product, out);
+        }
+    }
+
+    public static class Decoder {
+
+        private final List<Cashier> cashiers = new ArrayList<>();
+        private final List<ProductDefinition> products = new ArrayList<>();
+
+        public void readHeader(BinaryInput in) throws IOException {
+            if (in.readByte() != MAGIC_1 || in.readByte() != MAGIC_2) {
+                throw new StreamCorruptedException("Not an encoded receipt!");
+            }
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported receipt format version " + version + "!");
+            }
+        }
+
+        public Receipt read(BinaryInput in) throws IOException {
+            long serialNumber = in.readVarLong();
+            LocalDate dateOfIssue = LocalDate.ofEpochDay(in.readSignedVarLong());
+            Cashier cashier = readCashierReference(in);
+
+            int lineCount = in.readVarInt();
+            Map<Product, Integer> lines = new HashMap<>(lineCount * 2);
+            for (int i = 0; i < lineCount; i++) {
+                ProductDefinition definition = readProductReference(in);
+                BigDecimal sellingPrice = readOptionalMoney(in);
+                lines.put(definition.toProduct(sellingPrice), in.readVarInt());
+            }
+
+            return new Receipt(serialNumber, cashier, dateOfIssue, lines);
+        }
+
+        private Cashier readCashierReference(BinaryInput in) throws IOException {
+            int index = in.readVarInt();
+            if (index < this.cashiers.size()) {
+                return this.cashiers.get(index);
+            } else if (index != this.cashiers.size()) {
+                throw new StreamCorruptedException("Unknown cashier reference " + index + "!");
+            }
+
+            Cashier cashier = readCashier(in);
+            this.cashiers.add(cashier);
+            return cashier;
+        }
+
+        private ProductDefinition readProductReference(BinaryInput in) throws IOException {
+            int index = in.readVarInt();
+            if (index < this.products.size()) {
+                return this.products.get(index);
+            } else if (index != this.products.size()) {
+                throw new StreamCorruptedException("Unknown product reference " + index + "!");
+            }
+
+            ProductDefinition definition = readProductDefinition(in);
+            this.products.add(definition);
+            return definition;
+        }
+    }
+
+    // the price-independent part of a product, shared by every line that references it
+    private record ProductDefinition(Identity id, String name, ProductCategory type, BigDecimal deliveryPrice, LocalDate dateOfExpiry) {
+
+        Product toProduct(BigDecimal sellingPrice) throws IOException {
+            try {
+                Product product = this.type == ProductCategory.EDIBLE
+                        ? new EdibleProduct(this.id, this.name, this.deliveryPrice, this.dateOfExpiry)
+                        : new NonEdibleProduct(this.id, this.name, this.deliveryPrice, this.dateOfExpiry);
+                if (sellingPrice != null) {
+                    product.setSellingPrice(sellingPrice);
+                }
+                return product;
+            } catch (NegativeDeliveryPrice | NegativeSellingPrice e) {
+                throw new StreamCorruptedException(e.getMessage());
+            }
+        }
+    }
+}
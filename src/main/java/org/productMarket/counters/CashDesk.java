@@ -1,44 +1,196 @@
 package org.productMarket.counters;
 
 import org.productMarket.cashiers.Cashier;
+import org.productMarket.identities.Identity;
+import org.productMarket.metrics.CashDeskMetrics;
+import org.productMarket.metrics.MetricsRegistry;
 import org.productMarket.products.Product;
 import org.productMarket.receipts.Receipt;
+import org.productMarket.shifts.Shift;
+import org.productMarket.shifts.Throughput;
 import org.productMarket.utils.ReceiptUtil;
+import org.productMarket.writers.ReceiptSink;
 
 import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
 
 public class CashDesk implements Serializable {
 
+    private static final AtomicInteger count = new AtomicInteger();
+
+    private final int number;
     private Cashier cashier;
+    private transient ReceiptSink receiptSink;
+    private transient MetricsRegistry metricsRegistry;
+    // resolved for the current cashier, so recording does not look instruments up
+    private transient volatile CashDeskMetrics metrics;
+    private transient volatile Identity metricsCashier;
+    // every shift worked at the desk, the last one is open while the desk is staffed
+    private final List<Shift> shifts = new CopyOnWriteArrayList<>();
+    private volatile Shift shift;
 
     public CashDesk(Cashier cashier) {
+        this.number = count.incrementAndGet();
         this.setCashier(cashier);
     }
 
+    public CashDesk(Cashier cashier, ReceiptSink receiptSink) {
+        this(cashier);
+        this.setReceiptSink(receiptSink);
+    }
+
+    /**
+     * Hands the desk over: ends the current shift and starts one for the new cashier.
+     */
     public void changeCashier(Cashier cashier) {
-        this.cashier = cashier;
+        handOver(cashier);
+    }
+
+    // the cashier, their metrics and the shifts change together
+    private synchronized void handOver(Cashier cashier) {
+        Instant now = Instant.now();
+        Shift next = new Shift(this.number, cashier, now);
+        if (this.shift != null) {
+            this.shift.end(now);
+        }
+        if (cashier != this.cashier) {
+            this.cashier = cashier;
+            this.metrics = null;
+        }
+        this.shifts.add(next);
+        this.shift = next;
+    }
+
+    /**
+     * Opens a shift for the current cashier, unless one is open already.
+     */
+    public synchronized Shift startShift() {
+        if (this.shift == null) {
+            handOver(this.cashier);
+        }
+        return this.shift;
+    }
+
+    /**
+     * Closes the desk's current shift, if it has one.
+     */
+    public synchronized void endShift() {
+        if (this.shift != null) {
+            this.shift.end(Instant.now());
+            this.shift = null;
+        }
+    }
+
+    /**
+     * Counts a served customer in the current shift, opening one if the desk was closed.
+     * The receipt is null if nothing was sold.
+     */
+    public void recordCheckout(Receipt receipt, long busyNanos) {
+        Shift shift = this.shift;
+        if (shift == null) {
+            shift = startShift();
+        }
+        shift.record(receipt, busyNanos);
+    }
+
+    public List<Shift> getShifts() {
+        return Collections.unmodifiableList(shifts);
+    }
+
+    // null while the desk is closed
+    public Shift getCurrentShift() {
+        return shift;
+    }
+
+    /**
+     * Everything the desk processed over all its shifts, up to now.
+     */
+    public Throughput getThroughput() {
+        Instant now = Instant.now();
+        Throughput total = Throughput.NONE;
+        for (Shift shift : this.shifts) {
+            total = total.plus(shift.getThroughput(now));
+        }
+        return total;
     }
 
     public Receipt generateReceipt(Map<Product, Integer> products) {
+        return generateReceipt(products, null);
+    }
+
+    /**
+     * Generates a receipt which charges the given unit prices, or the products' selling prices if null.
+     */
+    public Receipt generateReceipt(Map<Product, Integer> products, ToLongFunction<Product> unitPrices) {
+        CashDeskMetrics metrics = getMetrics();
+        long start = System.nanoTime();
+
         // generate receipt
-        Receipt receipt = new Receipt(this.cashier, products);
+        Receipt receipt = unitPrices == null ? new Receipt(this.cashier, products) : new Receipt(this.cashier, products, unitPrices);
+
+        // write the content from the receipt in a file, or hand it to the configured sink
+        long saveStart = System.nanoTime();
+        if (this.receiptSink == null) {
+            ReceiptUtil.saveReceipt(receipt);
+        } else {
+            this.receiptSink.save(receipt);
+        }
+
+        long end = System.nanoTime();
+        metrics.saveLatency().record(end - saveStart);
+        metrics.receiptLatency().record(end - start);
+        return receipt;
+    }
 
-        // write the content from the receipt in a file
-        ReceiptUtil.saveReceipt(receipt);
+    public CashDeskMetrics getMetrics() {
+        // read in the opposite order of the writes below, so a matching cashier means the metrics are theirs
+        Identity metricsCashier = this.metricsCashier;
+        CashDeskMetrics metrics = this.metrics;
+        Cashier cashier = this.cashier;
+        if (metrics == null || metricsCashier != cashier.getIdentity()) {
+            metrics = new CashDeskMetrics(getMetricsRegistry(), this.number, cashier.getId());
+            this.metrics = metrics;
+            this.metricsCashier = cashier.getIdentity();
+        }
+        return metrics;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry == null ? MetricsRegistry.global() : metricsRegistry;
+    }
+
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        this.metrics = null;
+    }
 
-       return receipt;
+    public int getNumber() {
+        return number;
     }
 
     public Cashier getCashier() {
         return cashier;
     }
 
+    public ReceiptSink getReceiptSink() {
+        return receiptSink;
+    }
+
+    public void setReceiptSink(ReceiptSink receiptSink) {
+        this.receiptSink = receiptSink;
+    }
+
     public void setCashier(Cashier cashier) {
         if (cashier == null) {
             throw new NullPointerException("Cashier cannot be null!");
         }
-        this.cashier = cashier;
+        handOver(cashier);
     }
 
     @Override
@@ -1,7 +1,9 @@
 package org.productMarket.customers;
 
 import org.productMarket.exceptions.NegativeStackOfMoney;
+import org.productMarket.money.Money;
 import org.productMarket.products.Product;
+import org.productMarket.wallets.Wallet;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -9,25 +11,37 @@ import java.math.BigDecimal;
 public class Customer implements Serializable {
 
     private String name;
-    private BigDecimal money;
-
+    // may be shared with other customers paying from the same account
+    private Wallet wallet;
 
     public Customer(String name, BigDecimal money) throws NegativeStackOfMoney {
         this.setName(name);
         this.setMoney(money);
     }
 
-    public boolean canBuyProduct(Product product, Integer quantity) {
-        BigDecimal totalPrice = product.getSellingPrice().multiply(BigDecimal.valueOf(quantity));
-        if (totalPrice.compareTo(this.money) >= 1) {
-            return false;
+    public Customer(String name, Wallet wallet) {
+        if (wallet == null) {
+            throw new NullPointerException("Wallet cannot be null!");
         }
+        this.setName(name);
+        this.wallet = wallet;
+    }
+
+    public boolean canBuyProduct(Product product, Integer quantity) {
+        return canAfford(Money.times(product.getSellingPriceMinor(), quantity));
+    }
 
-        return true;
+    public boolean canAfford(long amountMinor) {
+        return amountMinor <= this.wallet.getAvailableMinor();
     }
 
     public void decreaseMoney(Product product, int quantity) {
-        this.money = this.money.subtract(product.getSellingPrice().multiply(BigDecimal.valueOf(quantity)));
+        long amountMinor = Money.times(product.getSellingPriceMinor(), quantity);
+        this.wallet.withdraw(Money.toBigDecimal(amountMinor, Money.scaleOf(product.getSellingPrice())));
+    }
+
+    public void decreaseMoney(long amountMinor) {
+        this.wallet.withdraw(amountMinor);
     }
 
     public String getName() {
@@ -35,7 +49,15 @@ public class Customer implements Serializable {
     }
 
     public BigDecimal getMoney() {
-        return money;
+        return wallet.getAvailable();
+    }
+
+    public long getMoneyMinor() {
+        return wallet.getAvailableMinor();
+    }
+
+    public Wallet getWallet() {
+        return wallet;
     }
 
     public void setName(String name) {
@@ -49,14 +71,14 @@ public class Customer implements Serializable {
         if (money.compareTo(BigDecimal.valueOf(0)) <= 0) {
             throw new NegativeStackOfMoney("Money cannot be zero or negative number!");
         }
-        this.money = money;
+        this.wallet = new Wallet(money);
     }
 
     @Override
     public String toString() {
         return "Customer{" +
                 "name='" + name + '\'' +
-                ", money=" + money +
+                ", money=" + getMoney() +
                 '}';
     }
 }
@@ -0,0 +1,7 @@
+package org.productMarket.enums;
+
+public enum BasketSizeDistribution {
+    FIXED,
+    UNIFORM,
+    GEOMETRIC;
+}
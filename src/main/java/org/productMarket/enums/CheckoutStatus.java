@@ -0,0 +1,7 @@
+package org.productMarket.enums;
+
+public enum CheckoutStatus {
+    COMPLETED,
+    NOTHING_AVAILABLE,
+    INSUFFICIENT_FUNDS;
+}
@@ -0,0 +1,7 @@
+package org.productMarket.enums;
+
+public enum FlushPolicy {
+    PER_RECEIPT,
+    PER_BATCH,
+    TIME_WINDOW;
+}
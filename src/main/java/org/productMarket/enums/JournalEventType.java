@@ -0,0 +1,9 @@
+package org.productMarket.enums;
+
+public enum JournalEventType {
+    DELIVERY,
+    SALE,
+    CASHIER_HIRE,
+    PRICE_CHANGE,
+    DAY_ROLLOVER;
+}
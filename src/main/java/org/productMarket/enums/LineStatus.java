@@ -0,0 +1,8 @@
+package org.productMarket.enums;
+
+public enum LineStatus {
+    SOLD,
+    PARTIAL,
+    UNAVAILABLE,
+    INVALID_QUANTITY;
+}
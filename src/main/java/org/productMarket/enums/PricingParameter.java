@@ -0,0 +1,8 @@
+package org.productMarket.enums;
+
+public enum PricingParameter {
+    EDIBLE_PRODUCTS_MARKUP,
+    NON_EDIBLE_PRODUCTS_MARKUP,
+    DISCOUNT,
+    DAYS_LEFT_TILL_EXPIRY;
+}
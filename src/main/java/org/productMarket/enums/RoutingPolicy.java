@@ -0,0 +1,6 @@
+package org.productMarket.enums;
+
+public enum RoutingPolicy {
+    LEAST_LOADED,
+    RANDOM;
+}
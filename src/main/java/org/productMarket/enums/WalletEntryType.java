@@ -0,0 +1,9 @@
+package org.productMarket.enums;
+
+public enum WalletEntryType {
+    DEPOSIT,
+    WITHDRAWAL,
+    RESERVATION,
+    COMMIT,
+    RELEASE;
+}
@@ -0,0 +1,124 @@
+package org.productMarket.identities;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * The ID of a product or cashier.
+ *
+ * <p>A canonical UUID is kept as its two 128-bit halves instead of a 36-character string,
+ * any other ID as it is. Identities are interned by the {@link IdentityRegistry}: there is
+ * one live instance per ID in the process, so comparing two of them is usually a reference
+ * check, and each one carries a dense {@link #getHandle() handle} for array-indexed lookups.
+ * A handle belongs to the identity as long as it is alive.
+ */
+public final class Identity implements Serializable {
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    // only set for IDs which are not canonical UUIDs
+    final String text;
+    private final transient int hash;
+    // assigned once by the registry when the identity is interned
+    transient int handle = -1;
+
+    Identity(long mostSignificantBits, long leastSignificantBits, String text) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.text = text;
+        this.hash = hash(mostSignificantBits, leastSignificantBits, text);
+    }
+
+    private static int hash(long mostSignificantBits, long leastSignificantBits, String text) {
+        if (text != null) {
+            return text.hashCode();
+        }
+        long bits = mostSignificantBits ^ leastSignificantBits;
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    public static Identity random() {
+        UUID uuid = UUID.randomUUID();
+        return of(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public static Identity of(long mostSignificantBits, long leastSignificantBits) {
+        return IdentityRegistry.intern(new Identity(mostSignificantBits, leastSignificantBits, null));
+    }
+
+    /**
+     * Returns the identity of the ID, e.g. one read back from a stored receipt.
+     */
+    public static Identity of(String id) {
+        return IdentityRegistry.intern(parse(id));
+    }
+
+    // builds an identity which is not interned yet
+    static Identity parse(String id) {
+        if (id == null) {
+            throw new NullPointerException("ID cannot be null!");
+        }
+        UUID uuid = parseUuid(id);
+        if (uuid == null) {
+            return new Identity(0, 0, id);
+        }
+        return new Identity(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null);
+    }
+
+    private static UUID parseUuid(String id) {
+        if (id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            // only the canonical form, so that toString() gives back the same ID
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean isUuid() {
+        return text == null;
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    /**
+     * The dense index of this identity in the {@link IdentityRegistry}, from 0 up to its size.
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return IdentityRegistry.intern(new Identity(mostSignificantBits, leastSignificantBits, text));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Identity identity)) return false;
+        return hash == identity.hash
+                && mostSignificantBits == identity.mostSignificantBits
+                && leastSignificantBits == identity.leastSignificantBits
+                && (text == null ? identity.text == null : text.equals(identity.text));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return text != null ? text : new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+}
@@ -0,0 +1,159 @@
+package org.productMarket.identities;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The process-wide table of interned identities.
+ *
+ * <p>Each identity is stored once and numbered densely, so handles can index arrays
+ * instead of hash maps. The table only holds identities weakly: an identity nothing refers
+ * to any more, like the ID of a product made and dropped by a simulation, is removed and its
+ * handle is given to a later identity. Whoever keeps handles keeps their identities alive.
+ */
+public final class IdentityRegistry {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final ConcurrentHashMap<Key, Entry> identities = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Identity> collected = new ReferenceQueue<>();
+    private static final ConcurrentLinkedQueue<Integer> freeHandles = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger nextHandle = new AtomicInteger();
+    // entries by handle, in fixed-size chunks so growing never copies the slots
+    private static volatile Chunk[] byHandle = new Chunk[1];
+
+    private IdentityRegistry() {
+    }
+
+    // the value of an identity, without referring to the identity itself
+    private record Key(long mostSignificantBits, long leastSignificantBits, String text) {
+
+        static Key of(Identity identity) {
+            return new Key(identity.getMostSignificantBits(), identity.getLeastSignificantBits(), identity.text);
+        }
+    }
+
+    private static final class Entry extends WeakReference<Identity> {
+
+        final Key key;
+        final int handle;
+
+        Entry(Identity identity, Key key, int handle) {
+            super(identity, collected);
+            this.key = key;
+            this.handle = handle;
+        }
+    }
+
+    // never serialized, the registry is rebuilt by every process
+    @SuppressWarnings("serial")
+    private static final class Chunk extends AtomicReferenceArray<Entry> {
+
+        Chunk() {
+            super(CHUNK_SIZE);
+        }
+    }
+
+    static Identity intern(Identity candidate) {
+        expungeCollected();
+        Key key = Key.of(candidate);
+        while (true) {
+            Entry entry = identities.get(key);
+            Identity interned = entry == null ? null : entry.get();
+            if (interned != null) {
+                return interned;
+            }
+
+            // the handle is set before the identity is published, so nobody sees it without one
+            Integer free = freeHandles.poll();
+            int handle = free != null ? free : nextHandle.getAndIncrement();
+            candidate.handle = handle;
+            Entry created = new Entry(candidate, key, handle);
+            chunk(handle).set(handle & CHUNK_MASK, created);
+            boolean published = entry == null ? identities.putIfAbsent(key, created) == null : identities.replace(key, entry, created);
+            if (published) {
+                return candidate;
+            }
+
+            // another thread interned the same ID first
+            chunk(handle).compareAndSet(handle & CHUNK_MASK, created, null);
+            created.clear();
+            candidate.handle = -1;
+            freeHandles.add(handle);
+        }
+    }
+
+    private static void expungeCollected() {
+        Reference<? extends Identity> reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = (Entry) reference;
+            identities.remove(entry.key, entry);
+            chunk(entry.handle).compareAndSet(entry.handle & CHUNK_MASK, entry, null);
+            freeHandles.add(entry.handle);
+        }
+    }
+
+    private static Chunk chunk(int handle) {
+        Chunk[] chunks = byHandle;
+        int chunkIndex = handle >>> CHUNK_BITS;
+        if (chunkIndex >= chunks.length || chunks[chunkIndex] == null) {
+            chunks = grow(chunkIndex);
+        }
+        return chunks[chunkIndex];
+    }
+
+    private static synchronized Chunk[] grow(int chunkIndex) {
+        Chunk[] current = byHandle;
+        if (chunkIndex < current.length && current[chunkIndex] != null) {
+            return current;
+        }
+        Chunk[] grown = new Chunk[Math.max(chunkIndex + 1, current.length * 2)];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        for (int i = 0; i < grown.length; i++) {
+            if (grown[i] == null) {
+                grown[i] = new Chunk();
+            }
+        }
+        byHandle = grown;
+        return grown;
+    }
+
+    /**
+     * Returns the identity with the handle, or null if no live identity has it.
+     */
+    public static Identity get(int handle) {
+        if (handle < 0 || handle >= nextHandle.get()) {
+            return null;
+        }
+        Chunk[] chunks = byHandle;
+        int chunkIndex = handle >>> CHUNK_BITS;
+        if (chunkIndex >= chunks.length || chunks[chunkIndex] == null) {
+            return null;
+        }
+        Entry entry = chunks[chunkIndex].get(handle & CHUNK_MASK);
+        return entry == null ? null : entry.get();
+    }
+
+    /**
+     * Returns the registered identity of the ID without registering it, or null if no
+     * product or cashier has that ID.
+     */
+    public static Identity find(String id) {
+        Entry entry = identities.get(Key.of(Identity.parse(id)));
+        return entry == null ? null : entry.get();
+    }
+
+    /**
+     * One more than the highest handle given out so far; every handle is below it.
+     */
+    public static int size() {
+        return nextHandle.get();
+    }
+}
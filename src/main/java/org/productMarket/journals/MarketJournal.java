@@ -0,0 +1,306 @@
+package org.productMarket.journals;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.codecs.BinaryInput;
+import org.productMarket.codecs.BinaryOutput;
+import org.productMarket.codecs.ReceiptCodec;
+import org.productMarket.enums.JournalEventType;
+import org.productMarket.enums.PricingParameter;
+import org.productMarket.markets.Market;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only write-ahead journal of {@link Market} events plus periodic snapshots.
+ *
+ * <p>Files in the journal directory:
+ * <ul>
+ *     <li>{@code journal_<first sequence>.journal} - events, each framed as
+ *     {@code [int length][int crc32][byte type][long sequence][payload]}</li>
+ *     <li>{@code snapshot_<last sequence>.snapshot} - the gzipped serialized market
+ *     after the event with that sequence</li>
+ *     <li>{@code snapshot_<last sequence>.history} - the receipt history file the snapshot
+ *     points into, empty when its receipts are all in memory</li>
+ * </ul>
+ * A snapshot starts a new journal file and deletes the files it makes obsolete, including
+ * history files only older snapshots point into, so
+ * recovery ({@link MarketRecovery}) only reads one snapshot and the journal tail after it.
+ * Appends are buffered NIO writes; they only call {@code force} when created with
+ * {@code syncOnWrite}, otherwise the OS decides when the data reaches the disk.
+ */
+public class MarketJournal implements Closeable {
+
+    static final int HEADER_SIZE = 4 + 4 + 1 + 8;
+
+    private final Path directory;
+    private final boolean syncOnWrite;
+    private final BinaryOutput payload = new BinaryOutput(512);
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private long sequence;
+
+    private MarketJournal(Path directory, boolean syncOnWrite, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.syncOnWrite = syncOnWrite;
+        this.sequence = lastSequence;
+    }
+
+    /**
+     * Opens the journal in the directory, continuing after the last valid event.
+     * A torn record at the end of the last file, left by a crash, is cut off.
+     */
+    public static MarketJournal open(Path directory, boolean syncOnWrite) throws IOException {
+        Files.createDirectories(directory);
+
+        long lastSequence = latestSnapshotSequence(directory);
+        List<Path> journals = journalFiles(directory);
+        if (!journals.isEmpty()) {
+            Path last = journals.get(journals.size() - 1);
+            long[] end = new long[]{0};
+            long lastInFile = readEvents(last, (type, sequence, in) -> { }, end);
+            lastSequence = Math.max(lastSequence, lastInFile);
+            try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+                channel.truncate(end[0]);
+            }
+        }
+
+        MarketJournal journal = new MarketJournal(directory, syncOnWrite, lastSequence);
+        journal.channel = journals.isEmpty()
+                ? journal.openJournalFile(lastSequence + 1)
+                : FileChannel.open(journals.get(journals.size() - 1), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return journal;
+    }
+
+    public synchronized void recordDelivery(Product product, int quantity) {
+        this.payload.reset();
+        ReceiptCodec.writeProduct(product, this.payload);
+        this.payload.writeVarInt(quantity);
+        append(JournalEventType.DELIVERY);
+    }
+
+    public synchronized void recordSale(Receipt receipt) {
+        this.payload.reset();
+        this.payload.writeBytes(ReceiptCodec.encode(receipt));
+        append(JournalEventType.SALE);
+    }
+
+    public synchronized void recordCashierHire(Cashier cashier) {
+        this.payload.reset();
+        ReceiptCodec.writeCashier(cashier, this.payload);
+        append(JournalEventType.CASHIER_HIRE);
+    }
+
+    public synchronized void recordPriceChange(PricingParameter parameter, double value) {
+        this.payload.reset();
+        this.payload.writeByte(parameter.ordinal());
+        this.payload.writeLong(Double.doubleToLongBits(value));
+        append(JournalEventType.PRICE_CHANGE);
+    }
+
+    public synchronized void recordDayRollover(LocalDate day) {
+        this.payload.reset();
+        this.payload.writeSignedVarLong(day.toEpochDay());
+        append(JournalEventType.DAY_ROLLOVER);
+    }
+
+    /**
+     * Writes a snapshot of the market and starts a new journal file after it.
+     * The caller must make sure the market does not change meanwhile, which
+     * {@link Market#writeSnapshot()} does.
+     */
+    public synchronized void writeSnapshot(Market market) throws IOException {
+        Path snapshot = snapshotPath(this.directory, this.sequence);
+        Path history = market.getReceiptHistory().getFile();
+        List<Path> referenced = new ArrayList<>();
+        for (Path old : historyFiles(this.directory)) {
+            String file = Files.readString(old);
+            if (!file.isEmpty()) {
+                referenced.add(Path.of(file));
+            }
+        }
+        // written first, so every snapshot on disk names the history file it needs
+        Files.writeString(historyPath(this.directory, this.sequence), history == null ? "" : history.toAbsolutePath().toString());
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))) {
+            out.writeObject(market);
+        }
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // everything up to the snapshot is now redundant
+        this.channel.close();
+        for (Path journal : journalFiles(this.directory)) {
+            Files.delete(journal);
+        }
+        for (Path old : snapshotFiles(this.directory)) {
+            if (!old.equals(snapshot)) {
+                Files.delete(old);
+            }
+        }
+        Path current = historyPath(this.directory, this.sequence);
+        for (Path old : historyFiles(this.directory)) {
+            if (!old.equals(current)) {
+                Files.delete(old);
+            }
+        }
+        for (Path file : referenced) {
+            if (history == null || !file.equals(history.toAbsolutePath())) {
+                Files.deleteIfExists(file);
+            }
+        }
+        this.channel = openJournalFile(this.sequence + 1);
+    }
+
+    public synchronized void sync() throws IOException {
+        this.channel.force(false);
+    }
+
+    public synchronized long getLastSequence() {
+        return sequence;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.channel.force(false);
+        this.channel.close();
+    }
+
+    private void append(JournalEventType type) {
+        ByteBuffer body = this.payload.asByteBuffer();
+        long next = this.sequence + 1;
+
+        this.header.clear();
+        this.header.putInt(1 + 8 + body.remaining());
+        this.header.putInt(0);
+        this.header.put((byte) type.ordinal());
+        this.header.putLong(next);
+        this.header.flip();
+
+        // the checksum covers type, sequence and payload
+        this.crc.reset();
+        this.crc.update(this.header.array(), 8, 1 + 8);
+        this.crc.update(body.array(), 0, body.remaining());
+        this.header.putInt(4, (int) this.crc.getValue());
+
+        try {
+            ByteBuffer[] buffers = {this.header, body};
+            while (this.header.hasRemaining() || body.hasRemaining()) {
+                this.channel.write(buffers);
+            }
+            if (this.syncOnWrite) {
+                this.channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.sequence = next;
+    }
+
+    private FileChannel openJournalFile(long firstSequence) throws IOException {
+        return FileChannel.open(this.directory.resolve(String.format("journal_%020d.journal", firstSequence)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    interface EventConsumer {
+        void accept(JournalEventType type, long sequence, BinaryInput payload) throws IOException;
+    }
+
+    /**
+     * Reads the events of one journal file in order and returns the sequence of the last one.
+     * Stops at the first incomplete or corrupted record; its offset is stored in {@code end[0]}.
+     */
+    static long readEvents(Path journal, EventConsumer consumer, long[] end) throws IOException {
+        byte[] bytes = Files.readAllBytes(journal);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        long lastSequence = 0;
+
+        while (buffer.remaining() >= 8) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 1 + 8 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+
+            crc.reset();
+            crc.update(bytes, buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+
+            int typeIndex = buffer.get();
+            long sequence = buffer.getLong();
+            int payloadLength = length - 1 - 8;
+            if (typeIndex < 0 || typeIndex >= JournalEventType.values().length) {
+                throw new StreamCorruptedException("Unknown journal event type " + typeIndex + "!");
+            }
+            consumer.accept(JournalEventType.values()[typeIndex], sequence, new BinaryInput(bytes, buffer.position(), payloadLength));
+            buffer.position(buffer.position() + payloadLength);
+            lastSequence = sequence;
+        }
+
+        end[0] = buffer.position();
+        return lastSequence;
+    }
+
+    static List<Path> journalFiles(Path directory) throws IOException {
+        return listFiles(directory, "journal_", ".journal");
+    }
+
+    static List<Path> snapshotFiles(Path directory) throws IOException {
+        return listFiles(directory, "snapshot_", ".snapshot");
+    }
+
+    static List<Path> historyFiles(Path directory) throws IOException {
+        return listFiles(directory, "snapshot_", ".history");
+    }
+
+    static long latestSnapshotSequence(Path directory) throws IOException {
+        List<Path> snapshots = snapshotFiles(directory);
+        return snapshots.isEmpty() ? 0 : sequenceOf(snapshots.get(snapshots.size() - 1), "snapshot_", ".snapshot");
+    }
+
+    static long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    static Path snapshotPath(Path directory, long sequence) {
+        return directory.resolve(String.format("snapshot_%020d.snapshot", sequence));
+    }
+
+    static Path historyPath(Path directory, long sequence) {
+        return directory.resolve(String.format("snapshot_%020d.history", sequence));
+    }
+
+    private static List<Path> listFiles(Path directory, String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            stream.forEach(files::add);
+        }
+        // zero-padded sequences sort by name
+        files.sort(null);
+        return files;
+    }
+}
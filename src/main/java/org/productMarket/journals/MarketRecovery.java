@@ -0,0 +1,90 @@
+package org.productMarket.journals;
+
+import org.productMarket.codecs.BinaryInput;
+import org.productMarket.codecs.ReceiptCodec;
+import org.productMarket.enums.JournalEventType;
+import org.productMarket.enums.PricingParameter;
+import org.productMarket.exceptions.NegativeDays;
+import org.productMarket.exceptions.NegativeDiscountValue;
+import org.productMarket.exceptions.NegativeProductMarkup;
+import org.productMarket.markets.Market;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Rebuilds a {@link Market} from the files of a {@link MarketJournal}: the latest
+ * snapshot, if there is one, plus every journal event after it.
+ */
+public class MarketRecovery {
+
+    /**
+     * Recovers the market stored in the directory. {@code emptyMarket} is used as the starting
+     * point when no snapshot exists yet, so it should be created with the market's original
+     * pricing parameters. The returned market has no journal attached.
+     */
+    public static Market recover(Path directory, Market emptyMarket) throws IOException {
+        Market market = emptyMarket;
+        long snapshotSequence = 0;
+
+        if (Files.isDirectory(directory)) {
+            snapshotSequence = MarketJournal.latestSnapshotSequence(directory);
+            if (snapshotSequence > 0) {
+                market = readSnapshot(MarketJournal.snapshotPath(directory, snapshotSequence));
+            }
+
+            Market target = market;
+            long replayAfter = snapshotSequence;
+            List<Path> journals = MarketJournal.journalFiles(directory);
+            for (Path journal : journals) {
+                MarketJournal.readEvents(journal, (type, sequence, payload) -> {
+                    if (sequence > replayAfter) {
+                        replay(target, type, payload);
+                    }
+                }, new long[1]);
+            }
+        }
+
+        return market;
+    }
+
+    private static Market readSnapshot(Path snapshot) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(snapshot))))) {
+            return (Market) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException(e.getMessage());
+        }
+    }
+
+    private static void replay(Market market, JournalEventType type, BinaryInput payload) throws IOException {
+        switch (type) {
+            case DELIVERY -> market.restoreDelivery(ReceiptCodec.readProduct(payload), payload.readVarInt());
+            case SALE -> {
+                ReceiptCodec.Decoder decoder = new ReceiptCodec.Decoder();
+                decoder.readHeader(payload);
+                market.restoreSale(decoder.read(payload));
+            }
+            case CASHIER_HIRE -> market.addCashier(ReceiptCodec.readCashier(payload));
+            case PRICE_CHANGE -> restorePriceChange(market, PricingParameter.values()[payload.readByte()], Double.longBitsToDouble(payload.readLong()));
+            case DAY_ROLLOVER -> market.rollOverDay(LocalDate.ofEpochDay(payload.readSignedVarLong()));
+        }
+    }
+
+    private static void restorePriceChange(Market market, PricingParameter parameter, double value) throws IOException {
+        try {
+            switch (parameter) {
+                case EDIBLE_PRODUCTS_MARKUP -> market.setEdibleProductsMarkup(value);
+                case NON_EDIBLE_PRODUCTS_MARKUP -> market.setNonEdibleProductsMarkup(value);
+                case DISCOUNT -> market.setDiscount(value);
+                case DAYS_LEFT_TILL_EXPIRY -> market.setDaysLeftTillExpiry((int) value);
+            }
+        } catch (NegativeProductMarkup | NegativeDiscountValue | NegativeDays e) {
+            // the value was validated before it was journaled
+            throw new StreamCorruptedException(e.getMessage());
+        }
+    }
+}
@@ -1,45 +1,108 @@
 package org.productMarket.markets;
 
 import org.productMarket.cashiers.Cashier;
+import org.productMarket.checkouts.CheckoutLine;
+import org.productMarket.checkouts.CheckoutResult;
 import org.productMarket.counters.CashDesk;
 import org.productMarket.customers.Customer;
 import org.productMarket.receipts.Receipt;
-import org.productMarket.enums.ProductCategory;
+import org.productMarket.receipts.ReceiptHistory;
+import org.productMarket.enums.CheckoutStatus;
+import org.productMarket.enums.LineStatus;
+import org.productMarket.enums.PricingParameter;
 import org.productMarket.exceptions.*;
+import org.productMarket.journals.MarketJournal;
+import org.productMarket.metrics.CashDeskMetrics;
+import org.productMarket.metrics.Counter;
+import org.productMarket.metrics.LatencyHistogram;
+import org.productMarket.metrics.MetricsRegistry;
+import org.productMarket.money.Money;
+import org.productMarket.money.Percentage;
+import org.productMarket.prices.PriceTable;
 import org.productMarket.products.Product;
+import org.productMarket.shifts.ShiftReport;
+import org.productMarket.stocks.ExpiryIndex;
+import org.productMarket.stocks.StockCatalog;
+import org.productMarket.wallets.WalletReservation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
 
 public class Market implements Serializable {
 
+    private static final AtomicInteger count = new AtomicInteger();
+
     private double edibleProductsMarkup;
     private double nonEdibleProductsMarkup;
     private double discount;
+    private Percentage edibleProductsMarkupRate;
+    private Percentage nonEdibleProductsMarkupRate;
+    private Percentage discountRate;
     private int daysLeftTillExpiry;
     private Set<Cashier> cashiers;
     private Set<CashDesk> cashDesks;
-    private BigDecimal expenses;
-    private Map<Product, Integer> productsInStock;
-    private List<Receipt> receipts;
-    private int countReceipts;
-    private BigDecimal income;
+    // money is accumulated in cents, LongAdder keeps parallel cash desks from contending on it
+    private LongAdder expenses;
+    private StockCatalog productsInStock;
+    private ReceiptHistory receipts;
+    private AtomicInteger countReceipts;
+    private LongAdder income;
+    // the totals keep the scale plain BigDecimal sums of the booked amounts would have, see Money.scaleOf
+    private AtomicInteger incomeScale;
+    private AtomicInteger expensesScale;
+    // the market's current day as an epoch day
+    private volatile long today = LocalDate.now().toEpochDay();
+    // tags the market's gauges, so markets sharing a registry keep their own
+    private transient int number;
+    private ExpiryIndex expiryIndex;
+    // published again whenever a pricing parameter or the day changes, checkouts read it without locking
+    private transient volatile PriceTable priceTable;
+    // every change holds the read lock and is journaled under it, snapshots take the write lock
+    private transient volatile MarketJournal journal;
+    private transient ReentrantReadWriteLock changeLock = new ReentrantReadWriteLock();
+    private transient MetricsRegistry metricsRegistry;
+    private transient LatencyHistogram deliveryLatency;
+    private transient Counter deliveries;
+    // replaced under the write lock, a change reports to the listeners it read under the read lock
+    private transient volatile List<MarketListener> listeners = List.of();
 
     public Market(double edibleProductsMarkup, double nonEdibleProductsMarkup, int daysLeftTillExpiry, double discount) throws NegativeProductMarkup, NegativeDays, NegativeDiscountValue {
+        this(edibleProductsMarkup, nonEdibleProductsMarkup, daysLeftTillExpiry, discount, new ReceiptHistory());
+    }
+
+    // the receipt history decides how many receipts stay in memory, see ReceiptHistory
+    public Market(double edibleProductsMarkup, double nonEdibleProductsMarkup, int daysLeftTillExpiry, double discount, ReceiptHistory receiptHistory) throws NegativeProductMarkup, NegativeDays, NegativeDiscountValue {
+        if (receiptHistory == null) {
+            throw new NullPointerException("Receipt history cannot be null!");
+        }
         setEdibleProductsMarkup(edibleProductsMarkup);
         setNonEdibleProductsMarkup(nonEdibleProductsMarkup);
         setDaysLeftTillExpiry(daysLeftTillExpiry);
         setDiscount(discount);
-        this.cashiers = new HashSet<>();
-        this.cashDesks = new HashSet<>();
-        this.productsInStock = new HashMap<>();
-        this.receipts = new ArrayList<>();
-        this.income = new BigDecimal(0);
-        this.expenses = new BigDecimal(0);
+        // cash desks check out in parallel, so all shared state is thread-safe
+        this.cashiers = ConcurrentHashMap.newKeySet();
+        this.cashDesks = ConcurrentHashMap.newKeySet();
+        this.productsInStock = new StockCatalog();
+        this.receipts = receiptHistory;
+        this.countReceipts = new AtomicInteger();
+        this.income = new LongAdder();
+        this.expenses = new LongAdder();
+        this.incomeScale = new AtomicInteger();
+        this.expensesScale = new AtomicInteger();
+        this.expiryIndex = new ExpiryIndex();
+        this.number = count.incrementAndGet();
+        reprice();
+        useMetricsRegistry(MetricsRegistry.global());
     }
 
     public void addDeliveredProduct(Product product, Integer quantity) throws InvalidQuantityOfProduct, NegativeSellingPrice, NonSellableExpiredProduct {
@@ -47,85 +110,360 @@ public class Market implements Serializable {
             throw new InvalidQuantityOfProduct("Quantity must be a positive number!");
         }
 
-        // define selling price on product
-        calculateSellingPrice(product);
+        long start = System.nanoTime();
+        boolean journaled = lockForChange();
+        List<MarketListener> listeners = this.listeners;
+        try {
+            // pricing and indexing happen together, so a concurrent day rollover sees the batch either discounted or indexed
+            synchronized (this.expiryIndex) {
+                // define selling price on product, discounted if it is close to its expiry
+                calculateSellingPrice(product);
+
+                if (journaled) {
+                    this.journal.recordDelivery(product, quantity);
+                }
+
+                // add product in the market
+                this.productsInStock.add(product, quantity);
+                this.expiryIndex.add(product);
+            }
 
-        // check whether the product is for discount before adding it and add discount
-        calculateDiscount(product);
+            // calculate expenses from the delivery
+            addExpenses(Money.times(product.getDeliveryPriceMinor(), quantity), product.getDeliveryPrice());
+        } finally {
+            unlockForChange();
+        }
+
+        this.deliveries.increment();
+        this.deliveryLatency.recordSince(start);
+        for (MarketListener listener : listeners) {
+            listener.onDelivery(product, quantity);
+        }
+    }
+
+    /**
+     * Delivers many batches at once, e.g. a whole catalog when the store starts: every batch
+     * is checked before anything is stocked, then the batches are priced and stocked in
+     * parallel under one lock instead of one delivery at a time.
+     */
+    public void addDeliveredProducts(Product[] products, int[] quantities) throws InvalidQuantityOfProduct, NonSellableExpiredProduct {
+        if (products.length != quantities.length) {
+            throw new IllegalArgumentException("Every product needs a quantity!");
+        }
+        long expenses = 0;
+        int expensesScale = 0;
+        for (int i = 0; i < products.length; i++) {
+            if (quantities[i] <= 0) {
+                throw new InvalidQuantityOfProduct("Quantity must be a positive number!");
+            }
+            expenses += Money.times(products[i].getDeliveryPriceMinor(), quantities[i]);
+            expensesScale = Math.max(expensesScale, Money.scaleOf(products[i].getDeliveryPrice()));
+        }
+
+        long start = System.nanoTime();
+        boolean journaled = lockForChange();
+        List<MarketListener> listeners = this.listeners;
+        try {
+            synchronized (this.expiryIndex) {
+                for (Product product : products) {
+                    long expiryDay = product.getDateOfExpiry().toEpochDay();
+                    if (expiryDay < this.today) {
+                        throw new NonSellableExpiredProduct(String.format("This product is expired with %d days!", this.today - expiryDay));
+                    }
+                }
+                // the current table prices and keeps every new batch, the journal needs the prices set
+                PriceTable prices = this.priceTable;
+                IntStream.range(0, products.length).parallel().forEach(i -> {
+                    try {
+                        products[i].setSellingPrice(prices.getPrice(products[i]));
+                    } catch (NegativeSellingPrice e) {
+                        // a positive delivery price gives a positive selling price
+                        throw new IllegalStateException(e);
+                    }
+                });
+                if (journaled) {
+                    for (int i = 0; i < products.length; i++) {
+                        this.journal.recordDelivery(products[i], quantities[i]);
+                    }
+                }
 
-        // add product in the market
-        this.productsInStock.putIfAbsent(product, 0);
-        this.productsInStock.put(product, this.productsInStock.get(product) + quantity);
+                this.productsInStock.ensureCapacity(products.length);
+                IntStream.range(0, products.length).parallel().forEach(i -> this.productsInStock.add(products[i], quantities[i]));
+                this.expiryIndex.addAll(Arrays.asList(products));
+            }
+            addExpenses(expenses, expensesScale);
+        } finally {
+            unlockForChange();
+        }
 
-        // calculate expenses from the delivery
-        this.expenses = this.expenses.add(product.getDeliveryPrice().multiply(BigDecimal.valueOf(quantity)));
+        this.deliveries.add(products.length);
+        this.deliveryLatency.recordSince(start);
+        for (MarketListener listener : listeners) {
+            for (int i = 0; i < products.length; i++) {
+                listener.onDelivery(products[i], quantities[i]);
+            }
+        }
     }
 
-    private void calculateDiscount(Product product) throws NonSellableExpiredProduct, NegativeSellingPrice {
-        if (!product.isExpired() && isForDiscount(product)) {
-            product.setSellingPrice(product.getSellingPrice().subtract(product.getSellingPrice().multiply(BigDecimal.valueOf(this.discount)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP)));
+    private void calculateSellingPrice(Product product) throws NonSellableExpiredProduct, NegativeSellingPrice {
+        long expiryDay = product.getDateOfExpiry().toEpochDay();
+        if (expiryDay < this.today) {
+            throw new NonSellableExpiredProduct(String.format("This product is expired with %d days!", this.today - expiryDay));
         }
+        // the product keeps the price it was given last, this market charges the price of its table
+        product.setSellingPrice(this.priceTable.getPrice(product));
     }
 
-    private void calculateSellingPrice(Product product) throws NegativeSellingPrice {
-        if (product.getType().equals(ProductCategory.EDIBLE)) {
-            product.setSellingPrice(product.getDeliveryPrice().multiply(BigDecimal.valueOf(this.edibleProductsMarkup)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP).add(product.getDeliveryPrice()));
-        } else if (product.getType().equals(ProductCategory.NON_EDIBLE)) {
-            product.setSellingPrice(product.getDeliveryPrice().multiply(BigDecimal.valueOf(this.nonEdibleProductsMarkup)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP).add(product.getDeliveryPrice()));
+    /**
+     * Prices the stock again with the current pricing parameters and publishes the new table.
+     */
+    private void reprice() {
+        synchronized (this.expiryIndex) {
+            this.priceTable = new PriceTable(this.edibleProductsMarkupRate, this.nonEdibleProductsMarkupRate, this.discountRate,
+                    this.today + this.daysLeftTillExpiry, this.productsInStock.asMap().keySet());
         }
     }
 
-    private void decreaseProductQuantity(Product product, Integer requiredQuantity) {
-        int availableQuantity = this.productsInStock.get(product);
-        if (availableQuantity - requiredQuantity == 0) {
-            this.productsInStock.remove(product);
-        } else {
-            this.productsInStock.put(product, availableQuantity - requiredQuantity);
+    /**
+     * Moves the market to the given day: batches which expired are taken out of stock and
+     * returned with the quantity they had, and batches which entered the last
+     * {@code daysLeftTillExpiry} days before their expiry get discounted. Only the batches
+     * expiring in the affected days are touched. Days in the past are ignored.
+     */
+    public Map<Product, Integer> rollOverDay(LocalDate day) {
+        Map<Product, Integer> expired = new HashMap<>();
+        boolean journaled = lockForChange();
+        List<MarketListener> listeners = this.listeners;
+        try {
+            synchronized (this.expiryIndex) {
+                if (journaled) {
+                    this.journal.recordDayRollover(day);
+                }
+                this.today = Math.max(this.today, day.toEpochDay());
+
+                List<Product> expiredBatches = this.expiryIndex.removeExpiringBefore(this.today);
+                for (Product product : expiredBatches) {
+                    int quantity = this.productsInStock.removeBatch(product);
+                    if (quantity > 0) {
+                        expired.put(product, quantity);
+                    }
+                }
+
+                // only the batches which entered the discount window change their price
+                PriceTable prices = this.priceTable;
+                long discountBefore = Math.max(prices.getDiscountBefore(), this.today + this.daysLeftTillExpiry);
+                List<Product> discounted = this.expiryIndex.getExpiringBetween(Math.max(prices.getDiscountBefore(), this.today), discountBefore);
+                prices = prices.withDiscountBefore(discountBefore, expiredBatches);
+                this.priceTable = prices;
+                for (Product product : discounted) {
+                    product.setSellingPrice(prices.getPrice(product));
+                }
+            }
+        } catch (NegativeSellingPrice e) {
+            // a discount below 100% keeps a positive price positive
+            throw new IllegalStateException(e);
+        } finally {
+            unlockForChange();
         }
+
+        if (!expired.isEmpty()) {
+            for (MarketListener listener : listeners) {
+                listener.onExpired(expired);
+            }
+        }
+        return expired;
+    }
+
+    public Map<Product, Integer> rollOverDay() {
+        return rollOverDay(LocalDate.now());
     }
 
     public Receipt sellProducts(Map<String, Integer> shoppingList, CashDesk cashDesk, Customer customer) {
-        // create map for the sold products
+        long start = System.nanoTime();
+        Receipt receipt;
+        boolean journaled = lockForChange();
+        List<MarketListener> listeners = this.listeners;
+        try {
+            receipt = sellProducts(shoppingList, cashDesk, customer, journaled);
+        } finally {
+            unlockForChange();
+        }
+
+        recordCheckout(cashDesk, receipt, start);
+        notifySale(listeners, receipt);
+        return receipt;
+    }
+
+    private Receipt sellProducts(Map<String, Integer> shoppingList, CashDesk cashDesk, Customer customer, boolean journaled) {
+        // create map for the sold products, priced with one table for the whole list
         Map<Product, Integer> soldProducts = new HashMap<>();
+        // committed once the sale is journaled
+        List<WalletReservation> payments = new ArrayList<>();
+        PriceTable prices = this.priceTable;
 
-        // iterate shoppingList and productsInStock to find the same products
+        // iterate shoppingList and look up the batches with the same name in productsInStock
         for (Map.Entry<String, Integer> shoppingListProduct : shoppingList.entrySet()) {
 
             String productToBuy = shoppingListProduct.getKey();
             int requiredQuantity = shoppingListProduct.getValue();
-            for (Map.Entry<Product, Integer> product : this.productsInStock.entrySet()) {
-
-                Product stockProduct = product.getKey();
-                // get the same product name from the productsInStock as in shoppingList
-                if (stockProduct.getName().equals(productToBuy)) {
-                    if (customer.canBuyProduct(stockProduct, requiredQuantity)) {
-                        // customer has enough money, buys the product and his money are decreased
-                        customer.decreaseMoney(stockProduct, requiredQuantity);
-                        soldProducts.put(stockProduct, requiredQuantity);
-                    } else {
-                        // customer does not have enough to buy current product
-                        System.out.println("Not enough money to buy product " + productToBuy);
-                    }
+            for (Product stockProduct : this.productsInStock.getBatches(productToBuy)) {
+                long price = Money.times(prices.getPriceMinor(stockProduct), requiredQuantity);
+                // the money is set aside first, so another desk paying from the same wallet cannot spend it meanwhile
+                WalletReservation payment = customer.getWallet().tryReserve(price);
+                if (payment == null) {
+                    // customer does not have enough to buy current product
+                    System.out.println("Not enough money to buy product " + productToBuy);
+                } else if (this.productsInStock.tryReserve(stockProduct, requiredQuantity)) {
+                    // the quantity is taken out of stock atomically, so the customer buys the product and pays for it
+                    payments.add(payment);
+                    soldProducts.put(stockProduct, requiredQuantity);
+                    break;
+                } else {
+                    payment.release();
                 }
             }
         }
 
         // current receipt from cash desk
-        Receipt currentReceipt = cashDesk.generateReceipt(soldProducts);
+        Receipt currentReceipt;
+        try {
+            currentReceipt = cashDesk.generateReceipt(soldProducts, prices::getPriceMinor);
+            if (journaled) {
+                this.journal.recordSale(currentReceipt);
+            }
+        } catch (RuntimeException e) {
+            payments.forEach(WalletReservation::release);
+            soldProducts.forEach(this.productsInStock::release);
+            throw e;
+        }
+        payments.forEach(WalletReservation::commit);
 
         // add receipt to the total amount of receipts
         this.addReceipt(currentReceipt);
-        this.countReceipts++;
-
-        // update the quantity of the remaining products in the market
-        soldProducts.forEach(this::decreaseProductQuantity);
+        this.countReceipts.incrementAndGet();
 
         // calculate income from the sold shoppingList and add it to the total income
-        this.setIncome(getIncome().add(calculateCurrentIncome(soldProducts)));
+        addIncome(currentReceipt.getTotalPriceMinor());
 
         return currentReceipt;
     }
 
+    /**
+     * Sells a basket in one pass: every line is resolved and reserved once, the customer's
+     * money is checked once against the whole total, and only then are stock, income and the
+     * receipt committed. Lines which cannot be sold in full are left out and reported in the
+     * result; if the customer cannot pay for the rest, all reservations are released and
+     * nothing is sold.
+     */
+    public CheckoutResult checkout(Map<String, Integer> basket, CashDesk cashDesk, Customer customer) {
+        long start = System.nanoTime();
+        CheckoutResult result;
+        boolean journaled = lockForChange();
+        List<MarketListener> listeners = this.listeners;
+        try {
+            result = checkout(basket, cashDesk, customer, journaled);
+        } finally {
+            unlockForChange();
+        }
+
+        recordCheckout(cashDesk, result.getReceipt(), start);
+        if (result.getReceipt() != null) {
+            notifySale(listeners, result.getReceipt());
+        }
+        return result;
+    }
+
+    private void recordCheckout(CashDesk cashDesk, Receipt receipt, long start) {
+        long busyNanos = System.nanoTime() - start;
+        cashDesk.recordCheckout(receipt, busyNanos);
+
+        CashDeskMetrics metrics = cashDesk.getMetrics();
+        metrics.checkoutLatency().record(busyNanos);
+        if (receipt != null) {
+            metrics.receipts().increment();
+            metrics.basketSize().record(receipt.getProducts().size());
+        }
+    }
+
+    private void notifySale(List<MarketListener> listeners, Receipt receipt) {
+        for (MarketListener listener : listeners) {
+            listener.onSale(receipt);
+        }
+    }
+
+    private CheckoutResult checkout(Map<String, Integer> basket, CashDesk cashDesk, Customer customer, boolean journaled) {
+        Map<Product, Integer> reserved = new HashMap<>();
+        List<CheckoutLine> lines = new ArrayList<>(basket.size());
+        long totalPrice = 0;
+        // the whole basket is priced with the table published when the checkout started
+        PriceTable prices = this.priceTable;
+
+        for (Map.Entry<String, Integer> basketLine : basket.entrySet()) {
+            String productName = basketLine.getKey();
+            int requiredQuantity = basketLine.getValue();
+            if (requiredQuantity <= 0) {
+                lines.add(new CheckoutLine(productName, requiredQuantity, 0, LineStatus.INVALID_QUANTITY));
+                continue;
+            }
+
+            // take the line from as many batches as needed
+            Map<Product, Integer> lineReservation = new HashMap<>(2);
+            int reservedQuantity = 0;
+            for (Product batch : this.productsInStock.getBatches(productName)) {
+                int taken = this.productsInStock.tryReserveUpTo(batch, requiredQuantity - reservedQuantity);
+                if (taken > 0) {
+                    lineReservation.put(batch, taken);
+                    reservedQuantity += taken;
+                    if (reservedQuantity == requiredQuantity) {
+                        break;
+                    }
+                }
+            }
+
+            if (reservedQuantity == requiredQuantity) {
+                lines.add(new CheckoutLine(productName, requiredQuantity, reservedQuantity, LineStatus.SOLD));
+                for (Map.Entry<Product, Integer> entry : lineReservation.entrySet()) {
+                    reserved.put(entry.getKey(), entry.getValue());
+                    totalPrice += Money.times(prices.getPriceMinor(entry.getKey()), entry.getValue());
+                }
+            } else {
+                LineStatus status = reservedQuantity == 0 ? LineStatus.UNAVAILABLE : LineStatus.PARTIAL;
+                lines.add(new CheckoutLine(productName, requiredQuantity, reservedQuantity, status));
+                lineReservation.forEach(this.productsInStock::release);
+            }
+        }
+
+        if (reserved.isEmpty()) {
+            return new CheckoutResult(CheckoutStatus.NOTHING_AVAILABLE, null, lines, 0);
+        }
+
+        // the whole total is reserved at once, also when other desks pay from the same wallet
+        WalletReservation payment = customer.getWallet().tryReserve(totalPrice);
+        if (payment == null) {
+            reserved.forEach(this.productsInStock::release);
+            return new CheckoutResult(CheckoutStatus.INSUFFICIENT_FUNDS, null, lines, totalPrice);
+        }
+
+        // commit, unless the receipt cannot be made or journaled
+        Receipt receipt;
+        try {
+            receipt = cashDesk.generateReceipt(reserved, prices::getPriceMinor);
+            if (journaled) {
+                this.journal.recordSale(receipt);
+            }
+        } catch (RuntimeException e) {
+            payment.release();
+            reserved.forEach(this.productsInStock::release);
+            throw e;
+        }
+        payment.commit();
+        this.addReceipt(receipt);
+        this.countReceipts.incrementAndGet();
+        addIncome(receipt.getTotalPriceMinor());
+
+        return new CheckoutResult(CheckoutStatus.COMPLETED, receipt, lines, totalPrice);
+    }
+
     public Map<String, Integer> checkProductsAvailability(Map<String, Integer> shoppingList) {
         Map<String, Integer> availableProducts = new HashMap<>();
 
@@ -147,32 +485,45 @@ public class Market implements Serializable {
         return availableProducts;
     }
 
-    private boolean isForDiscount(Product product) {
-        return ChronoUnit.DAYS.between(LocalDate.now(), product.getDateOfExpiry()) < this.daysLeftTillExpiry;
-    }
-
     private boolean isAvailable(String product, int quantity) throws InsufficientQuantityOfProduct {
-        for (Map.Entry<Product, Integer> productEntry : productsInStock.entrySet()) {
-            if (productEntry.getKey().getName().equals(product) && productEntry.getValue() >= quantity) {
-                // the market has the product and the quantity is enough
-                return true;
-            } else if (productEntry.getKey().getName().equals(product) && productEntry.getValue() < quantity) {
-                // the market has the product but the quantity is not enough
-                int insufficientQuantity = quantity - productEntry.getValue();
-                throw new InsufficientQuantityOfProduct(String.format("Insufficient quantity from the selected product: \nProduct: %s\nInsufficient quantity: %d\n", productEntry.getKey().getName(), insufficientQuantity));
-            }
+        if (!productsInStock.contains(product)) {
+            // return false if the product does not exist on the market
+            return false;
+        }
+
+        int availableQuantity = productsInStock.getTotalQuantity(product);
+        if (availableQuantity < quantity) {
+            // the market has the product but the quantity is not enough
+            int insufficientQuantity = quantity - availableQuantity;
+            throw new InsufficientQuantityOfProduct(String.format("Insufficient quantity from the selected product: \nProduct: %s\nInsufficient quantity: %d\n", product, insufficientQuantity));
         }
 
-        // return false if the product does not exist on the market
-        return false;
+        // the market has the product and the quantity is enough
+        return true;
     }
 
     public void addCashier(Cashier cashier) {
-        this.cashiers.add(cashier);
-        this.expenses = this.expenses.add(cashier.getSalary());
+        boolean journaled = lockForChange();
+        List<MarketListener> listeners = this.listeners;
+        try {
+            if (journaled) {
+                this.journal.recordCashierHire(cashier);
+            }
+            this.cashiers.add(cashier);
+            addExpenses(Money.toMinor(cashier.getSalary()), cashier.getSalary());
+        } finally {
+            unlockForChange();
+        }
+
+        for (MarketListener listener : listeners) {
+            listener.onCashierHire(cashier);
+        }
     }
 
     public void addCashDesk(CashDesk cashDesk) {
+        if (this.metricsRegistry != MetricsRegistry.global()) {
+            cashDesk.setMetricsRegistry(this.metricsRegistry);
+        }
         this.cashDesks.add(cashDesk);
     }
 
@@ -180,18 +531,182 @@ public class Market implements Serializable {
         this.receipts.add(receipt);
     }
 
+    /**
+     * Throughput per desk and per cashier, summed from the shifts of the added cash desks right now.
+     */
+    public ShiftReport getShiftReport() {
+        return ShiftReport.of(this.cashDesks, Instant.now());
+    }
+
+    // listeners
+
+    /**
+     * Adds the listener; it is told about every change made after this returns.
+     */
+    public void addListener(MarketListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("Listener cannot be null!");
+        }
+        runBetweenChanges(() -> {
+            List<MarketListener> listeners = new ArrayList<>(this.listeners);
+            listeners.add(listener);
+            this.listeners = List.copyOf(listeners);
+        });
+    }
+
+    public void removeListener(MarketListener listener) {
+        runBetweenChanges(() -> {
+            List<MarketListener> listeners = new ArrayList<>(this.listeners);
+            listeners.remove(listener);
+            this.listeners = List.copyOf(listeners);
+        });
+    }
+
+    /**
+     * Runs the task while no change can be made to the market. Every change made before is
+     * reported only to the listeners the market had before, so a listener added by the task
+     * is told about exactly the changes the task cannot see.
+     */
+    public void runBetweenChanges(Runnable task) {
+        this.changeLock.writeLock().lock();
+        try {
+            task.run();
+        } finally {
+            this.changeLock.writeLock().unlock();
+        }
+    }
+
+    // journal
+
+    /**
+     * Records every following change of the market in the journal. Pass null to stop journaling.
+     */
+    public void attachJournal(MarketJournal journal) {
+        this.changeLock.writeLock().lock();
+        try {
+            this.journal = journal;
+        } finally {
+            this.changeLock.writeLock().unlock();
+        }
+    }
+
+    public MarketJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Writes a snapshot of the market to the attached journal. Changes wait until it is written.
+     */
+    public void writeSnapshot() throws IOException {
+        this.changeLock.writeLock().lock();
+        try {
+            if (this.journal == null) {
+                throw new IllegalStateException("No journal is attached to the market!");
+            }
+            this.journal.writeSnapshot(this);
+        } finally {
+            this.changeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replays a journaled delivery: the product already carries its selling price.
+     */
+    public void restoreDelivery(Product product, int quantity) {
+        Product stocked = this.productsInStock.getById(product.getIdentity());
+        this.productsInStock.add(stocked == null ? product : stocked, quantity);
+        this.expiryIndex.add(stocked == null ? product : stocked);
+        addExpenses(Money.times(product.getDeliveryPriceMinor(), quantity), product.getDeliveryPrice());
+    }
+
+    /**
+     * Replays a journaled sale: takes the receipt's products out of stock and books it.
+     */
+    public void restoreSale(Receipt receipt) {
+        receipt.getProducts().forEach(this.productsInStock::tryReserve);
+        Receipt.skipSerialNumbersUpTo(receipt.getSerialNumber());
+        this.addReceipt(receipt);
+        this.countReceipts.incrementAndGet();
+        addIncome(receipt.getTotalPriceMinor());
+    }
+
+    // receipts are priced in cents, like the selling prices the market calculates
+    private void addIncome(long amountMinor) {
+        this.income.add(amountMinor);
+        this.incomeScale.accumulateAndGet(Money.SCALE, Math::max);
+    }
+
+    private void addExpenses(long amountMinor, BigDecimal amount) {
+        addExpenses(amountMinor, Money.scaleOf(amount));
+    }
+
+    private void addExpenses(long amountMinor, int scale) {
+        this.expenses.add(amountMinor);
+        this.expensesScale.accumulateAndGet(scale, Math::max);
+    }
+
+    // returns whether the change is to be journaled
+    private boolean lockForChange() {
+        this.changeLock.readLock().lock();
+        return this.journal != null;
+    }
+
+    private void unlockForChange() {
+        this.changeLock.readLock().unlock();
+    }
+
+    // metrics
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Records the market's and its cash desks' metrics in the given registry instead of the
+     * global one, and registers gauges of the market's state on it.
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        useMetricsRegistry(metricsRegistry);
+        this.cashDesks.forEach(cashDesk -> cashDesk.setMetricsRegistry(metricsRegistry));
+
+        String market = String.valueOf(this.number);
+        metricsRegistry.gauge("market.receipts.count", this.countReceipts::get, "market", market);
+        metricsRegistry.gauge("market.stock.batches", this.productsInStock::size, "market", market);
+        metricsRegistry.gauge("market.income.cents", this.income::sum, "market", market);
+        metricsRegistry.gauge("market.expenses.cents", this.expenses::sum, "market", market);
+    }
+
+    private void useMetricsRegistry(MetricsRegistry metricsRegistry) {
+        if (metricsRegistry == null) {
+            throw new NullPointerException("Metrics registry cannot be null!");
+        }
+        this.metricsRegistry = metricsRegistry;
+        this.deliveryLatency = metricsRegistry.histogram("market.delivery.latency");
+        this.deliveries = metricsRegistry.counter("market.deliveries");
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.changeLock = new ReentrantReadWriteLock();
+        this.listeners = List.of();
+        this.number = count.incrementAndGet();
+        reprice();
+        useMetricsRegistry(MetricsRegistry.global());
+    }
+
     public BigDecimal calculateProfit() {
-        return income.subtract(expenses);
+        return Money.toBigDecimal(income.sum() - expenses.sum(), Math.max(incomeScale.get(), expensesScale.get()));
     }
 
     public BigDecimal calculateCurrentIncome(Map<Product, Integer> products) {
         // sold products
-        BigDecimal income = BigDecimal.valueOf(0);
+        long income = 0;
+        PriceTable prices = this.priceTable;
         for (Map.Entry<Product, Integer> entry : products.entrySet()) {
-            income = income.add(entry.getKey().getSellingPrice().multiply(BigDecimal.valueOf(entry.getValue())));
+            income += Money.times(prices.getPriceMinor(entry.getKey()), entry.getValue());
         }
 
-        return income;
+        return Money.toBigDecimal(income);
     }
 
     // getters
@@ -208,6 +723,22 @@ public class Market implements Serializable {
         return discount;
     }
 
+    public PriceTable getPriceTable() {
+        return priceTable;
+    }
+
+    /**
+     * The price this market charges for the product, which may differ from the product's own
+     * selling price if the product was priced by another market or the parameters changed.
+     */
+    public BigDecimal getSellingPrice(Product product) {
+        return priceTable.getPrice(product);
+    }
+
+    public LocalDate getToday() {
+        return LocalDate.ofEpochDay(today);
+    }
+
     public int getDaysLeftTillExpiry() {
         return daysLeftTillExpiry;
     }
@@ -221,23 +752,42 @@ public class Market implements Serializable {
     }
 
     public Map<Product, Integer> getProductsInStock() {
-        return Collections.unmodifiableMap(productsInStock);
+        return productsInStock.asMap();
+    }
+
+    public StockCatalog getStockCatalog() {
+        return productsInStock;
     }
 
     public List<Receipt> getReceipts() {
-        return Collections.unmodifiableList(receipts);
+        return receipts.asList();
+    }
+
+    /**
+     * Returns up to {@code limit} receipts, oldest first, starting at the given index.
+     */
+    public List<Receipt> getReceipts(int offset, int limit) {
+        return receipts.getPage(offset, limit);
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public ReceiptHistory getReceiptHistory() {
+        return receipts;
     }
 
     public BigDecimal getExpenses() {
-        return expenses;
+        return Money.toBigDecimal(expenses.sum(), expensesScale.get());
     }
 
     public int getCountReceipts() {
-        return countReceipts;
+        return countReceipts.get();
     }
 
     public BigDecimal getIncome() {
-        return income;
+        return Money.toBigDecimal(income.sum(), incomeScale.get());
     }
 
     // setters
@@ -246,32 +796,64 @@ public class Market implements Serializable {
         if (edibleProductsMarkup <= 0) {
             throw new NegativeProductMarkup("Product markup cannot be zero or negative number!");
         }
-        this.edibleProductsMarkup = edibleProductsMarkup;
+        changePricing(PricingParameter.EDIBLE_PRODUCTS_MARKUP, edibleProductsMarkup, () -> {
+            this.edibleProductsMarkup = edibleProductsMarkup;
+            this.edibleProductsMarkupRate = Percentage.of(edibleProductsMarkup);
+        });
     }
 
     public void setNonEdibleProductsMarkup(double nonEdibleProductsMarkup) throws NegativeProductMarkup {
         if (nonEdibleProductsMarkup <= 0) {
             throw new NegativeProductMarkup("Product markup cannot be zero or negative number!");
         }
-        this.nonEdibleProductsMarkup = nonEdibleProductsMarkup;
+        changePricing(PricingParameter.NON_EDIBLE_PRODUCTS_MARKUP, nonEdibleProductsMarkup, () -> {
+            this.nonEdibleProductsMarkup = nonEdibleProductsMarkup;
+            this.nonEdibleProductsMarkupRate = Percentage.of(nonEdibleProductsMarkup);
+        });
     }
 
     public void setDaysLeftTillExpiry(int daysLeftTillExpiry) throws NegativeDays {
         if (daysLeftTillExpiry <= 0) {
             throw new NegativeDays("Days left till expiry cannot be zero or negative number!");
         }
-        this.daysLeftTillExpiry = daysLeftTillExpiry;
+        changePricing(PricingParameter.DAYS_LEFT_TILL_EXPIRY, daysLeftTillExpiry, () -> this.daysLeftTillExpiry = daysLeftTillExpiry);
+    }
+
+    private void repriceIfStarted() {
+        // the constructor prices once all parameters are set
+        if (this.expiryIndex != null) {
+            reprice();
+        }
     }
 
     public void setDiscount(double discount) throws NegativeDiscountValue {
         if (discount <= 0) {
             throw new NegativeDiscountValue("Discount cannot be zero or negative number!");
         }
-        this.discount = discount;
+        changePricing(PricingParameter.DISCOUNT, discount, () -> {
+            this.discount = discount;
+            this.discountRate = Percentage.of(discount);
+        });
+    }
+
+    // journals and applies the change under one lock, so a snapshot has either both or neither
+    private void changePricing(PricingParameter parameter, double value, Runnable change) {
+        boolean journaled = lockForChange();
+        try {
+            if (journaled) {
+                this.journal.recordPriceChange(parameter, value);
+            }
+            change.run();
+            repriceIfStarted();
+        } finally {
+            unlockForChange();
+        }
     }
 
     public void setIncome(BigDecimal income) {
-        this.income = income;
+        this.income.reset();
+        this.income.add(Money.toMinor(income));
+        this.incomeScale.set(Money.scaleOf(income));
     }
 
     @Override
@@ -283,11 +865,11 @@ public class Market implements Serializable {
                 ", daysLeftTillExpiry=" + daysLeftTillExpiry +
                 ", cashiers=" + cashiers +
                 ", cashDesks=" + cashDesks +
-                ", expenses=" + expenses +
+                ", expenses=" + getExpenses() +
                 ", productsInStock=" + productsInStock +
                 ", receipts=" + receipts +
                 ", countReceipts=" + countReceipts +
-                ", income=" + income +
+                ", income=" + getIncome() +
                 '}';
     }
 }
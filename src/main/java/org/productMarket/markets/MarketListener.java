@@ -0,0 +1,28 @@
+package org.productMarket.markets;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.util.Map;
+
+/**
+ * Notified by a {@link Market} after a change was applied, on the thread which made it.
+ * Listeners are called outside of the market's locks and should return quickly.
+ * Changes replayed by recovery are not reported.
+ */
+public interface MarketListener {
+
+    default void onDelivery(Product product, int quantity) {
+    }
+
+    default void onSale(Receipt receipt) {
+    }
+
+    default void onCashierHire(Cashier cashier) {
+    }
+
+    // the batches taken out of stock by a day rollover, with the quantity they had
+    default void onExpired(Map<Product, Integer> expired) {
+    }
+}
@@ -0,0 +1,52 @@
+package org.productMarket.metrics;
+
+/**
+ * The instruments of one cash desk, tagged with the desk number and its current cashier.
+ */
+public class CashDeskMetrics {
+
+    private final String cashierId;
+    private final LatencyHistogram checkoutLatency;
+    private final LatencyHistogram receiptLatency;
+    private final LatencyHistogram saveLatency;
+    private final LatencyHistogram basketSize;
+    private final Counter receipts;
+
+    public CashDeskMetrics(MetricsRegistry registry, int deskNumber, String cashierId) {
+        String desk = String.valueOf(deskNumber);
+        this.cashierId = cashierId;
+        this.checkoutLatency = registry.histogram("market.checkout.latency", "desk", desk, "cashier", cashierId);
+        this.receiptLatency = registry.histogram("cashdesk.receipt.latency", "desk", desk, "cashier", cashierId);
+        this.saveLatency = registry.histogram("cashdesk.save.latency", "desk", desk, "cashier", cashierId);
+        this.basketSize = registry.histogram("market.basket.size", "desk", desk, "cashier", cashierId);
+        this.receipts = registry.counter("market.receipts", "desk", desk, "cashier", cashierId);
+    }
+
+    public String getCashierId() {
+        return cashierId;
+    }
+
+    // time to sell a whole basket, in nanoseconds
+    public LatencyHistogram checkoutLatency() {
+        return checkoutLatency;
+    }
+
+    // time to issue and save a receipt, in nanoseconds
+    public LatencyHistogram receiptLatency() {
+        return receiptLatency;
+    }
+
+    // time spent saving the receipt to a file or sink, in nanoseconds
+    public LatencyHistogram saveLatency() {
+        return saveLatency;
+    }
+
+    // number of distinct products sold per receipt
+    public LatencyHistogram basketSize() {
+        return basketSize;
+    }
+
+    public Counter receipts() {
+        return receipts;
+    }
+}
@@ -0,0 +1,24 @@
+package org.productMarket.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count. Backed by a {@link LongAdder}, so threads which
+ * increment it at the same time do not contend.
+ */
+public class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        this.count.increment();
+    }
+
+    public void add(long value) {
+        this.count.add(value);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+}
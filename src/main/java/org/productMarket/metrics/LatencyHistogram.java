@@ -0,0 +1,86 @@
+package org.productMarket.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram of non-negative values, usually latencies in nanoseconds.
+ *
+ * <p>Values below {@code 64} get a bucket each; every higher power-of-two range is split into
+ * 32 buckets, so a reported percentile is within about 3% of the recorded value, like an
+ * HDR histogram with two significant digits. Recording is one bucket increment plus a sum
+ * and a max update, and never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << (LINEAR_BITS - 1);
+    private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.sum.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+
+        return new HistogramSnapshot(count, this.sum.sum(), this.max.get(),
+                valueAt(counts, count, 0.50), valueAt(counts, count, 0.90),
+                valueAt(counts, count, 0.99), valueAt(counts, count, 0.999));
+    }
+
+    private static long valueAt(long[] counts, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(counts.length - 1);
+    }
+
+    static int bucketOf(long value) {
+        if (value < (1L << LINEAR_BITS)) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (LINEAR_BITS - 1);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < (1 << LINEAR_BITS)) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
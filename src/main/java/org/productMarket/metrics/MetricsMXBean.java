@@ -0,0 +1,19 @@
+package org.productMarket.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link MetricsRegistry}. Metric names include their tags,
+ * e.g. {@code market.checkout.latency{desk=1,cashier=...}}.
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    /**
+     * Histogram summaries flattened to one entry per statistic, e.g. {@code <name>.p99}.
+     */
+    Map<String, Long> getHistograms();
+}
@@ -0,0 +1,119 @@
+package org.productMarket.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters, gauges and latency histograms, optionally tagged with key/value pairs.
+ *
+ * <p>Instruments are created on first use and should be kept by the caller, so that
+ * recording on a hot path is a plain field access plus an atomic update. Values are read
+ * with {@link #snapshot()} or over JMX after {@link #registerMBean(String)}.
+ */
+public class MetricsRegistry implements MetricsMXBean {
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * The registry used by markets, cash desks and serializers unless they are given another one.
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    public Counter counter(String name, String... tags) {
+        return this.counters.computeIfAbsent(key(name, tags), key -> new Counter());
+    }
+
+    public LatencyHistogram histogram(String name, String... tags) {
+        return this.histograms.computeIfAbsent(key(name, tags), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge which is read on every snapshot, replacing one with the same name and tags.
+     */
+    public void gauge(String name, LongSupplier value, String... tags) {
+        this.gauges.put(key(name, tags), value);
+    }
+
+    public void removeGauge(String name, String... tags) {
+        this.gauges.remove(key(name, tags));
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+        this.histograms.forEach((key, histogram) -> histograms.put(key, histogram.snapshot()));
+        return new MetricsSnapshot(getCounters(), getGauges(), histograms);
+    }
+
+    /**
+     * Registers the registry on the platform MBean server as {@code org.productMarket:type=Metrics,name=<name>}.
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("org.productMarket:type=Metrics,name=" + ObjectName.quote(name));
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        this.counters.forEach((key, counter) -> values.put(key, counter.getCount()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        this.gauges.forEach((key, gauge) -> values.put(key, gauge.getAsLong()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getHistograms() {
+        Map<String, Long> values = new TreeMap<>();
+        this.histograms.forEach((key, histogram) -> {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            values.put(key + ".count", snapshot.getCount());
+            values.put(key + ".mean", Math.round(snapshot.getMean()));
+            values.put(key + ".max", snapshot.getMax());
+            values.put(key + ".p50", snapshot.getP50());
+            values.put(key + ".p90", snapshot.getP90());
+            values.put(key + ".p99", snapshot.getP99());
+            values.put(key + ".p999", snapshot.getP999());
+        });
+        return values;
+    }
+
+    static String key(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key/value pairs!");
+        }
+        if (tags.length == 0) {
+            return name;
+        }
+
+        StringBuilder key = new StringBuilder(name).append('{');
+        for (int i = 0; i < tags.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(tags[i]).append('=').append(tags[i + 1]);
+        }
+        return key.append('}').toString();
+    }
+}
@@ -0,0 +1,54 @@
+package org.productMarket.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Values of every metric of a {@link MetricsRegistry} at one point in time, keyed by
+ * name and tags as in {@code market.receipts{desk=1,cashier=...}}.
+ */
+public class MetricsSnapshot {
+
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    public MetricsSnapshot(Map<String, Long> counters, Map<String, Long> gauges, Map<String, HistogramSnapshot> histograms) {
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, HistogramSnapshot> getHistograms() {
+        return histograms;
+    }
+
+    public long getCounter(String name, String... tags) {
+        return this.counters.getOrDefault(MetricsRegistry.key(name, tags), 0L);
+    }
+
+    public Long getGauge(String name, String... tags) {
+        return this.gauges.get(MetricsRegistry.key(name, tags));
+    }
+
+    public HistogramSnapshot getHistogram(String name, String... tags) {
+        return this.histograms.get(MetricsRegistry.key(name, tags));
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsSnapshot{" +
+                "counters=" + counters +
+                ", gauges=" + gauges +
+                ", histograms=" + histograms +
+                '}';
+    }
+}
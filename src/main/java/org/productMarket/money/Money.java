@@ -0,0 +1,119 @@
+package org.productMarket.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money in minor units (cents) with a currency scale of {@link #SCALE}.
+ *
+ * <p>Hot paths work on the raw {@code long} through the static helpers and never allocate;
+ * the immutable instances are for code that wants a value type. Conversions to
+ * {@link BigDecimal} only happen at API boundaries: {@link #toBigDecimal(long)} gives the
+ * currency form ({@code 4.50}), {@link #toBigDecimal(long, int)} the form plain
+ * {@link BigDecimal} sums of amounts with that scale would have ({@code 4.5}, {@code 2000}),
+ * see {@link #scaleOf(BigDecimal)}. All rounding is {@link RoundingMode#HALF_UP}, as before.
+ */
+public final class Money implements Serializable, Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money of(BigDecimal amount) {
+        return new Money(toMinor(amount));
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // fractions of a cent are dropped, e.g. for money somebody is given to spend
+    public static long toMinorDown(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * The amount with the given scale, or with the currency scale if the cents need it.
+     */
+    public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+        long unit = 1;
+        for (int i = scale; i < SCALE; i++) {
+            unit *= 10;
+        }
+        if (minorUnits % unit != 0) {
+            return toBigDecimal(minorUnits);
+        }
+        return BigDecimal.valueOf(minorUnits / unit, Math.min(scale, SCALE));
+    }
+
+    /**
+     * The scale an amount keeps once it is held in cents: its own, at most the currency scale.
+     */
+    public static int scaleOf(BigDecimal amount) {
+        return Math.max(0, Math.min(amount.scale(), SCALE));
+    }
+
+    public static long times(long minorUnits, int quantity) {
+        return Math.multiplyExact(minorUnits, quantity);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(this.minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(this.minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(times(this.minorUnits, quantity));
+    }
+
+    public Money percent(Percentage percentage) {
+        return ofMinor(percentage.applyTo(this.minorUnits));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(this.minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(this.minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money money)) return false;
+        return minorUnits == money.minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,72 @@
+package org.productMarket.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A percentage such as a markup or a discount, kept as an exact fraction so that
+ * {@link #applyTo(long)} gives the same HALF_UP result as
+ * {@code amount.multiply(BigDecimal.valueOf(percent)).divide(BigDecimal.valueOf(100), 2, HALF_UP)}.
+ * Percentages with many decimals, e.g. computed ones like {@code 100.0 / 3}, fall back to
+ * that BigDecimal arithmetic when the fraction does not fit in a {@code long}.
+ */
+public final class Percentage implements Serializable {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final double value;
+    private final BigDecimal exact;
+    private final long numerator;
+    // zero if the fraction does not fit in a long
+    private final long denominator;
+
+    private Percentage(double value, BigDecimal exact, long numerator, long denominator) {
+        this.value = value;
+        this.exact = exact;
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    public static Percentage of(double percent) {
+        // BigDecimal.valueOf uses the same decimal digits as Double.toString, like the old pricing code
+        BigDecimal exact = BigDecimal.valueOf(percent).stripTrailingZeros();
+        if (exact.scale() < 0) {
+            exact = exact.setScale(0);
+        }
+        // 100 * 10^16 is the largest power of ten denominator a long holds
+        if (exact.scale() > 16 || exact.unscaledValue().bitLength() >= Long.SIZE) {
+            return new Percentage(percent, exact, 0, 0);
+        }
+        long denominator = 100L * BigDecimal.TEN.pow(exact.scale()).longValueExact();
+        return new Percentage(percent, exact, exact.unscaledValue().longValueExact(), denominator);
+    }
+
+    /**
+     * Returns this percentage of the amount in minor units, rounded HALF_UP to a minor unit.
+     */
+    public long applyTo(long minorUnits) {
+        if (this.denominator != 0) {
+            long product = minorUnits * this.numerator;
+            // the product fits if its high half only carries the sign
+            if (Math.multiplyHigh(minorUnits, this.numerator) == product >> (Long.SIZE - 1)) {
+                long quotient = product / this.denominator;
+                long remainder = product % this.denominator;
+                if (Math.abs(remainder) * 2 >= this.denominator) {
+                    quotient += Long.signum(product);
+                }
+                return quotient;
+            }
+        }
+        return BigDecimal.valueOf(minorUnits).multiply(this.exact).divide(HUNDRED, 0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value + "%";
+    }
+}
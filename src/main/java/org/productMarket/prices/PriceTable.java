@@ -0,0 +1,120 @@
+package org.productMarket.prices;
+
+import org.productMarket.enums.ProductCategory;
+import org.productMarket.identities.Identity;
+import org.productMarket.money.Money;
+import org.productMarket.money.Percentage;
+import org.productMarket.products.Product;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A market's selling prices for one set of pricing parameters: the markups, the discount
+ * and the expiry day before which batches are discounted.
+ *
+ * <p>A table never changes its parameters; a market publishes a new table when they
+ * change. The marked-up prices of the batches in stock are computed when the table is
+ * created, in parallel for large catalogs, and a batch delivered later is priced on its
+ * first lookup. The discount is applied on lookup, so the tables for later discount days
+ * share the marked-up prices and a day rollover costs nothing per batch in stock. As a
+ * price only depends on the batch and the parameters, the table behaves as an immutable
+ * snapshot and lookups take no locks.
+ */
+public class PriceTable {
+
+    // below this many batches pricing them on the calling thread is faster than forking
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final Percentage edibleProductsMarkup;
+    private final Percentage nonEdibleProductsMarkup;
+    private final Percentage discount;
+    private final long discountBefore;
+    // selling price before the discount in cents by product ID, shared with the tables for later discount days
+    private final ConcurrentHashMap<Identity, Long> prices;
+
+    public PriceTable(Percentage edibleProductsMarkup, Percentage nonEdibleProductsMarkup, Percentage discount, long discountBefore, Collection<Product> batches) {
+        this.edibleProductsMarkup = edibleProductsMarkup;
+        this.nonEdibleProductsMarkup = nonEdibleProductsMarkup;
+        this.discount = discount;
+        this.discountBefore = discountBefore;
+        this.prices = new ConcurrentHashMap<>(Math.max(16, batches.size() * 4 / 3 + 1));
+        priceAll(batches);
+    }
+
+    private PriceTable(PriceTable previous, long discountBefore) {
+        this.edibleProductsMarkup = previous.edibleProductsMarkup;
+        this.nonEdibleProductsMarkup = previous.nonEdibleProductsMarkup;
+        this.discount = previous.discount;
+        this.discountBefore = discountBefore;
+        this.prices = previous.prices;
+    }
+
+    /**
+     * Returns a table with the same markups and discount for a later discount day, without
+     * the prices of the removed batches.
+     */
+    public PriceTable withDiscountBefore(long discountBefore, Collection<Product> removed) {
+        for (Product product : removed) {
+            this.prices.remove(product.getIdentity());
+        }
+        return new PriceTable(this, discountBefore);
+    }
+
+    private void priceAll(Collection<Product> batches) {
+        if (batches.size() >= PARALLEL_THRESHOLD) {
+            batches.parallelStream().forEach(product -> this.prices.put(product.getIdentity(), markUp(product)));
+        } else {
+            for (Product product : batches) {
+                this.prices.put(product.getIdentity(), markUp(product));
+            }
+        }
+    }
+
+    // delivery price plus the markup of the product's category
+    private long markUp(Product product) {
+        long deliveryPrice = product.getDeliveryPriceMinor();
+        Percentage markup = product.getType() == ProductCategory.EDIBLE ? this.edibleProductsMarkup : this.nonEdibleProductsMarkup;
+        return deliveryPrice + markup.applyTo(deliveryPrice);
+    }
+
+    /**
+     * The marked-up price, minus the discount if the batch expires before the discount day.
+     */
+    public long getPriceMinor(Product product) {
+        Long price = this.prices.get(product.getIdentity());
+        if (price == null) {
+            price = markUp(product);
+            this.prices.putIfAbsent(product.getIdentity(), price);
+        }
+        return isDiscounted(product) ? price - this.discount.applyTo(price) : price;
+    }
+
+    public BigDecimal getPrice(Product product) {
+        return Money.toBigDecimal(getPriceMinor(product));
+    }
+
+    public boolean isDiscounted(Product product) {
+        return product.getDateOfExpiry().toEpochDay() < this.discountBefore;
+    }
+
+    public long getDiscountBefore() {
+        return discountBefore;
+    }
+
+    public int size() {
+        return this.prices.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PriceTable{" +
+                "edibleProductsMarkup=" + edibleProductsMarkup +
+                ", nonEdibleProductsMarkup=" + nonEdibleProductsMarkup +
+                ", discount=" + discount +
+                ", discountBefore=" + discountBefore +
+                ", size=" + prices.size() +
+                '}';
+    }
+}
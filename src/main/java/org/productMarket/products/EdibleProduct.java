@@ -2,6 +2,7 @@ package org.productMarket.products;
 
 import org.productMarket.enums.ProductCategory;
 import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.identities.Identity;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -11,4 +12,12 @@ public class EdibleProduct extends Product {
     public EdibleProduct(String name, BigDecimal deliveryPrice, LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
         super(name, deliveryPrice, ProductCategory.EDIBLE, dateOfExpiry);
     }
+
+    public EdibleProduct(String ID, String name, BigDecimal deliveryPrice, LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
+        super(ID, name, deliveryPrice, ProductCategory.EDIBLE, dateOfExpiry);
+    }
+
+    public EdibleProduct(Identity ID, String name, BigDecimal deliveryPrice, LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
+        super(ID, name, deliveryPrice, ProductCategory.EDIBLE, dateOfExpiry);
+    }
 }
@@ -2,6 +2,7 @@ package org.productMarket.products;
 
 import org.productMarket.enums.ProductCategory;
 import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.identities.Identity;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -11,4 +12,12 @@ public class NonEdibleProduct extends Product {
     public NonEdibleProduct(String name, BigDecimal deliveryPrice, LocalDate localDate) throws NegativeDeliveryPrice {
         super(name, deliveryPrice, ProductCategory.NON_EDIBLE, localDate);
     }
+
+    public NonEdibleProduct(String ID, String name, BigDecimal deliveryPrice, LocalDate localDate) throws NegativeDeliveryPrice {
+        super(ID, name, deliveryPrice, ProductCategory.NON_EDIBLE, localDate);
+    }
+
+    public NonEdibleProduct(Identity ID, String name, BigDecimal deliveryPrice, LocalDate localDate) throws NegativeDeliveryPrice {
+        super(ID, name, deliveryPrice, ProductCategory.NON_EDIBLE, localDate);
+    }
 }
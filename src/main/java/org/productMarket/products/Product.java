@@ -4,25 +4,40 @@ import org.productMarket.enums.ProductCategory;
 import org.productMarket.exceptions.NegativeDeliveryPrice;
 import org.productMarket.exceptions.NegativeSellingPrice;
 import org.productMarket.exceptions.NonSellableExpiredProduct;
+import org.productMarket.identities.Identity;
+import org.productMarket.money.Money;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Objects;
-import java.util.UUID;
 
 public abstract class Product implements Serializable {
 
-    private String ID;
+    private Identity ID;
     private String name;
     private BigDecimal deliveryPrice;
     private BigDecimal sellingPrice;
+    // the prices in cents, so that pricing and totals do not need BigDecimal arithmetic
+    private long deliveryPriceMinor;
+    private long sellingPriceMinor;
     private ProductCategory type;
     private LocalDate dateOfExpiry;
 
     public Product(String name, BigDecimal deliveryPrice, ProductCategory type, LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
-        this.ID = UUID.randomUUID().toString();
+        this(Identity.random(), name, deliveryPrice, type, dateOfExpiry);
+    }
+
+    // restores a product which already has an ID, e.g. when reading a stored receipt
+    protected Product(String ID, String name, BigDecimal deliveryPrice, ProductCategory type, LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
+        this(Identity.of(ID), name, deliveryPrice, type, dateOfExpiry);
+    }
+
+    protected Product(Identity ID, String name, BigDecimal deliveryPrice, ProductCategory type, LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
+        if (ID == null) {
+            throw new NullPointerException("ID cannot be null!");
+        }
+        this.ID = ID;
         this.setName(name);
         this.setDeliveryPrice(deliveryPrice);
         this.type = type;
@@ -37,6 +52,10 @@ public abstract class Product implements Serializable {
     }
 
     public String getID() {
+        return ID.toString();
+    }
+
+    public Identity getIdentity() {
         return ID;
     }
 
@@ -60,6 +79,17 @@ public abstract class Product implements Serializable {
         return sellingPrice;
     }
 
+    public long getDeliveryPriceMinor() {
+        return deliveryPriceMinor;
+    }
+
+    public long getSellingPriceMinor() {
+        if (sellingPrice == null) {
+            throw new NullPointerException("Selling price is not set!");
+        }
+        return sellingPriceMinor;
+    }
+
     private void setName(String name) {
         if (name == null || name.trim().isEmpty()) {
             throw new NullPointerException("Name cannot be null, blank or white space!");
@@ -72,6 +102,7 @@ public abstract class Product implements Serializable {
             throw new NegativeDeliveryPrice("Delivery price cannot be zero or negative number!");
         }
         this.deliveryPrice = deliveryPrice;
+        this.deliveryPriceMinor = Money.toMinor(deliveryPrice);
     }
 
     public void setSellingPrice(BigDecimal sellingPrice) throws NegativeSellingPrice {
@@ -79,6 +110,7 @@ public abstract class Product implements Serializable {
             throw new NegativeSellingPrice("Selling price cannot be zero or negative number!");
         }
         this.sellingPrice = sellingPrice;
+        this.sellingPriceMinor = Money.toMinor(sellingPrice);
     }
 
     private void setDateOfExpiry(LocalDate dateOfExpiry) {
@@ -97,7 +129,7 @@ public abstract class Product implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(ID);
+        return ID.hashCode();
     }
 
     @Override
@@ -0,0 +1,74 @@
+package org.productMarket.readers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * Filter for {@link ReceiptReader}. The reader checks each condition as soon as the field
+ * it needs has been read, so non-matching receipts are skipped without parsing the rest.
+ * All conditions are optional and combined with AND; bounds are inclusive.
+ */
+public class ReceiptQuery implements Predicate<ReceiptRecord> {
+
+    private LocalDate issuedFrom;
+    private LocalDate issuedTo;
+    private String cashierId;
+    private String productName;
+    private BigDecimal minTotal;
+    private BigDecimal maxTotal;
+
+    public static ReceiptQuery all() {
+        return new ReceiptQuery();
+    }
+
+    public ReceiptQuery issuedBetween(LocalDate from, LocalDate to) {
+        this.issuedFrom = from;
+        this.issuedTo = to;
+        return this;
+    }
+
+    public ReceiptQuery byCashier(String cashierId) {
+        this.cashierId = cashierId;
+        return this;
+    }
+
+    public ReceiptQuery containingProduct(String productName) {
+        this.productName = productName;
+        return this;
+    }
+
+    public ReceiptQuery withTotalBetween(BigDecimal min, BigDecimal max) {
+        this.minTotal = min;
+        this.maxTotal = max;
+        return this;
+    }
+
+    boolean matchesDate(LocalDate dateOfIssue) {
+        return (this.issuedFrom == null || !dateOfIssue.isBefore(this.issuedFrom))
+                && (this.issuedTo == null || !dateOfIssue.isAfter(this.issuedTo));
+    }
+
+    boolean matchesCashier(String cashierId) {
+        return this.cashierId == null || this.cashierId.equals(cashierId);
+    }
+
+    boolean matchesTotal(BigDecimal totalPrice) {
+        return (this.minTotal == null || totalPrice.compareTo(this.minTotal) >= 0)
+                && (this.maxTotal == null || totalPrice.compareTo(this.maxTotal) <= 0);
+    }
+
+    boolean matchesProduct(ReceiptRecord record) {
+        return this.productName == null || record.containsProduct(this.productName);
+    }
+
+    String getProductName() {
+        return productName;
+    }
+
+    @Override
+    public boolean test(ReceiptRecord record) {
+        return matchesDate(record.getDateOfIssue()) && matchesCashier(record.getCashierId())
+                && matchesTotal(record.getTotalPrice()) && matchesProduct(record);
+    }
+}
@@ -0,0 +1,278 @@
+package org.productMarket.readers;
+
+import org.productMarket.receipts.Receipt;
+import org.productMarket.utils.ReceiptUtil;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the receipts stored in a directory: text receipts ({@code receipt_N.txt}),
+ * serialized receipts ({@code receipt_*.ser}) and the segments of
+ * {@link org.productMarket.writers.AsyncReceiptWriter} ({@code receipts_N.seg}).
+ *
+ * <p>Files are listed and parsed lazily while the stream is consumed, through one reused
+ * read buffer, so memory use does not depend on how many receipts there are. The
+ * {@link ReceiptQuery} is checked while parsing: a text receipt is dropped as soon as its
+ * date, cashier, total or product names rule it out. I/O errors are thrown as
+ * {@link UncheckedIOException}. The returned stream must be closed.
+ */
+public class ReceiptReader {
+
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private static final String SERIAL_NUMBER = "Receipt serial number: ";
+    private static final String DATE_OF_ISSUE = "Date of issue: ";
+    private static final String CASHIER_NAME = "\tName: ";
+    private static final String CASHIER_ID = "\tID: ";
+    private static final String PRODUCTS = "Products: ";
+    private static final String TOTAL_PRICE = "Total receipt price: ";
+
+    private final ReceiptQuery query;
+    private ByteBuffer buffer;
+
+    private ReceiptReader(ReceiptQuery query, int bufferSize) {
+        this.query = query;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    public static Stream<ReceiptRecord> read(Path directory, ReceiptQuery query) throws IOException {
+        return read(directory, query, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static Stream<ReceiptRecord> read(Path directory, ReceiptQuery query, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be a positive number!");
+        }
+
+        ReceiptReader reader = new ReceiptReader(query, bufferSize);
+        DirectoryStream<Path> files = Files.newDirectoryStream(directory, "receipt*");
+        return StreamSupport.stream(files.spliterator(), false)
+                .flatMap(reader::readFile)
+                .onClose(() -> {
+                    try {
+                        files.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private Stream<ReceiptRecord> readFile(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            if (name.startsWith("receipt_") && name.endsWith(".txt")) {
+                return Stream.ofNullable(readText(file));
+            } else if (name.startsWith("receipt_") && name.endsWith(".ser")) {
+                return Stream.ofNullable(readSerialized(file));
+            } else if (name.startsWith("receipts_") && name.endsWith(".seg")) {
+                return readSegment(file);
+            }
+            return Stream.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(file.toString(), e);
+        }
+    }
+
+    private ReceiptRecord readText(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            this.buffer.clear().flip();
+            if (!fill(channel, (int) channel.size())) {
+                throw new EOFException(file.toString());
+            }
+            return parse(new String(this.buffer.array(), this.buffer.position(), this.buffer.remaining(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private ReceiptRecord readSerialized(Path file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Channels.newInputStream(FileChannel.open(file))))) {
+            ReceiptRecord record = ReceiptRecord.of((Receipt) in.readObject());
+            return this.query.test(record) ? record : null;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidClassException(file + ": " + e.getMessage());
+        }
+    }
+
+    private Stream<ReceiptRecord> readSegment(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file);
+        this.buffer.clear().flip();
+
+        Iterator<ReceiptRecord> records = new Iterator<>() {
+            private ReceiptRecord next;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    // records are [int length][UTF-8 text]; a torn record at the end is ignored
+                    while (this.next == null && fill(channel, 4)) {
+                        int length = buffer.getInt();
+                        if (!fill(channel, length)) {
+                            break;
+                        }
+                        this.next = parse(new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8));
+                        buffer.position(buffer.position() + length);
+                    }
+                    return this.next != null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(file.toString(), e);
+                }
+            }
+
+            @Override
+            public ReceiptRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ReceiptRecord record = this.next;
+                this.next = null;
+                return record;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Makes at least {@code length} bytes readable from the buffer, reading more from the
+     * channel and growing the buffer when needed. Returns false at the end of the channel.
+     */
+    private boolean fill(FileChannel channel, int length) throws IOException {
+        if (this.buffer.remaining() >= length) {
+            return true;
+        }
+
+        this.buffer.compact();
+        if (this.buffer.capacity() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(length, this.buffer.capacity() * 2));
+            this.buffer.flip();
+            grown.put(this.buffer);
+            this.buffer = grown;
+        }
+        while (this.buffer.position() < length) {
+            if (channel.read(this.buffer) < 0) {
+                this.buffer.flip();
+                return false;
+            }
+        }
+        this.buffer.flip();
+        return true;
+    }
+
+    /**
+     * Parses the text of {@link ReceiptUtil#formatReceipt(Receipt)}, returning null as soon
+     * as the query rules the receipt out.
+     */
+    private ReceiptRecord parse(String text) throws StreamCorruptedException {
+        try {
+            // the total and product names are checked on the raw text before the lines are parsed
+            int totalStart = text.lastIndexOf(TOTAL_PRICE);
+            if (totalStart < 0) {
+                throw new IllegalArgumentException("no total price");
+            }
+            BigDecimal totalPrice = new BigDecimal(text.substring(totalStart + TOTAL_PRICE.length()).trim());
+            if (!this.query.matchesTotal(totalPrice)) {
+                return null;
+            }
+            String productName = this.query.getProductName();
+            if (productName != null && !text.contains(" " + productName + " - ")) {
+                return null;
+            }
+
+            LineCursor cursor = new LineCursor(text, totalStart);
+            long serialNumber = Long.parseLong(cursor.field(SERIAL_NUMBER));
+            LocalDate dateOfIssue = LocalDate.parse(cursor.field(DATE_OF_ISSUE));
+            if (!this.query.matchesDate(dateOfIssue)) {
+                return null;
+            }
+
+            cursor.next();
+            String cashierName = cursor.field(CASHIER_NAME);
+            String cashierId = cursor.field(CASHIER_ID);
+            if (!this.query.matchesCashier(cashierId)) {
+                return null;
+            }
+
+            // skip the blank line after the cashier
+            String line = cursor.next();
+            while (line != null && !line.startsWith(PRODUCTS)) {
+                line = cursor.next();
+            }
+
+            List<ReceiptRecord.Line> lines = new ArrayList<>();
+            line = cursor.next();
+            while (line != null && line.startsWith("\t")) {
+                lines.add(parseLine(line));
+                line = cursor.next();
+            }
+
+            ReceiptRecord record = new ReceiptRecord(serialNumber, dateOfIssue, cashierName, cashierId, lines, totalPrice);
+            return this.query.matchesProduct(record) ? record : null;
+        } catch (RuntimeException e) {
+            StreamCorruptedException corrupted = new StreamCorruptedException("Not a valid receipt: " + e.getMessage());
+            corrupted.initCause(e);
+            throw corrupted;
+        }
+    }
+
+    // "\t2x 2.40 Banana - 4.80", the product name may contain spaces and dashes
+    private static ReceiptRecord.Line parseLine(String line) {
+        int quantityEnd = line.indexOf("x ");
+        int priceEnd = line.indexOf(' ', quantityEnd + 2);
+        int nameEnd = line.lastIndexOf(" - ");
+        return new ReceiptRecord.Line(line.substring(priceEnd + 1, nameEnd),
+                Integer.parseInt(line.substring(1, quantityEnd)),
+                new BigDecimal(line.substring(quantityEnd + 2, priceEnd)),
+                new BigDecimal(line.substring(nameEnd + 3).trim()));
+    }
+
+    private static class LineCursor {
+
+        private final String text;
+        private final int end;
+        private int position;
+
+        LineCursor(String text, int end) {
+            this.text = text;
+            this.end = end;
+        }
+
+        String next() {
+            if (this.position >= this.end) {
+                return null;
+            }
+            int lineEnd = this.text.indexOf('\n', this.position);
+            if (lineEnd < 0 || lineEnd > this.end) {
+                lineEnd = this.end;
+            }
+            String line = this.text.substring(this.position, lineEnd);
+            this.position = lineEnd + 1;
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        String field(String prefix) {
+            String line = next();
+            if (line == null || !line.startsWith(prefix)) {
+                throw new IllegalArgumentException("expected \"" + prefix.trim() + "\" but was \"" + line + "\"");
+            }
+            return line.substring(prefix.length()).trim();
+        }
+    }
+}
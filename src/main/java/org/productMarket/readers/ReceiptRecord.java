@@ -0,0 +1,124 @@
+package org.productMarket.readers;
+
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A receipt as read back from disk. Text receipts only keep what is printed on them,
+ * so this holds the printed fields instead of full {@link Product} objects.
+ */
+public class ReceiptRecord {
+
+    private final long serialNumber;
+    private final LocalDate dateOfIssue;
+    private final String cashierName;
+    private final String cashierId;
+    private final List<Line> lines;
+    private final BigDecimal totalPrice;
+
+    public ReceiptRecord(long serialNumber, LocalDate dateOfIssue, String cashierName, String cashierId, List<Line> lines, BigDecimal totalPrice) {
+        this.serialNumber = serialNumber;
+        this.dateOfIssue = dateOfIssue;
+        this.cashierName = cashierName;
+        this.cashierId = cashierId;
+        this.lines = Collections.unmodifiableList(lines);
+        this.totalPrice = totalPrice;
+    }
+
+    public static ReceiptRecord of(Receipt receipt) {
+        List<Line> lines = new ArrayList<>(receipt.getProducts().size());
+        for (Map.Entry<Product, Integer> entry : receipt.getProducts().entrySet()) {
+            BigDecimal unitPrice = receipt.getUnitPrice(entry.getKey());
+            lines.add(new Line(entry.getKey().getName(), entry.getValue(), unitPrice, unitPrice.multiply(BigDecimal.valueOf(entry.getValue()))));
+        }
+        return new ReceiptRecord(receipt.getSerialNumber(), receipt.getDateOfIssue(), receipt.getCashier().getName(),
+                receipt.getCashier().getId(), lines, receipt.getTotalPrice());
+    }
+
+    public boolean containsProduct(String productName) {
+        for (Line line : this.lines) {
+            if (line.getProductName().equals(productName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getSerialNumber() {
+        return serialNumber;
+    }
+
+    public LocalDate getDateOfIssue() {
+        return dateOfIssue;
+    }
+
+    public String getCashierName() {
+        return cashierName;
+    }
+
+    public String getCashierId() {
+        return cashierId;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiptRecord{" +
+                "serialNumber=" + serialNumber +
+                ", dateOfIssue=" + dateOfIssue +
+                ", cashierId='" + cashierId + '\'' +
+                ", lines=" + lines +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+
+    public static class Line {
+
+        private final String productName;
+        private final int quantity;
+        private final BigDecimal unitPrice;
+        private final BigDecimal price;
+
+        public Line(String productName, int quantity, BigDecimal unitPrice, BigDecimal price) {
+            this.productName = productName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.price = price;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public BigDecimal getUnitPrice() {
+            return unitPrice;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public String toString() {
+            return quantity + "x " + unitPrice + " " + productName + " - " + price;
+        }
+    }
+}
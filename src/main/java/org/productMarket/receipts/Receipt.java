@@ -1,36 +1,91 @@
 package org.productMarket.receipts;
 
 import org.productMarket.cashiers.Cashier;
+import org.productMarket.money.Money;
 import org.productMarket.products.Product;
+import org.productMarket.serials.InMemorySerialNumberAllocator;
+import org.productMarket.serials.SerialNumberAllocator;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.ToLongFunction;
 
 public class Receipt implements Serializable {
 
-    private static long count;
+    private static volatile SerialNumberAllocator serialNumbers = new InMemorySerialNumberAllocator();
     private long serialNumber;
     private Cashier cashier;
     private LocalDate dateOfIssue;
     private Map<Product, Integer> products;
+    // unit prices in cents as charged by the market, null when the products' selling prices were charged
+    private Map<Product, Long> unitPricesMinor;
     private BigDecimal totalPrice;
+    private long totalPriceMinor;
 
     public Receipt(Cashier cashier, Map<Product, Integer> products) {
-        this.serialNumber = ++count;
+        this(serialNumbers.next(), cashier, LocalDate.now(), products);
+    }
+
+    // restores an already issued receipt, e.g. when reading it back from disk
+    public Receipt(long serialNumber, Cashier cashier, LocalDate dateOfIssue, Map<Product, Integer> products) {
+        this.serialNumber = serialNumber;
+        this.setCashier(cashier);
+        this.dateOfIssue = dateOfIssue;
+        this.products = products;
+        this.totalPriceMinor = calculateTotalPrice();
+        this.totalPrice = Money.toBigDecimal(this.totalPriceMinor);
+    }
+
+    /**
+     * Issues a receipt which charges the given unit prices instead of the products' selling
+     * prices, e.g. the prices of a market's {@link org.productMarket.prices.PriceTable}.
+     */
+    public Receipt(Cashier cashier, Map<Product, Integer> products, ToLongFunction<Product> unitPrices) {
+        this.serialNumber = serialNumbers.next();
         this.setCashier(cashier);
         this.dateOfIssue = LocalDate.now();
         this.products = products;
-        this.totalPrice = calculateTotalPrice();
+        this.unitPricesMinor = new HashMap<>(products.size() * 2);
+        for (Product product : products.keySet()) {
+            this.unitPricesMinor.put(product, unitPrices.applyAsLong(product));
+        }
+        this.totalPriceMinor = calculateTotalPrice();
+        this.totalPrice = Money.toBigDecimal(this.totalPriceMinor);
+    }
+
+    /**
+     * Makes sure receipts issued from now on get serial numbers after the given one,
+     * e.g. after restored receipts were read back.
+     */
+    public static void skipSerialNumbersUpTo(long serialNumber) {
+        serialNumbers.reserveUpTo(serialNumber);
+    }
+
+    /**
+     * Sets where new receipts get their serial numbers from, e.g. a
+     * {@link org.productMarket.serials.FileSerialNumberAllocator} so that numbers survive restarts.
+     */
+    public static void setSerialNumberAllocator(SerialNumberAllocator allocator) {
+        if (allocator == null) {
+            throw new NullPointerException("Serial number allocator cannot be null!");
+        }
+        serialNumbers = allocator;
     }
 
-    private BigDecimal calculateTotalPrice() {
-        return this.products.entrySet()
-                .stream()
-                .map(p -> p.getKey().getSellingPrice().multiply(BigDecimal.valueOf(p.getValue())))
-                .reduce(BigDecimal.valueOf(0), BigDecimal::add);
+    public static SerialNumberAllocator getSerialNumberAllocator() {
+        return serialNumbers;
+    }
+
+    private long calculateTotalPrice() {
+        long total = 0;
+        for (Map.Entry<Product, Integer> entry : this.products.entrySet()) {
+            total += Money.times(getUnitPriceMinor(entry.getKey()), entry.getValue());
+        }
+        return total;
     }
 
     public long getSerialNumber() {
@@ -49,10 +104,32 @@ public class Receipt implements Serializable {
         return Collections.unmodifiableMap(products);
     }
 
+    /**
+     * The price one unit of the product was sold for.
+     */
+    public long getUnitPriceMinor(Product product) {
+        Long unitPrice = this.unitPricesMinor == null ? null : this.unitPricesMinor.get(product);
+        return unitPrice == null ? product.getSellingPriceMinor() : unitPrice;
+    }
+
+    // true if the receipt was issued with its own unit prices in cents, see getUnitPriceMinor()
+    public boolean hasUnitPrices() {
+        return unitPricesMinor != null;
+    }
+
+    public BigDecimal getUnitPrice(Product product) {
+        Long unitPrice = this.unitPricesMinor == null ? null : this.unitPricesMinor.get(product);
+        return unitPrice == null ? product.getSellingPrice() : Money.toBigDecimal(unitPrice);
+    }
+
     public BigDecimal getTotalPrice() {
         return totalPrice;
     }
 
+    public long getTotalPriceMinor() {
+        return totalPriceMinor;
+    }
+
     public void setCashier(Cashier cashier) {
         if (cashier == null) {
             throw new NullPointerException("Cashier cannot be null!");
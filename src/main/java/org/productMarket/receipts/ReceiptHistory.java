@@ -0,0 +1,275 @@
+package org.productMarket.receipts;
+
+import org.productMarket.codecs.ReceiptCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * The receipts issued by a market, in issue order.
+ *
+ * <p>The newest {@code hotCapacity} receipts are kept in memory. Older ones are spilled in
+ * batches to a {@code receipts-*.history} file of its own in the history directory, each
+ * record a 4-byte length followed by the {@link ReceiptCodec} encoding, and only their file
+ * offsets stay in memory. Spilled receipts are decoded again when they are read, so they are
+ * copies of the originals. A history created without a directory keeps every receipt in memory.
+ *
+ * <p>A serialized history, e.g. in a market snapshot, keeps pointing into its file, so the
+ * file is never truncated or reused by another history; whoever drops the snapshot deletes
+ * the file, see {@link org.productMarket.journals.MarketJournal}. A history which was never
+ * serialized deletes its file when it is closed. A batch is encoded and written outside the
+ * history's lock: adding and reading receipts only wait for the offsets to be published, not
+ * for the disk. A batch which cannot be written stays in memory, so adding a receipt never
+ * fails, and the error is kept for {@link #getSpillFailure()}.
+ */
+public class ReceiptHistory implements Serializable, Closeable {
+
+    public static final String FILE_PREFIX = "receipts-";
+    public static final String FILE_SUFFIX = ".history";
+    public static final int PAGE_SIZE = 256;
+
+    private final int hotCapacity;
+    private final String file;
+    private final List<Receipt> hot;
+    // offsets[i] is where spilled receipt i starts, coldEnd is where the last one ends
+    private long[] offsets;
+    private int coldSize;
+    private long coldEnd;
+    // the batch being written, still served from memory until its offsets are published
+    private List<Receipt> spilling;
+    private transient FileChannel channel;
+    // set once a snapshot may point into the file
+    private transient boolean serialized;
+    private transient volatile IOException spillFailure;
+
+    public ReceiptHistory() {
+        this.hotCapacity = Integer.MAX_VALUE;
+        this.file = null;
+        this.hot = new ArrayList<>();
+        this.offsets = new long[0];
+    }
+
+    public ReceiptHistory(int hotCapacity, Path directory) throws IOException {
+        if (hotCapacity <= 0) {
+            throw new IllegalArgumentException("Hot capacity must be a positive number!");
+        }
+        // a new file for every history, an old one may still belong to a snapshot
+        Path file = Files.createTempFile(Files.createDirectories(directory), FILE_PREFIX, FILE_SUFFIX);
+
+        this.hotCapacity = hotCapacity;
+        this.file = file.toString();
+        this.hot = new ArrayList<>();
+        this.offsets = new long[64];
+    }
+
+    public void add(Receipt receipt) {
+        List<Receipt> batch;
+        long position;
+        synchronized (this) {
+            this.hot.add(receipt);
+            // one batch at a time, the next add spills whatever piled up meanwhile
+            if (this.hot.size() <= this.hotCapacity || this.spilling != null) {
+                return;
+            }
+            // spill a quarter of the window at once, so the file is written in batches
+            List<Receipt> oldest = this.hot.subList(0, Math.max(1, this.hotCapacity / 4) + this.hot.size() - this.hotCapacity);
+            batch = new ArrayList<>(oldest);
+            oldest.clear();
+            this.spilling = batch;
+            position = this.coldEnd;
+        }
+        spill(batch, position);
+    }
+
+    private void spill(List<Receipt> batch, long position) {
+        int count = batch.size();
+        ByteBuffer[] buffers = new ByteBuffer[count];
+        long[] offsets = new long[count];
+        long end = position;
+        for (int i = 0; i < count; i++) {
+            byte[] encoded = ReceiptCodec.encode(batch.get(i));
+            buffers[i] = ByteBuffer.allocate(4 + encoded.length).putInt(encoded.length).put(encoded).flip();
+            offsets[i] = end;
+            end += buffers[i].capacity();
+        }
+
+        try {
+            FileChannel channel = channel();
+            // only the spilling thread moves the position, readers read at absolute positions
+            channel.position(position);
+            while (buffers[count - 1].hasRemaining()) {
+                channel.write(buffers);
+            }
+        } catch (IOException e) {
+            // the receipt is already sold, it is kept in memory and the next add tries again
+            synchronized (this) {
+                this.hot.addAll(0, batch);
+                this.spilling = null;
+            }
+            this.spillFailure = e;
+            return;
+        }
+
+        synchronized (this) {
+            if (this.offsets.length < this.coldSize + count) {
+                this.offsets = Arrays.copyOf(this.offsets, Math.max(this.coldSize + count, this.offsets.length * 2));
+            }
+            System.arraycopy(offsets, 0, this.offsets, this.coldSize, count);
+            this.coldSize += count;
+            this.coldEnd = end;
+            this.spilling = null;
+        }
+        this.spillFailure = null;
+    }
+
+    // the error of the last batch which could not be spilled, null once one is spilled again
+    public IOException getSpillFailure() {
+        return spillFailure;
+    }
+
+    public synchronized int size() {
+        return this.coldSize + spillingSize() + this.hot.size();
+    }
+
+    private int spillingSize() {
+        return this.spilling == null ? 0 : this.spilling.size();
+    }
+
+    public synchronized int getColdSize() {
+        return coldSize;
+    }
+
+    public synchronized int getHotSize() {
+        return spillingSize() + this.hot.size();
+    }
+
+    // null for a history kept in memory
+    public Path getFile() {
+        return this.file == null ? null : Path.of(this.file);
+    }
+
+    public synchronized Receipt get(int index) {
+        Objects.checkIndex(index, size());
+        return getPage(index, 1).get(0);
+    }
+
+    /**
+     * Returns up to {@code limit} receipts starting at the given index, an empty page at the end.
+     * Spilled receipts of the page are read with a single read from the history file.
+     */
+    public synchronized List<Receipt> getPage(int offset, int limit) {
+        int size = size();
+        if (offset < 0 || offset > size || limit < 0) {
+            throw new IndexOutOfBoundsException("Index " + offset + " out of bounds for history of " + size + " receipts");
+        }
+
+        int end = (int) Math.min((long) offset + limit, size);
+        List<Receipt> page = new ArrayList<>(end - offset);
+        if (offset < this.coldSize) {
+            readCold(offset, Math.min(end, this.coldSize), page);
+        }
+        int spilled = this.coldSize + spillingSize();
+        for (int i = Math.max(offset, this.coldSize); i < Math.min(end, spilled); i++) {
+            page.add(this.spilling.get(i - this.coldSize));
+        }
+        for (int i = Math.max(offset, spilled); i < end; i++) {
+            page.add(this.hot.get(i - spilled));
+        }
+        return page;
+    }
+
+    private void readCold(int from, int to, List<Receipt> page) {
+        long start = this.offsets[from];
+        long stop = to == this.coldSize ? this.coldEnd : this.offsets[to];
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(stop - start));
+
+        try {
+            FileChannel channel = channel();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException(this.file);
+                }
+            }
+            buffer.flip();
+            for (int i = from; i < to; i++) {
+                byte[] encoded = new byte[buffer.getInt()];
+                buffer.get(encoded);
+                page.add(ReceiptCodec.decode(encoded));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read-only view of the whole history which loads spilled receipts page by page.
+     */
+    public List<Receipt> asList() {
+        return new PagedList();
+    }
+
+    private synchronized FileChannel channel() throws IOException {
+        if (this.channel == null) {
+            this.channel = FileChannel.open(Path.of(this.file), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return this.channel;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+        if (this.file != null && !this.serialized) {
+            Files.deleteIfExists(Path.of(this.file));
+        }
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        this.serialized = true;
+        out.defaultWriteObject();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // the file belongs to the snapshot this history was read from
+        this.serialized = true;
+        // a batch which was being written when the history was serialized stays in memory
+        if (this.spilling != null) {
+            this.hot.addAll(0, this.spilling);
+            this.spilling = null;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return this.coldSize == 0 ? this.hot.toString() : "ReceiptHistory{spilled=" + this.coldSize + ", hot=" + this.hot + '}';
+    }
+
+    private class PagedList extends AbstractList<Receipt> implements RandomAccess {
+
+        private List<Receipt> page = Collections.emptyList();
+        private int pageStart;
+
+        @Override
+        public synchronized Receipt get(int index) {
+            Objects.checkIndex(index, size());
+            if (index < this.pageStart || index >= this.pageStart + this.page.size()) {
+                this.pageStart = index - index % PAGE_SIZE;
+                this.page = getPage(this.pageStart, PAGE_SIZE);
+            }
+            return this.page.get(index - this.pageStart);
+        }
+
+        @Override
+        public int size() {
+            return ReceiptHistory.this.size();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.productMarket.replenishments;
+
+import org.productMarket.products.Product;
+
+// the sales velocity of one product name; every update is a few arithmetic operations
+class ProductVelocity {
+
+    final String name;
+    private Product lastBatch;
+    // units sold, each weighted by exp(-age / meanLifetimeDays)
+    private double decayedSales;
+    private double lastUpdateDay;
+    private double firstSaleDay = Double.NaN;
+    // set when a suggestion was made, cleared by the next delivery
+    private boolean reordered;
+
+    ProductVelocity(String name) {
+        this.name = name;
+    }
+
+    synchronized void delivered(Product batch) {
+        this.lastBatch = batch;
+        this.reordered = false;
+    }
+
+    // a batch that was in stock before the engine listened
+    synchronized void stocked(Product batch) {
+        if (this.lastBatch == null) {
+            this.lastBatch = batch;
+        }
+    }
+
+    synchronized void sold(Product batch, int quantity, double day, double meanLifetimeDays) {
+        stocked(batch);
+        if (Double.isNaN(this.firstSaleDay)) {
+            this.firstSaleDay = day;
+            this.lastUpdateDay = day;
+        }
+        decayTo(day, meanLifetimeDays);
+        this.decayedSales += quantity;
+    }
+
+    private void decayTo(double day, double meanLifetimeDays) {
+        if (day > this.lastUpdateDay) {
+            this.decayedSales *= Math.exp((this.lastUpdateDay - day) / meanLifetimeDays);
+            this.lastUpdateDay = day;
+        }
+    }
+
+    /**
+     * A steady rate of r units per day over the last t days makes the decayed sales
+     * r * meanLifetimeDays * (1 - exp(-t / meanLifetimeDays)). Dividing by the observed window
+     * instead of its limit keeps a product that only started selling from looking slow.
+     */
+    synchronized double unitsPerDay(double day, double meanLifetimeDays) {
+        if (Double.isNaN(this.firstSaleDay)) {
+            return 0;
+        }
+        decayTo(day, meanLifetimeDays);
+        // the first sale counts as a day's sales
+        double observedDays = this.lastUpdateDay - this.firstSaleDay + 1;
+        return this.decayedSales / (meanLifetimeDays * -Math.expm1(-observedDays / meanLifetimeDays));
+    }
+
+    /**
+     * Returns a suggestion if the stock runs out within the lead time and none was made since
+     * the last delivery.
+     */
+    synchronized ReorderSuggestion checkReorder(long stock, double day, double meanLifetimeDays, double leadTimeDays, double coverDays) {
+        if (this.reordered || this.lastBatch == null) {
+            return null;
+        }
+        double unitsPerDay = unitsPerDay(day, meanLifetimeDays);
+        double daysUntilStockout = daysUntilStockout(stock, unitsPerDay);
+        if (daysUntilStockout > leadTimeDays) {
+            return null;
+        }
+
+        long needed = (long) Math.ceil(unitsPerDay * (leadTimeDays + coverDays)) - stock;
+        int quantity = (int) Math.min(Integer.MAX_VALUE, Math.max(1, needed));
+        this.reordered = true;
+        return new ReorderSuggestion(this.name, this.lastBatch, quantity, stock, unitsPerDay, daysUntilStockout);
+    }
+
+    static double daysUntilStockout(long stock, double unitsPerDay) {
+        if (stock == 0) {
+            return 0;
+        }
+        return unitsPerDay == 0 ? Double.POSITIVE_INFINITY : stock / unitsPerDay;
+    }
+}
@@ -0,0 +1,92 @@
+package org.productMarket.replenishments;
+
+import org.productMarket.enums.ProductCategory;
+import org.productMarket.exceptions.InvalidQuantityOfProduct;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NegativeSellingPrice;
+import org.productMarket.exceptions.NonSellableExpiredProduct;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+
+import java.time.LocalDate;
+
+/**
+ * A product expected to run out within the lead time of a delivery, with the quantity to
+ * order so the stock lasts for the covered days after the delivery arrives.
+ */
+public class ReorderSuggestion {
+
+    private final String productName;
+    // the last delivered batch, a new batch is ordered at its delivery price
+    private final Product lastBatch;
+    private final int quantity;
+    private final long stock;
+    private final double unitsPerDay;
+    private final double daysUntilStockout;
+
+    public ReorderSuggestion(String productName, Product lastBatch, int quantity, long stock, double unitsPerDay, double daysUntilStockout) {
+        this.productName = productName;
+        this.lastBatch = lastBatch;
+        this.quantity = quantity;
+        this.stock = stock;
+        this.unitsPerDay = unitsPerDay;
+        this.daysUntilStockout = daysUntilStockout;
+    }
+
+    /**
+     * A new batch of the product, like the last delivered one but with its own ID and expiry date.
+     */
+    public Product createBatch(LocalDate dateOfExpiry) throws NegativeDeliveryPrice {
+        if (this.lastBatch.getType() == ProductCategory.EDIBLE) {
+            return new EdibleProduct(this.productName, this.lastBatch.getDeliveryPrice(), dateOfExpiry);
+        }
+        return new NonEdibleProduct(this.productName, this.lastBatch.getDeliveryPrice(), dateOfExpiry);
+    }
+
+    /**
+     * Delivers the suggested quantity of a new batch to the market.
+     */
+    public Product deliverTo(Market market, LocalDate dateOfExpiry) throws NegativeDeliveryPrice, InvalidQuantityOfProduct, NegativeSellingPrice, NonSellableExpiredProduct {
+        Product batch = createBatch(dateOfExpiry);
+        market.addDeliveredProduct(batch, this.quantity);
+        return batch;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public Product getLastBatch() {
+        return lastBatch;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    // the stock left when the suggestion was made
+    public long getStock() {
+        return stock;
+    }
+
+    public double getUnitsPerDay() {
+        return unitsPerDay;
+    }
+
+    public double getDaysUntilStockout() {
+        return daysUntilStockout;
+    }
+
+    @Override
+    public String toString() {
+        return "ReorderSuggestion{" +
+                "productName='" + productName + '\'' +
+                ", quantity=" + quantity +
+                ", stock=" + stock +
+                ", unitsPerDay=" + unitsPerDay +
+                ", daysUntilStockout=" + daysUntilStockout +
+                '}';
+    }
+}
@@ -0,0 +1,144 @@
+package org.productMarket.replenishments;
+
+import org.productMarket.markets.Market;
+import org.productMarket.markets.MarketListener;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.stocks.StockCatalog;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Forecasts when each product runs out from how fast it sells, and suggests reorders
+ * early enough for a delivery to arrive before it does.
+ *
+ * <p>The sales velocity of a product is an exponentially decayed count of its sold units:
+ * recent sales weigh most and a sale half-life old counts half. Every sale updates the
+ * velocity in constant time, independent of the number of past sales, so the engine can
+ * listen to a market's checkouts directly. The stock is read from the market's catalog
+ * instead of being counted from events, so it stays exact for stock that was there before
+ * the engine attached or that left without an event. A product whose stock lasts no
+ * longer than the lead time gets one {@link ReorderSuggestion} until its next delivery.
+ */
+public class ReplenishmentEngine implements MarketListener {
+
+    private static final double NANOS_PER_DAY = Duration.ofDays(1).toNanos();
+
+    private final double meanLifetimeDays;
+    private final double leadTimeDays;
+    private final double coverDays;
+    private final Clock clock;
+    private final Map<String, ProductVelocity> products = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ReorderSuggestion> suggestions = new ConcurrentLinkedQueue<>();
+    private volatile StockCatalog stock;
+
+    public ReplenishmentEngine(double halfLifeDays, double leadTimeDays, double coverDays) {
+        this(halfLifeDays, leadTimeDays, coverDays, Clock.systemUTC());
+    }
+
+    public ReplenishmentEngine(double halfLifeDays, double leadTimeDays, double coverDays, Clock clock) {
+        if (!(halfLifeDays > 0)) {
+            throw new IllegalArgumentException("Half-life must be a positive number of days!");
+        }
+        if (leadTimeDays < 0 || coverDays < 0) {
+            throw new IllegalArgumentException("Lead time and covered days cannot be negative!");
+        }
+        if (clock == null) {
+            throw new NullPointerException("Clock cannot be null!");
+        }
+        this.meanLifetimeDays = halfLifeDays / Math.log(2);
+        this.leadTimeDays = leadTimeDays;
+        this.coverDays = coverDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Follows the market's stock and listens to its deliveries, sales and expiries.
+     */
+    public synchronized void attach(Market market) {
+        if (this.stock != null) {
+            throw new IllegalStateException("Replenishment engine is already attached to a market!");
+        }
+        this.stock = market.getStockCatalog();
+        market.addListener(this);
+        // the batches already in stock can be reordered as well
+        market.getStockCatalog().forEachInStock((product, quantity) -> velocity(product.getName()).stocked(product));
+    }
+
+    private ProductVelocity velocity(String name) {
+        ProductVelocity velocity = this.products.get(name);
+        return velocity != null ? velocity : this.products.computeIfAbsent(name, ProductVelocity::new);
+    }
+
+    private double today() {
+        Duration sinceEpoch = Duration.between(Instant.EPOCH, this.clock.instant());
+        return sinceEpoch.getSeconds() / 86_400.0 + sinceEpoch.getNano() / NANOS_PER_DAY;
+    }
+
+    @Override
+    public void onDelivery(Product product, int quantity) {
+        velocity(product.getName()).delivered(product);
+    }
+
+    @Override
+    public void onSale(Receipt receipt) {
+        double day = today();
+        for (Map.Entry<Product, Integer> line : receipt.getProducts().entrySet()) {
+            ProductVelocity velocity = velocity(line.getKey().getName());
+            velocity.sold(line.getKey(), line.getValue(), day, this.meanLifetimeDays);
+            checkReorder(velocity, day);
+        }
+    }
+
+    @Override
+    public void onExpired(Map<Product, Integer> expired) {
+        double day = today();
+        for (Map.Entry<Product, Integer> batch : expired.entrySet()) {
+            checkReorder(velocity(batch.getKey().getName()), day);
+        }
+    }
+
+    private void checkReorder(ProductVelocity velocity, double day) {
+        ReorderSuggestion suggestion = velocity.checkReorder(getStock(velocity.name), day, this.meanLifetimeDays, this.leadTimeDays, this.coverDays);
+        if (suggestion != null) {
+            this.suggestions.add(suggestion);
+        }
+    }
+
+    /**
+     * Returns the suggestions made since the last call and removes them.
+     */
+    public List<ReorderSuggestion> drainSuggestions() {
+        List<ReorderSuggestion> drained = new ArrayList<>();
+        ReorderSuggestion suggestion;
+        while ((suggestion = this.suggestions.poll()) != null) {
+            drained.add(suggestion);
+        }
+        return drained;
+    }
+
+    // units per day, decayed up to now
+    public double getVelocity(String productName) {
+        ProductVelocity velocity = this.products.get(productName);
+        return velocity == null ? 0 : velocity.unitsPerDay(today(), this.meanLifetimeDays);
+    }
+
+    public long getStock(String productName) {
+        StockCatalog stock = this.stock;
+        return stock == null ? 0 : stock.getTotalQuantity(productName);
+    }
+
+    /**
+     * Days until the product runs out at its current velocity, infinite if it does not sell.
+     */
+    public double getDaysUntilStockout(String productName) {
+        return ProductVelocity.daysUntilStockout(getStock(productName), getVelocity(productName));
+    }
+}
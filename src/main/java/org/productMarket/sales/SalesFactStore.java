@@ -0,0 +1,358 @@
+package org.productMarket.sales;
+
+import org.productMarket.identities.Identity;
+import org.productMarket.identities.IdentityRegistry;
+import org.productMarket.markets.MarketListener;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only store of sold receipt lines, kept column by column for analytics.
+ *
+ * <p>Every line becomes one row of primitive columns: receipt serial number, day of issue,
+ * product and cashier {@link Identity#getHandle() handles}, a code for the product name,
+ * quantity and unit price in cents. Rows live in fixed-size segments, so queries run tight
+ * loops over plain arrays instead of walking receipts and their maps, and large stores are
+ * scanned one segment per task in parallel.
+ *
+ * <p>Register the store with {@link org.productMarket.markets.Market#addListener} to feed it
+ * every sale, or {@link #append(Receipt)} receipts directly. Appends are serialized; queries
+ * take no lock and see every row appended before they started.
+ */
+public class SalesFactStore implements MarketListener {
+
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    // below this many segments scanning them on the calling thread is faster than forking
+    private static final int PARALLEL_SEGMENTS = 4;
+
+    private volatile SalesSegment[] segments = new SalesSegment[0];
+    // rows below size are complete; written last on append, so reading it first makes them visible
+    private volatile int size;
+    private volatile int maxProductHandle = -1;
+    private volatile int maxCashierHandle = -1;
+    // product names by code, codes are dense and assigned on the first sale of a name
+    private final Map<String, Integer> nameCodes = new HashMap<>();
+    private volatile String[] names = new String[16];
+    private volatile int nameCount;
+    // the rows hold handles, keeping their products and cashiers alive keeps the handles theirs
+    private final Map<Identity, Product> products = new ConcurrentHashMap<>();
+    private final Set<Identity> cashiers = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onSale(Receipt receipt) {
+        append(receipt);
+    }
+
+    public synchronized void append(Receipt receipt) {
+        int row = this.size;
+        int day = Math.toIntExact(receipt.getDateOfIssue().toEpochDay());
+        int cashier = receipt.getCashier().getIdentity().getHandle();
+        this.maxCashierHandle = Math.max(this.maxCashierHandle, cashier);
+        this.cashiers.add(receipt.getCashier().getIdentity());
+
+        for (Map.Entry<Product, Integer> line : receipt.getProducts().entrySet()) {
+            Product product = line.getKey();
+            SalesSegment segment = segmentFor(row);
+            int index = row & SEGMENT_MASK;
+            int handle = product.getIdentity().getHandle();
+
+            segment.serialNumbers[index] = receipt.getSerialNumber();
+            segment.days[index] = day;
+            segment.products[index] = handle;
+            segment.names[index] = codeOf(product.getName());
+            segment.quantities[index] = line.getValue();
+            segment.unitPrices[index] = receipt.getUnitPriceMinor(product);
+            segment.cashiers[index] = cashier;
+
+            this.maxProductHandle = Math.max(this.maxProductHandle, handle);
+            this.products.putIfAbsent(product.getIdentity(), product);
+            row++;
+        }
+        this.size = row;
+    }
+
+    private SalesSegment segmentFor(int row) {
+        int segmentIndex = row >>> SEGMENT_BITS;
+        if (segmentIndex == this.segments.length) {
+            SalesSegment[] grown = Arrays.copyOf(this.segments, segmentIndex + 1);
+            grown[segmentIndex] = new SalesSegment(SEGMENT_SIZE);
+            this.segments = grown;
+        }
+        return this.segments[segmentIndex];
+    }
+
+    private int codeOf(String name) {
+        Integer code = this.nameCodes.get(name);
+        if (code == null) {
+            code = this.nameCodes.size();
+            this.nameCodes.put(name, code);
+            if (code == this.names.length) {
+                this.names = Arrays.copyOf(this.names, code * 2);
+            }
+            this.names[code] = name;
+            this.nameCount = code + 1;
+        }
+        return code;
+    }
+
+    /**
+     * Units sold per product name on each day in the range, both days included.
+     */
+    public Map<LocalDate, Map<String, Long>> getUnitsSoldPerDay(LocalDate from, LocalDate to) {
+        int first = Math.toIntExact(from.toEpochDay());
+        int last = Math.toIntExact(to.toEpochDay());
+        if (last < first) {
+            throw new IllegalArgumentException("The end of the range cannot be before its start!");
+        }
+
+        Scan scan = scan();
+        String[] names = this.names;
+        long[][] sums = scan.aggregate(last - first + 1, scan.nameCount, (segment, rows, groups) -> {
+            int[] days = segment.days;
+            int[] codes = segment.names;
+            int[] quantities = segment.quantities;
+            for (int i = 0; i < rows; i++) {
+                int day = days[i];
+                if (day >= first && day <= last) {
+                    row(groups, day - first, scan.nameCount)[codes[i]] += quantities[i];
+                }
+            }
+        });
+
+        Map<LocalDate, Map<String, Long>> result = new TreeMap<>();
+        for (int day = 0; day < sums.length; day++) {
+            if (sums[day] != null) {
+                result.put(LocalDate.ofEpochDay(first + day), byName(sums[day], names));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Units sold per product name in the range, both days included.
+     */
+    public Map<String, Long> getUnitsSold(LocalDate from, LocalDate to) {
+        return byName(unitsByName(from, to), this.names);
+    }
+
+    /**
+     * The best selling product names in the range, most units first and ties by name.
+     */
+    public Map<String, Long> getTopSellingProducts(LocalDate from, LocalDate to, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count cannot be a negative number!");
+        }
+        long[] units = unitsByName(from, to);
+        String[] names = this.names;
+
+        Comparator<Integer> bySales = Comparator.<Integer>comparingLong(code -> units[code])
+                .thenComparing(code -> names[code], Comparator.reverseOrder());
+        // keep only the best count codes in a min-heap instead of sorting every name
+        PriorityQueue<Integer> top = new PriorityQueue<>(count + 1, bySales);
+        for (int code = 0; code < units.length; code++) {
+            if (units[code] > 0) {
+                top.add(code);
+                if (top.size() > count) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Integer> best = new ArrayList<>(top);
+        best.sort(bySales.reversed());
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code : best) {
+            result.put(names[code], units[code]);
+        }
+        return result;
+    }
+
+    private long[] unitsByName(LocalDate from, LocalDate to) {
+        int first = Math.toIntExact(from.toEpochDay());
+        int last = Math.toIntExact(to.toEpochDay());
+        Scan scan = scan();
+        long[] sums = scan.aggregate(1, scan.nameCount, (segment, rows, groups) -> {
+            long[] units = row(groups, 0, scan.nameCount);
+            int[] days = segment.days;
+            int[] codes = segment.names;
+            int[] quantities = segment.quantities;
+            for (int i = 0; i < rows; i++) {
+                int day = days[i];
+                if (day >= first && day <= last) {
+                    units[codes[i]] += quantities[i];
+                }
+            }
+        })[0];
+        return sums == null ? new long[scan.nameCount] : sums;
+    }
+
+    /**
+     * Units sold per product batch in the range, both days included.
+     */
+    public Map<Identity, Long> getUnitsSoldByBatch(LocalDate from, LocalDate to) {
+        int first = Math.toIntExact(from.toEpochDay());
+        int last = Math.toIntExact(to.toEpochDay());
+        Scan scan = scan();
+        long[] sums = scan.aggregate(1, scan.productWidth, (segment, rows, groups) -> {
+            long[] units = row(groups, 0, scan.productWidth);
+            int[] days = segment.days;
+            int[] handles = segment.products;
+            int[] quantities = segment.quantities;
+            for (int i = 0; i < rows; i++) {
+                int day = days[i];
+                if (day >= first && day <= last) {
+                    units[handles[i]] += quantities[i];
+                }
+            }
+        })[0];
+        return byHandle(sums);
+    }
+
+    /**
+     * Income in cents per cashier identity in the range, both days included.
+     */
+    public Map<Identity, Long> getRevenueByCashier(LocalDate from, LocalDate to) {
+        int first = Math.toIntExact(from.toEpochDay());
+        int last = Math.toIntExact(to.toEpochDay());
+        Scan scan = scan();
+        long[] sums = scan.aggregate(1, scan.cashierWidth, (segment, rows, groups) -> {
+            long[] revenue = row(groups, 0, scan.cashierWidth);
+            int[] days = segment.days;
+            int[] cashiers = segment.cashiers;
+            int[] quantities = segment.quantities;
+            long[] unitPrices = segment.unitPrices;
+            for (int i = 0; i < rows; i++) {
+                int day = days[i];
+                if (day >= first && day <= last) {
+                    revenue[cashiers[i]] += unitPrices[i] * quantities[i];
+                }
+            }
+        })[0];
+        return byHandle(sums);
+    }
+
+    /**
+     * Income in cents in the range, both days included.
+     */
+    public long getRevenueMinor(LocalDate from, LocalDate to) {
+        int first = Math.toIntExact(from.toEpochDay());
+        int last = Math.toIntExact(to.toEpochDay());
+        long[] total = scan().aggregate(1, 1, (segment, rows, groups) -> {
+            long[] revenue = row(groups, 0, 1);
+            int[] days = segment.days;
+            int[] quantities = segment.quantities;
+            long[] unitPrices = segment.unitPrices;
+            long sum = 0;
+            for (int i = 0; i < rows; i++) {
+                int day = days[i];
+                if (day >= first && day <= last) {
+                    sum += unitPrices[i] * quantities[i];
+                }
+            }
+            revenue[0] += sum;
+        })[0];
+        return total == null ? 0 : total[0];
+    }
+
+    public Product getProduct(Identity identity) {
+        return this.products.get(identity);
+    }
+
+    // the number of rows, one per sold receipt line
+    public int size() {
+        return this.size;
+    }
+
+    private static long[] row(long[][] groups, int group, int width) {
+        long[] row = groups[group];
+        if (row == null) {
+            row = new long[width];
+            groups[group] = row;
+        }
+        return row;
+    }
+
+    private static Map<String, Long> byName(long[] sums, String[] names) {
+        Map<String, Long> result = new HashMap<>();
+        for (int code = 0; code < sums.length; code++) {
+            if (sums[code] != 0) {
+                result.put(names[code], sums[code]);
+            }
+        }
+        return result;
+    }
+
+    private static Map<Identity, Long> byHandle(long[] sums) {
+        Map<Identity, Long> result = new HashMap<>();
+        if (sums != null) {
+            for (int handle = 0; handle < sums.length; handle++) {
+                if (sums[handle] != 0) {
+                    result.put(IdentityRegistry.get(handle), sums[handle]);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Scan scan() {
+        // size first: every row below it and the handles and names it uses are then visible
+        int size = this.size;
+        return new Scan(this.segments, size, this.maxProductHandle + 1, this.maxCashierHandle + 1, this.nameCount);
+    }
+
+    // scans the rows of one segment into per-group sums
+    private interface SegmentScan {
+        void scan(SalesSegment segment, int rows, long[][] groups);
+    }
+
+    // the rows and dictionary sizes a query works on, fixed when it starts
+    private static class Scan {
+
+        final SalesSegment[] segments;
+        final int size;
+        final int productWidth;
+        final int cashierWidth;
+        final int nameCount;
+
+        Scan(SalesSegment[] segments, int size, int productWidth, int cashierWidth, int nameCount) {
+            this.segments = segments;
+            this.size = size;
+            this.productWidth = productWidth;
+            this.cashierWidth = cashierWidth;
+            this.nameCount = nameCount;
+        }
+
+        long[][] aggregate(int groups, int width, SegmentScan scan) {
+            int segmentCount = (this.size + SEGMENT_MASK) >>> SEGMENT_BITS;
+            IntStream range = IntStream.range(0, segmentCount);
+            if (segmentCount >= PARALLEL_SEGMENTS) {
+                range = range.parallel();
+            }
+            return range.collect(() -> new long[groups][],
+                    (sums, segment) -> scan.scan(this.segments[segment], Math.min(SEGMENT_SIZE, this.size - (segment << SEGMENT_BITS)), sums),
+                    (sums, other) -> merge(sums, other, width));
+        }
+
+        private static void merge(long[][] sums, long[][] other, int width) {
+            for (int group = 0; group < sums.length; group++) {
+                if (other[group] == null) {
+                    continue;
+                }
+                if (sums[group] == null) {
+                    sums[group] = other[group];
+                    continue;
+                }
+                for (int i = 0; i < width; i++) {
+                    sums[group][i] += other[group][i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.productMarket.sales;
+
+// one fixed-size block of rows, a primitive array per column
+class SalesSegment {
+
+    final long[] serialNumbers;
+    final int[] days;
+    final int[] products;
+    final int[] names;
+    final int[] quantities;
+    final long[] unitPrices;
+    final int[] cashiers;
+
+    SalesSegment(int capacity) {
+        this.serialNumbers = new long[capacity];
+        this.days = new int[capacity];
+        this.products = new int[capacity];
+        this.names = new int[capacity];
+        this.quantities = new int[capacity];
+        this.unitPrices = new long[capacity];
+        this.cashiers = new int[capacity];
+    }
+}
@@ -0,0 +1,24 @@
+package org.productMarket.schedulers;
+
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.customers.Customer;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// a customer waiting in a desk's queue
+class CheckoutTask {
+
+    final Map<String, Integer> basket;
+    final Customer customer;
+    final int items;
+    final long enqueuedNanos;
+    final CompletableFuture<CheckoutResult> result = new CompletableFuture<>();
+
+    CheckoutTask(Map<String, Integer> basket, Customer customer, int items, long enqueuedNanos) {
+        this.basket = basket;
+        this.customer = customer;
+        this.items = items;
+        this.enqueuedNanos = enqueuedNanos;
+    }
+}
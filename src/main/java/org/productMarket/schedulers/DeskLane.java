@@ -0,0 +1,63 @@
+package org.productMarket.schedulers;
+
+import org.productMarket.counters.CashDesk;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// one open cash desk: its queue, what is waiting in it and how fast the desk serves
+class DeskLane {
+
+    final CashDesk cashDesk;
+    // the worker takes from the head, idle desks steal from the tail
+    final LinkedBlockingDeque<CheckoutTask> queue = new LinkedBlockingDeque<>();
+    final AtomicInteger queuedCustomers = new AtomicInteger();
+    final AtomicLong queuedItems = new AtomicLong();
+    volatile int itemsInService;
+    // moving average of the observed service time per item, 0 until the first checkout
+    volatile long nanosPerItem;
+    // guarded by this: no customer joins once the lane is closing
+    boolean closing;
+    Thread worker;
+
+    DeskLane(CashDesk cashDesk) {
+        this.cashDesk = cashDesk;
+    }
+
+    synchronized boolean enqueue(CheckoutTask task) {
+        if (this.closing) {
+            return false;
+        }
+        this.queuedCustomers.incrementAndGet();
+        this.queuedItems.addAndGet(task.items);
+        this.queue.addLast(task);
+        return true;
+    }
+
+    synchronized void close() {
+        this.closing = true;
+    }
+
+    synchronized boolean isClosing() {
+        return closing;
+    }
+
+    // true once the lane is closing and nobody is left in its queue
+    synchronized boolean isDrained() {
+        return this.closing && this.queue.isEmpty();
+    }
+
+    void taken(CheckoutTask task) {
+        this.queuedCustomers.decrementAndGet();
+        this.queuedItems.addAndGet(-task.items);
+    }
+
+    /**
+     * Estimated time until a new customer with the given number of items would be done.
+     */
+    long estimatedNanos(int items, long defaultNanosPerItem) {
+        long perItem = this.nanosPerItem == 0 ? defaultNanosPerItem : this.nanosPerItem;
+        return (this.queuedItems.get() + this.itemsInService + items) * perItem;
+    }
+}
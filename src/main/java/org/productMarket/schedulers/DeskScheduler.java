@@ -0,0 +1,298 @@
+package org.productMarket.schedulers;
+
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.enums.RoutingPolicy;
+import org.productMarket.markets.Market;
+import org.productMarket.metrics.HistogramSnapshot;
+import org.productMarket.metrics.LatencyHistogram;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues customers at the cash desks of a market and serves each desk's queue on its own
+ * worker thread.
+ *
+ * <p>With {@link RoutingPolicy#LEAST_LOADED} a customer joins the desk where they are
+ * expected to be done first: the items already queued there plus the customer's own basket,
+ * times the per-item service time observed at that desk. A desk which runs out of
+ * customers steals the last one from the longest queue. {@link RoutingPolicy#RANDOM}
+ * picks any open desk and never moves a customer, like customers choosing a queue blindly.
+ *
+ * <p>Desks can be opened and closed while customers are being served; a closed desk takes
+ * no new customers, serves the ones in its queue and ends its shift. If a desk's worker
+ * dies of an error, the customers still queued there are completed exceptionally.
+ */
+public class DeskScheduler implements Closeable {
+
+    // weight of the newest checkout in a desk's moving average of the time per item
+    private static final double SERVICE_TIME_WEIGHT = 0.2;
+    // how long an idle worker waits for a customer before it looks for one to steal again,
+    // doubled after every wait which brought nobody
+    private static final long MIN_IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Market market;
+    private final RoutingPolicy policy;
+    private final List<DeskLane> lanes = new CopyOnWriteArrayList<>();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private volatile boolean closed;
+
+    public DeskScheduler(Market market, RoutingPolicy policy) {
+        if (market == null) {
+            throw new NullPointerException("Market cannot be null!");
+        }
+        if (policy == null) {
+            throw new NullPointerException("Routing policy cannot be null!");
+        }
+        this.market = market;
+        this.policy = policy;
+    }
+
+    /**
+     * Adds the desk to the market if needed, starts its shift and starts serving customers at it.
+     */
+    public synchronized void openDesk(CashDesk cashDesk) {
+        if (this.closed) {
+            throw new IllegalStateException("The scheduler is closed!");
+        }
+        for (DeskLane lane : this.lanes) {
+            // a closing desk is open until its queue is served
+            if (lane.cashDesk == cashDesk) {
+                throw new IllegalArgumentException("Cash desk " + cashDesk.getNumber() + " is already open!");
+            }
+        }
+        if (!this.market.getCashDesks().contains(cashDesk)) {
+            this.market.addCashDesk(cashDesk);
+        }
+        cashDesk.startShift();
+
+        DeskLane lane = new DeskLane(cashDesk);
+        lane.worker = new Thread(() -> work(lane), "cash-desk-" + cashDesk.getNumber());
+        lane.worker.setDaemon(true);
+        this.lanes.add(lane);
+        lane.worker.start();
+    }
+
+    /**
+     * Stops sending customers to the desk. The customers already queued there are still
+     * served, unless other desks steal them first.
+     */
+    public void closeDesk(CashDesk cashDesk) {
+        for (DeskLane lane : this.lanes) {
+            if (lane.cashDesk == cashDesk) {
+                lane.close();
+            }
+        }
+    }
+
+    /**
+     * Queues the customer at a desk and returns the result of their checkout once served.
+     */
+    public CompletableFuture<CheckoutResult> submit(Map<String, Integer> basket, Customer customer) {
+        if (basket == null || customer == null) {
+            throw new NullPointerException("Basket and customer cannot be null!");
+        }
+        int items = 0;
+        for (int quantity : basket.values()) {
+            items += Math.max(0, quantity);
+        }
+
+        CheckoutTask task = new CheckoutTask(basket, customer, items, System.nanoTime());
+        while (true) {
+            if (this.closed) {
+                throw new IllegalStateException("The scheduler is closed!");
+            }
+            DeskLane lane = route(items);
+            if (lane == null) {
+                throw new IllegalStateException("No cash desk is open!");
+            }
+            // a desk closing in the meantime refuses the customer, who then picks another one
+            if (lane.enqueue(task)) {
+                return task.result;
+            }
+        }
+    }
+
+    private DeskLane route(int items) {
+        if (this.policy == RoutingPolicy.RANDOM) {
+            List<DeskLane> open = this.lanes.stream().filter(lane -> !lane.isClosing()).toList();
+            return open.isEmpty() ? null : open.get(ThreadLocalRandom.current().nextInt(open.size()));
+        }
+
+        long defaultNanosPerItem = averageNanosPerItem();
+        DeskLane best = null;
+        long bestNanos = Long.MAX_VALUE;
+        for (DeskLane lane : this.lanes) {
+            if (lane.isClosing()) {
+                continue;
+            }
+            long nanos = lane.estimatedNanos(items, defaultNanosPerItem);
+            if (nanos < bestNanos || (nanos == bestNanos && lane.queuedCustomers.get() < best.queuedCustomers.get())) {
+                best = lane;
+                bestNanos = nanos;
+            }
+        }
+        return best;
+    }
+
+    // a desk which has not served anyone yet is assumed to be as fast as the others
+    private long averageNanosPerItem() {
+        long sum = 0;
+        int measured = 0;
+        for (DeskLane lane : this.lanes) {
+            if (lane.nanosPerItem > 0) {
+                sum += lane.nanosPerItem;
+                measured++;
+            }
+        }
+        return measured == 0 ? 0 : sum / measured;
+    }
+
+    private void work(DeskLane lane) {
+        long idleWaitNanos = MIN_IDLE_WAIT_NANOS;
+        try {
+            while (true) {
+                CheckoutTask task = lane.queue.pollFirst();
+                if (task != null) {
+                    lane.taken(task);
+                } else if (this.policy == RoutingPolicy.LEAST_LOADED && !lane.isClosing()) {
+                    // a closing desk only serves the customers already in its queue
+                    task = steal(lane);
+                }
+                if (task == null) {
+                    if (lane.isDrained()) {
+                        break;
+                    }
+                    // a customer joining this desk ends the wait at once
+                    task = lane.queue.pollFirst(idleWaitNanos, TimeUnit.NANOSECONDS);
+                    if (task == null) {
+                        idleWaitNanos = Math.min(2 * idleWaitNanos, MAX_IDLE_WAIT_NANOS);
+                        continue;
+                    }
+                    lane.taken(task);
+                }
+                idleWaitNanos = MIN_IDLE_WAIT_NANOS;
+                serve(lane, task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // nobody is left waiting at a desk whose worker stopped early
+            lane.close();
+            CheckoutTask task;
+            while ((task = lane.queue.pollFirst()) != null) {
+                lane.taken(task);
+                task.result.completeExceptionally(new IllegalStateException("Cash desk " + lane.cashDesk.getNumber() + " stopped serving customers!"));
+            }
+            // the desk cannot be opened again before its lane is removed, so its new shift is not ended here
+            lane.cashDesk.endShift();
+            this.lanes.remove(lane);
+        }
+    }
+
+    private CheckoutTask steal(DeskLane thief) {
+        DeskLane victim = null;
+        for (DeskLane lane : this.lanes) {
+            if (lane != thief && lane.queuedCustomers.get() > 0
+                    && (victim == null || lane.queuedCustomers.get() > victim.queuedCustomers.get())) {
+                victim = lane;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        // the customer who joined last has the longest wait ahead of them
+        CheckoutTask task = victim.queue.pollLast();
+        if (task != null) {
+            victim.taken(task);
+        }
+        return task;
+    }
+
+    private void serve(DeskLane lane, CheckoutTask task) {
+        long start = System.nanoTime();
+        this.waitTime.record(start - task.enqueuedNanos);
+        lane.itemsInService = task.items;
+        try {
+            task.result.complete(this.market.checkout(task.basket, lane.cashDesk, task.customer));
+        } catch (RuntimeException e) {
+            task.result.completeExceptionally(e);
+        } catch (Error e) {
+            task.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            lane.itemsInService = 0;
+            if (task.items > 0) {
+                long nanosPerItem = (System.nanoTime() - start) / task.items;
+                long previous = lane.nanosPerItem;
+                lane.nanosPerItem = previous == 0 ? nanosPerItem : (long) (previous + SERVICE_TIME_WEIGHT * (nanosPerItem - previous));
+            }
+        }
+    }
+
+    /**
+     * Time customers spent in a queue before a desk started serving them.
+     */
+    public HistogramSnapshot getWaitTime() {
+        return waitTime.snapshot();
+    }
+
+    public int getOpenDesks() {
+        int open = 0;
+        for (DeskLane lane : this.lanes) {
+            if (!lane.isClosing()) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    public int getQueuedCustomers() {
+        int queued = 0;
+        for (DeskLane lane : this.lanes) {
+            queued += lane.queuedCustomers.get();
+        }
+        return queued;
+    }
+
+    public RoutingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Closes every desk and waits until the customers already queued were served.
+     */
+    @Override
+    public void close() {
+        List<DeskLane> lanes;
+        synchronized (this) {
+            this.closed = true;
+            lanes = List.copyOf(this.lanes);
+        }
+        for (DeskLane lane : lanes) {
+            lane.close();
+        }
+        boolean interrupted = false;
+        for (DeskLane lane : lanes) {
+            while (true) {
+                try {
+                    lane.worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.productMarket.serials;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numbers reserved in blocks from a counter file which can be shared by several processes.
+ *
+ * <p>The file holds the highest number reserved so far. Reserving a block takes an exclusive
+ * lock on the file, raises that number by the block size and forces it to disk before any
+ * number of the block is handed out, so neither a restart nor another process sharing the
+ * file can get the same numbers. Within a block {@link #next()} is a single atomic increment.
+ * Numbers left in the block when the process stops are skipped.
+ */
+public class FileSerialNumberAllocator implements SerialNumberAllocator, Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    // file locks are held per process, so allocators of one process share the file through these
+    private static final ConcurrentHashMap<Path, Object> processLocks = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+    private final Object processLock;
+    private final int blockSize;
+    private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+    private volatile Block block = new Block(0, 0);
+
+    public FileSerialNumberAllocator(Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    public FileSerialNumberAllocator(Path file, int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be a positive number!");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        this.blockSize = blockSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.processLock = processLocks.computeIfAbsent(file.toRealPath(), path -> new Object());
+    }
+
+    @Override
+    public long next() {
+        while (true) {
+            Block block = this.block;
+            long number = block.next.getAndIncrement();
+            if (number < block.end) {
+                return number;
+            }
+            reserveBlock(block);
+        }
+    }
+
+    @Override
+    public synchronized void reserveUpTo(long serialNumber) {
+        if (serialNumber >= this.block.next.get()) {
+            raiseHighWaterMark(0, serialNumber);
+            // the rest of the current block is below the number, start a new one on the next call
+            this.block = new Block(0, 0);
+        }
+    }
+
+    private synchronized void reserveBlock(Block exhausted) {
+        if (this.block != exhausted) {
+            // another thread already reserved a new block
+            return;
+        }
+        long end = raiseHighWaterMark(this.blockSize, 0);
+        this.block = new Block(end - this.blockSize + 1, end + 1);
+    }
+
+    /**
+     * Raises the number in the file by {@code blockSize}, but at least to {@code atLeast},
+     * and returns the new value.
+     */
+    private long raiseHighWaterMark(int blockSize, long atLeast) {
+        synchronized (this.processLock) {
+            try {
+                FileLock lock = this.channel.lock();
+                try {
+                    this.buffer.clear();
+                    long highWaterMark = 0;
+                    if (this.channel.read(this.buffer, 0) == Long.BYTES) {
+                        highWaterMark = this.buffer.getLong(0);
+                    }
+
+                    long raised = Math.max(Math.addExact(highWaterMark, blockSize), atLeast);
+                    this.buffer.clear();
+                    this.buffer.putLong(raised).flip();
+                    while (this.buffer.hasRemaining()) {
+                        this.channel.write(this.buffer, this.buffer.position());
+                    }
+                    this.channel.force(false);
+                    return raised;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static class Block {
+
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
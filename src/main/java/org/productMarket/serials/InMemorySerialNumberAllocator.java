@@ -0,0 +1,21 @@
+package org.productMarket.serials;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numbers from an in-process counter starting at 1. They start over on every restart.
+ */
+public class InMemorySerialNumberAllocator implements SerialNumberAllocator {
+
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public long next() {
+        return this.last.incrementAndGet();
+    }
+
+    @Override
+    public void reserveUpTo(long serialNumber) {
+        this.last.accumulateAndGet(serialNumber, Math::max);
+    }
+}
@@ -0,0 +1,15 @@
+package org.productMarket.serials;
+
+/**
+ * Hands out receipt serial numbers. Every number is handed out at most once;
+ * numbers are increasing per allocator but may have gaps.
+ */
+public interface SerialNumberAllocator {
+
+    long next();
+
+    /**
+     * Makes sure numbers handed out from now on are greater than the given one.
+     */
+    void reserveUpTo(long serialNumber);
+}
@@ -0,0 +1,130 @@
+package org.productMarket.shifts;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.receipts.Receipt;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * One cashier working one cash desk, from the start of the shift until the desk is handed
+ * over or closed, with live counters of what the desk processed meanwhile.
+ *
+ * <p>The counters belong to the shift alone, so desks never contend with each other;
+ * each checkout adds to them with single atomic operations and no lock.
+ */
+public class Shift implements Serializable {
+
+    private static final VarHandle CHECKOUTS;
+    private static final VarHandle RECEIPTS;
+    private static final VarHandle ITEMS;
+    private static final VarHandle REVENUE;
+    private static final VarHandle BUSY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CHECKOUTS = lookup.findVarHandle(Shift.class, "checkouts", long.class);
+            RECEIPTS = lookup.findVarHandle(Shift.class, "receipts", long.class);
+            ITEMS = lookup.findVarHandle(Shift.class, "items", long.class);
+            REVENUE = lookup.findVarHandle(Shift.class, "revenueMinor", long.class);
+            BUSY = lookup.findVarHandle(Shift.class, "busyNanos", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int deskNumber;
+    private final Cashier cashier;
+    private final Instant start;
+    private volatile Instant end;
+    private volatile long checkouts;
+    private volatile long receipts;
+    private volatile long items;
+    private volatile long revenueMinor;
+    private volatile long busyNanos;
+
+    public Shift(int deskNumber, Cashier cashier, Instant start) {
+        if (cashier == null) {
+            throw new NullPointerException("Cashier cannot be null!");
+        }
+        if (start == null) {
+            throw new NullPointerException("Start of the shift cannot be null!");
+        }
+        this.deskNumber = deskNumber;
+        this.cashier = cashier;
+        this.start = start;
+    }
+
+    /**
+     * Counts one served customer: the receipt, or null if nothing was sold, and the time it took.
+     */
+    public void record(Receipt receipt, long busyNanos) {
+        CHECKOUTS.getAndAdd(this, 1L);
+        BUSY.getAndAdd(this, busyNanos);
+        if (receipt != null) {
+            long items = 0;
+            for (int quantity : receipt.getProducts().values()) {
+                items += quantity;
+            }
+            RECEIPTS.getAndAdd(this, 1L);
+            ITEMS.getAndAdd(this, items);
+            REVENUE.getAndAdd(this, receipt.getTotalPriceMinor());
+        }
+    }
+
+    public void end(Instant end) {
+        if (end == null) {
+            throw new NullPointerException("End of the shift cannot be null!");
+        }
+        if (this.end != null) {
+            throw new IllegalStateException("The shift has already ended!");
+        }
+        this.end = end.isBefore(this.start) ? this.start : end;
+    }
+
+    public boolean isOpen() {
+        return end == null;
+    }
+
+    public int getDeskNumber() {
+        return deskNumber;
+    }
+
+    public Cashier getCashier() {
+        return cashier;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    // null while the shift is open
+    public Instant getEnd() {
+        return end;
+    }
+
+    /**
+     * The counters so far; an open shift counts its time on shift up to now.
+     */
+    public Throughput getThroughput(Instant now) {
+        Instant end = this.end;
+        Duration onShift = Duration.between(this.start, end != null ? end : now);
+        return new Throughput(this.checkouts, this.receipts, this.items, this.revenueMinor, this.busyNanos,
+                Math.max(0, onShift.toNanos()));
+    }
+
+    @Override
+    public String toString() {
+        return "Shift{" +
+                "deskNumber=" + deskNumber +
+                ", cashier=" + cashier.getName() +
+                ", start=" + start +
+                ", end=" + end +
+                ", receipts=" + receipts +
+                '}';
+    }
+}
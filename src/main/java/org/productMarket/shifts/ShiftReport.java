@@ -0,0 +1,71 @@
+package org.productMarket.shifts;
+
+import org.productMarket.counters.CashDesk;
+import org.productMarket.identities.Identity;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Throughput per cash desk and per cashier, summed from the shifts of a set of desks at
+ * one moment.
+ */
+public class ShiftReport {
+
+    private final Map<Integer, Throughput> desks;
+    private final Map<Identity, Throughput> cashiers;
+    private final Throughput total;
+
+    public ShiftReport(Map<Integer, Throughput> desks, Map<Identity, Throughput> cashiers, Throughput total) {
+        this.desks = Collections.unmodifiableMap(desks);
+        this.cashiers = Collections.unmodifiableMap(cashiers);
+        this.total = total;
+    }
+
+    public static ShiftReport of(Collection<CashDesk> cashDesks, Instant now) {
+        Map<Integer, Throughput> desks = new TreeMap<>();
+        Map<Identity, Throughput> cashiers = new HashMap<>();
+        Throughput total = Throughput.NONE;
+        for (CashDesk cashDesk : cashDesks) {
+            Throughput desk = Throughput.NONE;
+            for (Shift shift : cashDesk.getShifts()) {
+                Throughput throughput = shift.getThroughput(now);
+                desk = desk.plus(throughput);
+                cashiers.merge(shift.getCashier().getIdentity(), throughput, Throughput::plus);
+            }
+            desks.merge(cashDesk.getNumber(), desk, Throughput::plus);
+            total = total.plus(desk);
+        }
+        return new ShiftReport(desks, cashiers, total);
+    }
+
+    // by desk number
+    public Map<Integer, Throughput> getDesks() {
+        return desks;
+    }
+
+    public Throughput getDesk(int deskNumber) {
+        return desks.getOrDefault(deskNumber, Throughput.NONE);
+    }
+
+    // by cashier identity, over every desk they worked at
+    public Map<Identity, Throughput> getCashiers() {
+        return cashiers;
+    }
+
+    public Throughput getCashier(Identity cashier) {
+        return cashiers.getOrDefault(cashier, Throughput.NONE);
+    }
+
+    public Throughput getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "ShiftReport{" +
+                "desks=" + desks +
+                ", total=" + total +
+                '}';
+    }
+}
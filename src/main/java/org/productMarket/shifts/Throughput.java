@@ -0,0 +1,94 @@
+package org.productMarket.shifts;
+
+import org.productMarket.money.Money;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a desk or cashier processed over some time on shift: checkouts, receipts, sold
+ * items, revenue in cents and the time spent serving customers.
+ */
+public class Throughput {
+
+    public static final Throughput NONE = new Throughput(0, 0, 0, 0, 0, 0);
+
+    private final long checkouts;
+    private final long receipts;
+    private final long items;
+    private final long revenueMinor;
+    private final long busyNanos;
+    private final long onShiftNanos;
+
+    public Throughput(long checkouts, long receipts, long items, long revenueMinor, long busyNanos, long onShiftNanos) {
+        this.checkouts = checkouts;
+        this.receipts = receipts;
+        this.items = items;
+        this.revenueMinor = revenueMinor;
+        this.busyNanos = busyNanos;
+        this.onShiftNanos = onShiftNanos;
+    }
+
+    public Throughput plus(Throughput other) {
+        return new Throughput(this.checkouts + other.checkouts, this.receipts + other.receipts, this.items + other.items,
+                this.revenueMinor + other.revenueMinor, this.busyNanos + other.busyNanos, this.onShiftNanos + other.onShiftNanos);
+    }
+
+    // served customers, also those who left without a receipt
+    public long getCheckouts() {
+        return checkouts;
+    }
+
+    public long getReceipts() {
+        return receipts;
+    }
+
+    public long getItems() {
+        return items;
+    }
+
+    public long getRevenueMinor() {
+        return revenueMinor;
+    }
+
+    public BigDecimal getRevenue() {
+        return Money.toBigDecimal(revenueMinor);
+    }
+
+    public long getBusyNanos() {
+        return busyNanos;
+    }
+
+    public long getOnShiftNanos() {
+        return onShiftNanos;
+    }
+
+    public double getReceiptsPerHour() {
+        return perHour(receipts);
+    }
+
+    public double getItemsPerHour() {
+        return perHour(items);
+    }
+
+    private double perHour(long count) {
+        return onShiftNanos == 0 ? 0 : count * (double) TimeUnit.HOURS.toNanos(1) / onShiftNanos;
+    }
+
+    // share of the time on shift spent serving customers, between 0 and 1
+    public double getUtilization() {
+        return onShiftNanos == 0 ? 0 : Math.min(1, busyNanos / (double) onShiftNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "Throughput{" +
+                "checkouts=" + checkouts +
+                ", receipts=" + receipts +
+                ", items=" + items +
+                ", revenue=" + getRevenue() +
+                ", busyNanos=" + busyNanos +
+                ", onShiftNanos=" + onShiftNanos +
+                '}';
+    }
+}
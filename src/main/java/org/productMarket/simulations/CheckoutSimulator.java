@@ -0,0 +1,219 @@
+package org.productMarket.simulations;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.enums.BasketSizeDistribution;
+import org.productMarket.exceptions.NegativeStackOfMoney;
+import org.productMarket.markets.Market;
+import org.productMarket.metrics.LatencyHistogram;
+import org.productMarket.metrics.MetricsRegistry;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays customer load against a freshly stocked {@link Market}.
+ *
+ * <p>Customers arrive as a Poisson process at the profile's rate, each on its own thread:
+ * a customer draws a basket from the catalog, waits for a free cash desk and checks out.
+ * Customers run on virtual threads when the JVM has them, otherwise on a pool of platform
+ * threads where waiting customers queue in the pool instead. Every product is stocked for
+ * the whole run, so checkouts only fail if the basket is larger than what is left. Any
+ * other exception fails the run.
+ */
+public class CheckoutSimulator {
+
+    private static final BigDecimal CUSTOMER_MONEY = BigDecimal.valueOf(1_000_000);
+
+    private final LoadProfile profile;
+
+    public CheckoutSimulator(LoadProfile profile) {
+        this.profile = profile;
+    }
+
+    public SimulationResult run() throws InterruptedException {
+        Market market = createMarket();
+        BlockingQueue<CashDesk> freeDesks = new ArrayBlockingQueue<>(this.profile.getCashDesks(), true);
+        for (int i = 0; i < this.profile.getCashDesks(); i++) {
+            Cashier cashier = new Cashier("Cashier " + i, BigDecimal.valueOf(1000));
+            CashDesk cashDesk = new CashDesk(cashier, receipt -> { });
+            market.addCashier(cashier);
+            market.addCashDesk(cashDesk);
+            freeDesks.add(cashDesk);
+        }
+
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram checkoutLatency = new LatencyHistogram();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger notSold = new AtomicInteger();
+        AtomicLong lastDone = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(this.profile.getCustomers());
+
+        ExecutorService customers = newCustomerExecutor();
+        long start = System.nanoTime();
+        try {
+            double meanGapNanos = this.profile.getArrivalRate() == 0 ? 0 : 1e9 / this.profile.getArrivalRate();
+            long arrival = start;
+            for (int i = 0; i < this.profile.getCustomers(); i++) {
+                // exponential gaps between arrivals; if the generator falls behind it submits right away
+                arrival += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                long plannedArrival = arrival;
+                customers.execute(() -> {
+                    try {
+                        Map<String, Integer> basket = nextBasket();
+                        CashDesk cashDesk = freeDesks.take();
+                        long checkoutStart = System.nanoTime();
+                        CheckoutResult result;
+                        try {
+                            result = market.checkout(basket, cashDesk, newCustomer());
+                        } finally {
+                            freeDesks.add(cashDesk);
+                        }
+
+                        long end = System.nanoTime();
+                        checkoutLatency.record(end - checkoutStart);
+                        latency.record(end - plannedArrival);
+                        lastDone.accumulateAndGet(end, Math::max);
+                        if (result.isCompleted()) {
+                            completed.incrementAndGet();
+                        } else {
+                            notSold.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            customers.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("A simulated checkout failed", failure.get());
+        }
+
+        return new SimulationResult(this.profile, completed.get(), notSold.get(), lastDone.get() - start,
+                latency.snapshot(), checkoutLatency.snapshot());
+    }
+
+    /**
+     * Runs the profile at increasing arrival rates, multiplying the rate by {@code growth}
+     * after each step, until a run is saturated or {@code maxSteps} runs were made. The
+     * highest rate of a run which is not saturated is the sustainable checkout rate.
+     */
+    public static List<SimulationResult> findSaturation(LoadProfile profile, double startRate, double growth, int maxSteps) throws InterruptedException {
+        if (startRate <= 0 || growth <= 1 || maxSteps <= 0) {
+            throw new IllegalArgumentException("Start rate must be positive, growth above 1 and steps positive!");
+        }
+
+        List<SimulationResult> results = new ArrayList<>();
+        double rate = startRate;
+        for (int step = 0; step < maxSteps; step++) {
+            SimulationResult result = new CheckoutSimulator(profile.withArrivalRate(rate)).run();
+            results.add(result);
+            if (result.isSaturated()) {
+                break;
+            }
+            rate *= growth;
+        }
+        return results;
+    }
+
+    private Market createMarket() {
+        try {
+            Market market = new Market(20, 30, 5, 10);
+            // keep the simulated checkouts out of the application's metrics
+            market.setMetricsRegistry(new MetricsRegistry());
+
+            // stock twice the expected demand of a product, baskets take up to 3 of each product
+            long demand = 2L * this.profile.getCustomers() * this.profile.getMeanBasketSize() * 2 / this.profile.getCatalogSize();
+            int quantity = (int) Math.min(Integer.MAX_VALUE, demand + 100);
+            LocalDate expiry = LocalDate.now().plusYears(1);
+            for (int i = 0; i < this.profile.getCatalogSize(); i++) {
+                if (i % 2 == 0) {
+                    market.addDeliveredProduct(new EdibleProduct(productName(i), BigDecimal.valueOf(1 + i % 20), expiry), quantity);
+                } else {
+                    market.addDeliveredProduct(new NonEdibleProduct(productName(i), BigDecimal.valueOf(1 + i % 20), expiry), quantity);
+                }
+            }
+            return market;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not stock the simulated market", e);
+        }
+    }
+
+    private static Customer newCustomer() {
+        try {
+            return new Customer("Customer", CUSTOMER_MONEY);
+        } catch (NegativeStackOfMoney e) {
+            // the customers' money is a positive constant
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Integer> nextBasket() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = this.profile.nextBasketSize(random);
+        Map<String, Integer> basket = new HashMap<>();
+        while (basket.size() < size) {
+            basket.put(productName(random.nextInt(this.profile.getCatalogSize())), random.nextInt(1, 4));
+        }
+        return basket;
+    }
+
+    private static String productName(int index) {
+        return "Product " + index;
+    }
+
+    /**
+     * One virtual thread per customer on Java 21+, looked up reflectively so the code still
+     * runs on older JVMs, where a pool of platform threads is used.
+     */
+    static ExecutorService newCustomerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    /**
+     * Usage: {@code CheckoutSimulator [customers] [catalogSize] [cashDesks] [startRate]}.
+     * Prints one line per arrival rate until the checkout saturates.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int customers = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int catalogSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int cashDesks = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        double startRate = args.length > 3 ? Double.parseDouble(args[3]) : 1_000;
+
+        LoadProfile profile = new LoadProfile(customers, startRate, catalogSize, cashDesks, BasketSizeDistribution.GEOMETRIC, 8);
+        System.out.println(profile);
+        for (SimulationResult result : findSaturation(profile, startRate, 2, 12)) {
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.productMarket.simulations;
+
+import org.productMarket.enums.BasketSizeDistribution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The load a {@link CheckoutSimulator} run generates: how many customers arrive and how
+ * fast, how many products the market lists, how many cash desks serve them and how big
+ * the baskets are. An arrival rate of zero lets every customer arrive at once.
+ */
+public class LoadProfile {
+
+    private final int customers;
+    private final double arrivalRate;
+    private final int catalogSize;
+    private final int cashDesks;
+    private final BasketSizeDistribution basketSizeDistribution;
+    private final int meanBasketSize;
+
+    public LoadProfile(int customers, double arrivalRate, int catalogSize, int cashDesks, BasketSizeDistribution basketSizeDistribution, int meanBasketSize) {
+        if (customers <= 0 || catalogSize <= 0 || cashDesks <= 0 || meanBasketSize <= 0) {
+            throw new IllegalArgumentException("Customers, catalog size, cash desks and basket size must be positive numbers!");
+        }
+        if (arrivalRate < 0 || Double.isNaN(arrivalRate)) {
+            throw new IllegalArgumentException("Arrival rate cannot be a negative number!");
+        }
+        if (basketSizeDistribution == null) {
+            throw new NullPointerException("Basket size distribution cannot be null!");
+        }
+        this.customers = customers;
+        this.arrivalRate = arrivalRate;
+        this.catalogSize = catalogSize;
+        this.cashDesks = cashDesks;
+        this.basketSizeDistribution = basketSizeDistribution;
+        this.meanBasketSize = Math.min(meanBasketSize, catalogSize);
+    }
+
+    public LoadProfile withArrivalRate(double arrivalRate) {
+        return new LoadProfile(this.customers, arrivalRate, this.catalogSize, this.cashDesks, this.basketSizeDistribution, this.meanBasketSize);
+    }
+
+    /**
+     * Draws the number of distinct products of a basket, between 1 and the catalog size.
+     */
+    int nextBasketSize(ThreadLocalRandom random) {
+        int size;
+        switch (this.basketSizeDistribution) {
+            case UNIFORM:
+                size = random.nextInt(1, 2 * this.meanBasketSize);
+                break;
+            case GEOMETRIC:
+                // 1 + a geometric number of extra products, so the mean is meanBasketSize
+                double p = 1.0 / this.meanBasketSize;
+                size = p == 1 ? 1 : 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+                break;
+            default:
+                size = this.meanBasketSize;
+        }
+        return Math.min(size, this.catalogSize);
+    }
+
+    public int getCustomers() {
+        return customers;
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public int getCatalogSize() {
+        return catalogSize;
+    }
+
+    public int getCashDesks() {
+        return cashDesks;
+    }
+
+    public BasketSizeDistribution getBasketSizeDistribution() {
+        return basketSizeDistribution;
+    }
+
+    public int getMeanBasketSize() {
+        return meanBasketSize;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{" +
+                "customers=" + customers +
+                ", arrivalRate=" + arrivalRate +
+                ", catalogSize=" + catalogSize +
+                ", cashDesks=" + cashDesks +
+                ", basketSizeDistribution=" + basketSizeDistribution +
+                ", meanBasketSize=" + meanBasketSize +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package org.productMarket.simulations;
+
+import org.productMarket.metrics.HistogramSnapshot;
+
+/**
+ * Outcome of one {@link CheckoutSimulator} run. The latency of a customer is measured from
+ * their planned arrival, so time spent queueing for a cash desk and arrivals delayed by an
+ * overloaded generator are both included; the checkout latency is the time at the desk only.
+ */
+public class SimulationResult {
+
+    // a run whose throughput falls this far below the arrival rate is saturated
+    private static final double SATURATION_RATIO = 0.9;
+
+    private final LoadProfile profile;
+    private final int completed;
+    private final int notSold;
+    private final long elapsedNanos;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot checkoutLatency;
+
+    public SimulationResult(LoadProfile profile, int completed, int notSold, long elapsedNanos, HistogramSnapshot latency, HistogramSnapshot checkoutLatency) {
+        this.profile = profile;
+        this.completed = completed;
+        this.notSold = notSold;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.checkoutLatency = checkoutLatency;
+    }
+
+    /**
+     * Checkouts per second over the whole run.
+     */
+    public double getThroughput() {
+        return (this.completed + this.notSold) * 1e9 / Math.max(1, this.elapsedNanos);
+    }
+
+    /**
+     * Whether the cash desks could not keep up with the arrival rate.
+     */
+    public boolean isSaturated() {
+        return this.profile.getArrivalRate() > 0 && getThroughput() < this.profile.getArrivalRate() * SATURATION_RATIO;
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getNotSold() {
+        return notSold;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    public HistogramSnapshot getCheckoutLatency() {
+        return checkoutLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rate=%.0f/s throughput=%.0f/s completed=%d notSold=%d p50=%.3fms p99=%.3fms p999=%.3fms%s",
+                profile.getArrivalRate(), getThroughput(), completed, notSold,
+                latency.getP50() / 1e6, latency.getP99() / 1e6, latency.getP999() / 1e6, isSaturated() ? " SATURATED" : "");
+    }
+}
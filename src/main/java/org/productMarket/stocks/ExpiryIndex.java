@@ -0,0 +1,63 @@
+package org.productMarket.stocks;
+
+import org.productMarket.products.Product;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Batches bucketed by their expiry date (as an epoch day), so the batches which expire or
+ * enter the discount window on a given day are found without scanning the whole stock.
+ */
+public class ExpiryIndex implements Serializable {
+
+    private final TreeMap<Long, Set<Product>> buckets;
+    private int size;
+
+    public ExpiryIndex() {
+        this.buckets = new TreeMap<>();
+    }
+
+    public synchronized void add(Product product) {
+        if (this.buckets.computeIfAbsent(product.getDateOfExpiry().toEpochDay(), day -> new HashSet<>()).add(product)) {
+            this.size++;
+        }
+    }
+
+    public synchronized void addAll(Collection<Product> products) {
+        for (Product product : products) {
+            add(product);
+        }
+    }
+
+    /**
+     * Removes and returns every batch which expires before the given epoch day.
+     */
+    public synchronized List<Product> removeExpiringBefore(long epochDay) {
+        SortedMap<Long, Set<Product>> expired = this.buckets.headMap(epochDay);
+        List<Product> products = new ArrayList<>();
+        for (Set<Product> bucket : expired.values()) {
+            products.addAll(bucket);
+        }
+        expired.clear();
+        this.size -= products.size();
+        return products;
+    }
+
+    /**
+     * Returns the batches which expire from the first epoch day (inclusive) to the second one (exclusive).
+     */
+    public synchronized List<Product> getExpiringBetween(long fromEpochDay, long toEpochDay) {
+        List<Product> products = new ArrayList<>();
+        if (fromEpochDay < toEpochDay) {
+            for (Set<Product> bucket : this.buckets.subMap(fromEpochDay, toEpochDay).values()) {
+                products.addAll(bucket);
+            }
+        }
+        return products;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
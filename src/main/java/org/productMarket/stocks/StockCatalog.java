@@ -0,0 +1,242 @@
+package org.productMarket.stocks;
+
+import org.productMarket.identities.Identity;
+import org.productMarket.identities.IdentityRegistry;
+import org.productMarket.products.Product;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ObjIntConsumer;
+
+public class StockCatalog implements Serializable {
+
+    // quantities are primitive slots, a batch is mapped to its slot once by ID on delivery
+    private StockQuantities quantities;
+    // volatile as ensureCapacity() may replace the maps of an empty catalog
+    private volatile ConcurrentHashMap<Identity, Integer> indexById;
+    // batches currently in stock
+    private volatile ConcurrentHashMap<String, List<Product>> batchesByName;
+    private volatile ConcurrentHashMap<Identity, Product> productsById;
+    private transient Map<Product, Integer> view;
+
+    public StockCatalog() {
+        this.quantities = new StockQuantities();
+        this.indexById = new ConcurrentHashMap<>();
+        this.batchesByName = new ConcurrentHashMap<>();
+        this.productsById = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Sizes an empty catalog for the given number of batches, so a bulk delivery does not
+     * rehash its maps over and over. Does nothing once a batch was added. Must not run
+     * concurrently with {@link #add(Product, int)}.
+     */
+    public void ensureCapacity(int batches) {
+        if (this.indexById.isEmpty() && this.productsById.isEmpty()) {
+            this.indexById = new ConcurrentHashMap<>(batches);
+            this.batchesByName = new ConcurrentHashMap<>(batches);
+            this.productsById = new ConcurrentHashMap<>(batches);
+        }
+    }
+
+    public void add(Product product, int quantity) {
+        // compute on the batch's ID keeps adding and removeIfEmpty() atomic for the same batch
+        this.indexById.compute(product.getIdentity(), (id, index) -> {
+            if (index == null) {
+                index = this.quantities.allocate();
+            }
+            this.quantities.getAndAdd(index, quantity);
+            if (!this.productsById.containsKey(id)) {
+                // first delivery, or a refill after the batch was sold out: list it by name and ID
+                this.productsById.put(id, product);
+                this.batchesByName.computeIfAbsent(product.getName(), name -> new CopyOnWriteArrayList<>()).add(product);
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Atomically takes the given quantity of the batch out of stock.
+     * Returns false without changing anything when there is not enough of it.
+     */
+    public boolean tryReserve(Product product, int quantity) {
+        Integer index = this.indexById.get(product.getIdentity());
+        if (index == null || !this.quantities.tryTake(index, quantity)) {
+            return false;
+        }
+
+        if (this.quantities.get(index) == 0) {
+            removeIfEmpty(product);
+        }
+        return true;
+    }
+
+    /**
+     * Atomically takes as much of the batch as is available, at most the given quantity.
+     * Returns the quantity actually taken, 0 when the batch is sold out.
+     */
+    public int tryReserveUpTo(Product product, int maxQuantity) {
+        Integer index = this.indexById.get(product.getIdentity());
+        if (index == null || maxQuantity <= 0) {
+            return 0;
+        }
+
+        int taken = this.quantities.takeUpTo(index, maxQuantity);
+        if (taken > 0 && this.quantities.get(index) == 0) {
+            removeIfEmpty(product);
+        }
+        return taken;
+    }
+
+    /**
+     * Returns a previously reserved quantity back to stock.
+     */
+    public void release(Product product, int quantity) {
+        add(product, quantity);
+    }
+
+    /**
+     * Takes the whole batch out of stock, e.g. when it expires, and returns the quantity it had.
+     */
+    public int removeBatch(Product product) {
+        Integer index = this.indexById.get(product.getIdentity());
+        if (index == null) {
+            return 0;
+        }
+
+        int taken = this.quantities.takeUpTo(index, Integer.MAX_VALUE);
+        removeIfEmpty(product);
+        return taken;
+    }
+
+    private void removeIfEmpty(Product product) {
+        // the slot itself is kept, so a later refill of the batch reuses it
+        this.indexById.computeIfPresent(product.getIdentity(), (id, index) -> {
+            Product listed = this.productsById.get(id);
+            if (listed == null || this.quantities.get(index) != 0) {
+                return index;
+            }
+
+            this.productsById.remove(id);
+            this.batchesByName.computeIfPresent(listed.getName(), (name, batches) -> {
+                batches.remove(listed);
+                return batches.isEmpty() ? null : batches;
+            });
+            return index;
+        });
+    }
+
+    public List<Product> getBatches(String name) {
+        List<Product> batches = this.batchesByName.get(name);
+        return batches == null ? Collections.emptyList() : Collections.unmodifiableList(batches);
+    }
+
+    public Product getById(String id) {
+        Identity identity = IdentityRegistry.find(id);
+        return identity == null ? null : this.productsById.get(identity);
+    }
+
+    public Product getById(Identity id) {
+        return this.productsById.get(id);
+    }
+
+    public int getQuantity(Product product) {
+        Integer index = this.indexById.get(product.getIdentity());
+        return index == null ? 0 : this.quantities.get(index);
+    }
+
+    public int getTotalQuantity(String name) {
+        int total = 0;
+        for (Product batch : getBatches(name)) {
+            total += getQuantity(batch);
+        }
+        return total;
+    }
+
+    public boolean contains(String name) {
+        return this.batchesByName.containsKey(name);
+    }
+
+    public int size() {
+        return this.productsById.size();
+    }
+
+    /**
+     * Passes every batch in stock with its quantity to the consumer, without boxing the quantities.
+     */
+    public void forEachInStock(ObjIntConsumer<Product> consumer) {
+        for (Product product : this.productsById.values()) {
+            int quantity = getQuantity(product);
+            if (quantity > 0) {
+                consumer.accept(product, quantity);
+            }
+        }
+    }
+
+    /**
+     * Approximate heap size in bytes of the quantity slots.
+     */
+    public long getQuantityFootprint() {
+        return this.quantities.memoryFootprint();
+    }
+
+    public Map<Product, Integer> asMap() {
+        if (this.view == null) {
+            this.view = new QuantityView();
+        }
+        return this.view;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    // read-only live view of the batches in stock and their quantities
+    private class QuantityView extends AbstractMap<Product, Integer> {
+
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? getQuantity((Product) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Product product && productsById.containsKey(product.getIdentity());
+        }
+
+        @Override
+        public int size() {
+            return productsById.size();
+        }
+
+        @Override
+        public Set<Entry<Product, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Product, Integer>> iterator() {
+                    Iterator<Product> iterator = productsById.values().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Product, Integer> next() {
+                            Product product = iterator.next();
+                            return new SimpleImmutableEntry<>(product, getQuantity(product));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return productsById.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.productMarket.stocks;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock quantities kept in primitive {@code int} slots addressed by a dense index.
+ *
+ * <p>Slots live in fixed-size chunks, so the store grows without copying or moving
+ * the counters other threads are updating. Every update is a single atomic operation
+ * on the slot and nothing is boxed.
+ */
+public class StockQuantities implements Serializable {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile int[][] chunks;
+    private final AtomicInteger size;
+
+    public StockQuantities() {
+        this.chunks = new int[][]{new int[CHUNK_SIZE]};
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Reserves a new slot with quantity 0 and returns its index.
+     */
+    public int allocate() {
+        int index = this.size.getAndIncrement();
+        if ((index >>> CHUNK_BITS) >= this.chunks.length) {
+            grow(index >>> CHUNK_BITS);
+        }
+        return index;
+    }
+
+    private synchronized void grow(int chunkIndex) {
+        int[][] current = this.chunks;
+        if (chunkIndex < current.length) {
+            return;
+        }
+
+        int[][] grown = new int[Math.max(chunkIndex + 1, current.length * 2)][];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        for (int i = current.length; i < grown.length; i++) {
+            grown[i] = new int[CHUNK_SIZE];
+        }
+        this.chunks = grown;
+    }
+
+    public int get(int index) {
+        return (int) SLOT.getVolatile(chunk(index), index & CHUNK_MASK);
+    }
+
+    /**
+     * Atomically adds the delta to the slot and returns the previous quantity.
+     */
+    public int getAndAdd(int index, int delta) {
+        return (int) SLOT.getAndAdd(chunk(index), index & CHUNK_MASK, delta);
+    }
+
+    /**
+     * Atomically takes the quantity out of the slot.
+     * Returns false without changing anything when there is not enough.
+     */
+    public boolean tryTake(int index, int quantity) {
+        int[] chunk = chunk(index);
+        int offset = index & CHUNK_MASK;
+        int current;
+        do {
+            current = (int) SLOT.getVolatile(chunk, offset);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!SLOT.compareAndSet(chunk, offset, current, current - quantity));
+        return true;
+    }
+
+    /**
+     * Atomically takes as much as is available, at most the given quantity, and returns it.
+     */
+    public int takeUpTo(int index, int maxQuantity) {
+        int[] chunk = chunk(index);
+        int offset = index & CHUNK_MASK;
+        int current;
+        int taken;
+        do {
+            current = (int) SLOT.getVolatile(chunk, offset);
+            taken = Math.min(current, maxQuantity);
+            if (taken <= 0) {
+                return 0;
+            }
+        } while (!SLOT.compareAndSet(chunk, offset, current, current - taken));
+        return taken;
+    }
+
+    /**
+     * Passes every allocated slot with a non-zero quantity to the consumer.
+     */
+    public void forEach(QuantityConsumer consumer) {
+        int[][] chunks = this.chunks;
+        int size = Math.min(this.size.get(), chunks.length * CHUNK_SIZE);
+        for (int index = 0; index < size; index++) {
+            int quantity = (int) SLOT.getVolatile(chunks[index >>> CHUNK_BITS], index & CHUNK_MASK);
+            if (quantity != 0) {
+                consumer.accept(index, quantity);
+            }
+        }
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Approximate heap size of the store in bytes: array headers plus the slots themselves.
+     */
+    public long memoryFootprint() {
+        int[][] chunks = this.chunks;
+        return 16L + 4L * chunks.length + chunks.length * (16L + 4L * CHUNK_SIZE);
+    }
+
+    private int[] chunk(int index) {
+        return this.chunks[index >>> CHUNK_BITS];
+    }
+
+    public interface QuantityConsumer {
+        void accept(int index, int quantity);
+    }
+}
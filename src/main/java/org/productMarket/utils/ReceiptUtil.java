@@ -2,38 +2,46 @@ package org.productMarket.utils;
 
 import org.productMarket.products.Product;
 import org.productMarket.receipts.Receipt;
+import org.productMarket.writers.ReceiptRenderer;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class ReceiptUtil {
 
     public static void saveReceipt(Receipt receipt) {
         try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter("receipt_" + receipt.getSerialNumber() + ".txt"));
-
-            writer.write("Receipt serial number: " + receipt.getSerialNumber()+ "\n");
-            writer.write("Date of issue: " + receipt.getDateOfIssue()+ "\n");
-            writer.write("Cashier: \n" + receipt.getCashier()+ "\n");
-            writer.write("Products: \n");
-            for (Map.Entry<Product, Integer> productEntry : receipt.getProducts().entrySet()) {
-                Product product = productEntry.getKey();
-                int quantity = productEntry.getValue();
-
-                writer.write("\t" + quantity + "x " + product.getSellingPrice() + " " + product.getName() + " - " +
-                        product.getSellingPrice().multiply(BigDecimal.valueOf(quantity)) + "\n");
-            }
-            writer.write("\nTotal receipt price: " + receipt.getTotalPrice());
-
-            writer.close();
-
+            // formatReceipt() in UTF-8, the charset ReceiptReader reads, without building the text
+            ReceiptRenderer.writeUtf8(receipt, Path.of("receipt_" + receipt.getSerialNumber() + ".txt"));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
     }
 
+    public static String formatReceipt(Receipt receipt) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("Receipt serial number: ").append(receipt.getSerialNumber()).append("\n");
+        builder.append("Date of issue: ").append(receipt.getDateOfIssue()).append("\n");
+        builder.append("Cashier: \n").append(receipt.getCashier()).append("\n");
+        builder.append("Products: \n");
+        for (Map.Entry<Product, Integer> productEntry : receipt.getProducts().entrySet()) {
+            Product product = productEntry.getKey();
+            int quantity = productEntry.getValue();
+
+            BigDecimal unitPrice = receipt.getUnitPrice(product);
+
+            builder.append("\t").append(quantity).append("x ").append(unitPrice).append(" ").append(product.getName()).append(" - ")
+                    .append(unitPrice.multiply(BigDecimal.valueOf(quantity))).append("\n");
+        }
+        builder.append("\nTotal receipt price: ").append(receipt.getTotalPrice());
+
+        return builder.toString();
+    }
+
     public static void readReceipt(String fileName) {
         try {
             BufferedReader reader = new BufferedReader(new FileReader(fileName));
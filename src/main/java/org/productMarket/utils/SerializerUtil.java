@@ -1,20 +1,53 @@
 package org.productMarket.utils;
 
+import org.productMarket.codecs.ReceiptCodec;
+import org.productMarket.metrics.LatencyHistogram;
+import org.productMarket.metrics.MetricsRegistry;
+import org.productMarket.receipts.Receipt;
+
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class SerializerUtil {
 
+    // nanoseconds per call, in the global metrics registry
+    private static final LatencyHistogram javaWriteLatency = MetricsRegistry.global().histogram("serializer.latency", "format", "java", "operation", "write");
+    private static final LatencyHistogram javaReadLatency = MetricsRegistry.global().histogram("serializer.latency", "format", "java", "operation", "read");
+    private static final LatencyHistogram binaryWriteLatency = MetricsRegistry.global().histogram("serializer.latency", "format", "binary", "operation", "write");
+    private static final LatencyHistogram binaryReadLatency = MetricsRegistry.global().histogram("serializer.latency", "format", "binary", "operation", "read");
+
     public static <T> void serializeReceipt(String filePath, T item) throws IOException {
+        long start = System.nanoTime();
         try (FileOutputStream fos = new FileOutputStream(filePath);
              ObjectOutputStream oos = new ObjectOutputStream(fos)) {
             oos.writeObject(item);
         }
+        javaWriteLatency.recordSince(start);
     }
     public static <T extends Serializable> T deserializeReceipt(String filePath)
             throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
         try (FileInputStream fis = new FileInputStream(filePath);
              ObjectInputStream ois = new ObjectInputStream(fis)) {
             return (T) ois.readObject();
+        } finally {
+            javaReadLatency.recordSince(start);
+        }
+    }
+
+    public static void serializeReceiptBinary(String filePath, Receipt receipt) throws IOException {
+        long start = System.nanoTime();
+        Files.write(Path.of(filePath), ReceiptCodec.encode(receipt));
+        binaryWriteLatency.recordSince(start);
+    }
+
+    public static Receipt deserializeReceiptBinary(String filePath) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return ReceiptCodec.decode(Files.readAllBytes(Path.of(filePath)));
+        } finally {
+            binaryReadLatency.recordSince(start);
         }
     }
 }
@@ -0,0 +1,135 @@
+package org.productMarket.wallets;
+
+import org.productMarket.enums.WalletEntryType;
+import org.productMarket.exceptions.NegativeStackOfMoney;
+import org.productMarket.money.Money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Money which one or more customers pay from, e.g. a family card used at several cash
+ * desks at the same time.
+ *
+ * <p>A payment first reserves its whole amount with a single compare-and-set on the
+ * available balance, so two concurrent payments can never both spend the same money,
+ * and then commits or releases the reservation. No lock is taken. Every change is
+ * appended to the wallet's audit trail.
+ */
+public class Wallet implements Serializable {
+
+    // in cents, without the money currently reserved
+    private final AtomicLong available;
+    // the scale the balance is shown with: the money's own, widened by what is spent, see Money.scaleOf
+    private final AtomicInteger scale;
+    private final AtomicLong nextReservation;
+    private final AtomicLong nextSequence;
+    private final ConcurrentLinkedQueue<WalletEntry> entries;
+
+    public Wallet(BigDecimal money) throws NegativeStackOfMoney {
+        if (money == null) {
+            throw new NullPointerException("Money cannot be null!");
+        }
+        if (money.signum() < 0) {
+            throw new NegativeStackOfMoney("Money cannot be negative number!");
+        }
+        this.available = new AtomicLong();
+        this.scale = new AtomicInteger(Money.scaleOf(money));
+        this.nextReservation = new AtomicLong(1);
+        this.nextSequence = new AtomicLong(1);
+        this.entries = new ConcurrentLinkedQueue<>();
+        // rounded down, so the wallet never holds more than it was given
+        deposit(Money.toMinorDown(money));
+    }
+
+    /**
+     * Reserves the amount if the wallet has that much available, otherwise returns null.
+     */
+    public WalletReservation tryReserve(long amountMinor) {
+        checkAmount(amountMinor);
+        long current;
+        do {
+            current = this.available.get();
+            if (current < amountMinor) {
+                return null;
+            }
+        } while (!this.available.compareAndSet(current, current - amountMinor));
+
+        WalletReservation reservation = new WalletReservation(this, this.nextReservation.getAndIncrement(), amountMinor);
+        record(WalletEntryType.RESERVATION, reservation.getNumber(), amountMinor, current - amountMinor);
+        return reservation;
+    }
+
+    void committed(WalletReservation reservation) {
+        // reservations pay prices calculated in cents
+        this.scale.accumulateAndGet(Money.SCALE, Math::max);
+        // the money already left the available balance when it was reserved
+        record(WalletEntryType.COMMIT, reservation.getNumber(), reservation.getAmountMinor(), this.available.get());
+    }
+
+    void released(WalletReservation reservation) {
+        long after = this.available.addAndGet(reservation.getAmountMinor());
+        record(WalletEntryType.RELEASE, reservation.getNumber(), reservation.getAmountMinor(), after);
+    }
+
+    public void deposit(long amountMinor) {
+        checkAmount(amountMinor);
+        long after = this.available.addAndGet(amountMinor);
+        record(WalletEntryType.DEPOSIT, 0, amountMinor, after);
+    }
+
+    /**
+     * Takes the amount out without a reservation, even if the balance goes below zero.
+     */
+    public void withdraw(long amountMinor) {
+        checkAmount(amountMinor);
+        long after = this.available.addAndGet(-amountMinor);
+        record(WalletEntryType.WITHDRAWAL, 0, amountMinor, after);
+    }
+
+    public void withdraw(BigDecimal amount) {
+        withdraw(Money.toMinor(amount));
+        this.scale.accumulateAndGet(Money.scaleOf(amount), Math::max);
+    }
+
+    private static void checkAmount(long amountMinor) {
+        if (amountMinor < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative!");
+        }
+    }
+
+    private void record(WalletEntryType type, long reservation, long amountMinor, long availableAfterMinor) {
+        this.entries.add(new WalletEntry(this.nextSequence.getAndIncrement(), type, reservation, amountMinor, availableAfterMinor));
+    }
+
+    public long getAvailableMinor() {
+        return available.get();
+    }
+
+    public BigDecimal getAvailable() {
+        return Money.toBigDecimal(available.get(), scale.get());
+    }
+
+    /**
+     * The audit trail in the order the changes were recorded.
+     */
+    public List<WalletEntry> getEntries() {
+        List<WalletEntry> entries = new ArrayList<>(this.entries);
+        // concurrent changes may be appended slightly out of sequence
+        entries.sort(Comparator.comparingLong(WalletEntry::getSequence));
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return "Wallet{" +
+                "available=" + getAvailable() +
+                '}';
+    }
+}
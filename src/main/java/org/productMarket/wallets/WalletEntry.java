@@ -0,0 +1,64 @@
+package org.productMarket.wallets;
+
+import org.productMarket.enums.WalletEntryType;
+import org.productMarket.money.Money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * One change of a wallet in its audit trail.
+ */
+public class WalletEntry implements Serializable {
+
+    private final long sequence;
+    private final WalletEntryType type;
+    private final long reservation;
+    private final long amountMinor;
+    private final long availableAfterMinor;
+
+    public WalletEntry(long sequence, WalletEntryType type, long reservation, long amountMinor, long availableAfterMinor) {
+        this.sequence = sequence;
+        this.type = type;
+        this.reservation = reservation;
+        this.amountMinor = amountMinor;
+        this.availableAfterMinor = availableAfterMinor;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public WalletEntryType getType() {
+        return type;
+    }
+
+    // the number of the reservation the entry belongs to, 0 for deposits and withdrawals
+    public long getReservation() {
+        return reservation;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountMinor);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    // the available balance right after this change
+    public long getAvailableAfterMinor() {
+        return availableAfterMinor;
+    }
+
+    @Override
+    public String toString() {
+        return "WalletEntry{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", reservation=" + reservation +
+                ", amount=" + getAmount() +
+                ", availableAfter=" + Money.toBigDecimal(availableAfterMinor) +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+package org.productMarket.wallets;
+
+import org.productMarket.money.Money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Money set aside in a wallet for one payment. It is either committed, when the payment
+ * goes through, or released back to the wallet; whichever comes first settles it.
+ */
+public class WalletReservation implements Serializable {
+
+    private final Wallet wallet;
+    private final long number;
+    private final long amountMinor;
+    private final AtomicBoolean settled;
+
+    WalletReservation(Wallet wallet, long number, long amountMinor) {
+        this.wallet = wallet;
+        this.number = number;
+        this.amountMinor = amountMinor;
+        this.settled = new AtomicBoolean();
+    }
+
+    /**
+     * Spends the reserved money.
+     */
+    public void commit() {
+        settle();
+        this.wallet.committed(this);
+    }
+
+    /**
+     * Gives the reserved money back to the wallet.
+     */
+    public void release() {
+        settle();
+        this.wallet.released(this);
+    }
+
+    private void settle() {
+        if (!this.settled.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reservation " + this.number + " is already settled!");
+        }
+    }
+
+    public boolean isSettled() {
+        return settled.get();
+    }
+
+    public Wallet getWallet() {
+        return wallet;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toBigDecimal(amountMinor);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    @Override
+    public String toString() {
+        return "WalletReservation{" +
+                "number=" + number +
+                ", amount=" + getAmount() +
+                ", settled=" + settled.get() +
+                '}';
+    }
+}
@@ -0,0 +1,306 @@
+package org.productMarket.writers;
+
+import org.productMarket.enums.FlushPolicy;
+import org.productMarket.receipts.Receipt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists receipts on a background thread so checkout never waits for the disk.
+ * Receipts are queued in a bounded queue, written in batches into rolling segment
+ * files ({@code receipts_000001.seg}, ...) and forced to disk according to the
+ * {@link FlushPolicy}. Each record in a segment is a 4-byte length followed by the
+ * UTF-8 text of {@link org.productMarket.utils.ReceiptUtil#formatReceipt(Receipt)}.
+ */
+public class AsyncReceiptWriter implements ReceiptSink, Closeable {
+
+    private static final int MAX_BATCH_SIZE = 256;
+    // how often a caller waiting for queue space checks whether the worker failed
+    private static final long FAILURE_CHECK_MILLIS = 100;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final FlushPolicy flushPolicy;
+    private final long flushWindowNanos;
+    private final BlockingQueue<Object> queue;
+    private final Thread worker;
+    private final Object durableLock = new Object();
+
+    // used by the worker thread only
+    private final ReceiptRenderer renderer = new ReceiptRenderer(StandardCharsets.UTF_8);
+    private final ByteBuffer[] record = {ByteBuffer.allocateDirect(4), null};
+    private FileChannel segment;
+    private int segmentNumber;
+    private long lastForce;
+    private long enqueued;
+    private long written;
+    private long durable;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AsyncReceiptWriter(Path directory) throws IOException {
+        this(directory, 4096, 64 * 1024 * 1024, FlushPolicy.PER_BATCH, 0);
+    }
+
+    public AsyncReceiptWriter(Path directory, int queueCapacity, long segmentSize, FlushPolicy flushPolicy, long flushWindowMillis) throws IOException {
+        if (queueCapacity <= 0 || segmentSize <= 0) {
+            throw new IllegalArgumentException("Queue capacity and segment size must be positive numbers!");
+        }
+        if (flushPolicy == null) {
+            throw new NullPointerException("Flush policy cannot be null!");
+        }
+        if (flushPolicy == FlushPolicy.TIME_WINDOW && flushWindowMillis <= 0) {
+            throw new IllegalArgumentException("Flush window must be a positive number!");
+        }
+
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.flushPolicy = flushPolicy;
+        this.flushWindowNanos = TimeUnit.MILLISECONDS.toNanos(flushWindowMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.segmentNumber = lastSegmentNumber();
+        rollSegment();
+
+        this.worker = new Thread(this::run, "receipt-writer-" + directory.getFileName());
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues the receipt for writing. Blocks while the queue is full, which slows
+     * checkout down to the speed of the disk instead of running out of memory.
+     * Throws instead of waiting forever if the worker fails meanwhile.
+     */
+    @Override
+    public void save(Receipt receipt) {
+        checkState();
+        try {
+            while (!this.queue.offer(receipt, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkState();
+            }
+            countEnqueued();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing the receipt!", e);
+        }
+    }
+
+    /**
+     * Queues the receipt, waiting at most the given time for free space.
+     * Returns false if the queue stayed full.
+     */
+    public boolean trySave(Receipt receipt, long timeout, TimeUnit unit) throws InterruptedException {
+        checkState();
+        if (!this.queue.offer(receipt, timeout, unit)) {
+            return false;
+        }
+        countEnqueued();
+        return true;
+    }
+
+    /**
+     * Waits until every receipt queued before this call has been forced to disk.
+     */
+    public void flush() throws IOException {
+        long target;
+        synchronized (this.durableLock) {
+            target = this.enqueued;
+        }
+        // wake up a worker that is waiting for its time window
+        this.queue.offer(Flush.INSTANCE);
+
+        synchronized (this.durableLock) {
+            while (this.durable < target && this.failure == null) {
+                try {
+                    this.durableLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    public int getQueueSize() {
+        return this.queue.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        try {
+            // a failed worker no longer takes from the queue
+            while (!this.queue.offer(Shutdown.INSTANCE, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (this.failure != null) {
+                    break;
+                }
+            }
+            this.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    private void countEnqueued() {
+        synchronized (this.durableLock) {
+            this.enqueued++;
+        }
+    }
+
+    private void checkState() {
+        if (this.closed) {
+            throw new IllegalStateException("Receipt writer is closed!");
+        }
+        if (this.failure != null) {
+            throw new UncheckedIOException("Receipt writer failed!", this.failure);
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean running = true;
+        try {
+            while (running) {
+                Object first = this.flushPolicy == FlushPolicy.TIME_WINDOW
+                        ? this.queue.poll(this.flushWindowNanos, TimeUnit.NANOSECONDS)
+                        : this.queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    // group commit: everything that piled up while the last batch was written goes together
+                    this.queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                }
+
+                boolean forceNow = false;
+                for (Object item : batch) {
+                    if (item instanceof Receipt receipt) {
+                        write(receipt);
+                        if (this.flushPolicy == FlushPolicy.PER_RECEIPT) {
+                            force();
+                        }
+                    } else if (item == Flush.INSTANCE) {
+                        forceNow = true;
+                    } else if (item == Shutdown.INSTANCE) {
+                        running = false;
+                    }
+                }
+                batch.clear();
+
+                if (forceNow || !running || this.flushPolicy == FlushPolicy.PER_BATCH
+                        || System.nanoTime() - this.lastForce >= this.flushWindowNanos) {
+                    force();
+                }
+            }
+            this.segment.close();
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new IOException(e));
+        } catch (RuntimeException | Error e) {
+            fail(new IOException(e));
+            throw e;
+        }
+    }
+
+    private void write(Receipt receipt) throws IOException {
+        ByteBuffer text = this.renderer.render(receipt);
+        this.record[1] = text;
+        if (this.segment.position() > 0 && this.segment.position() + 4 + text.remaining() > this.segmentSize) {
+            force();
+            rollSegment();
+        }
+
+        // length prefix and text go out in one gather write, without copying the text
+        this.record[0].clear().putInt(text.remaining()).flip();
+        while (text.hasRemaining()) {
+            this.segment.write(this.record);
+        }
+        this.written++;
+    }
+
+    private void force() throws IOException {
+        if (this.durable < this.written) {
+            this.segment.force(false);
+        }
+        this.lastForce = System.nanoTime();
+
+        synchronized (this.durableLock) {
+            this.durable = this.written;
+            this.durableLock.notifyAll();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        if (this.segment != null) {
+            this.segment.close();
+        }
+        this.segmentNumber++;
+        this.segment = FileChannel.open(segmentPath(this.directory, this.segmentNumber),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private int lastSegmentNumber() throws IOException {
+        // continue after the segments of a previous run instead of appending to them
+        int last = 0;
+        try (var files = Files.list(this.directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("receipts_") && name.endsWith(".seg")) {
+                    last = Math.max(last, Integer.parseInt(name.substring(9, name.length() - 4)));
+                }
+            }
+        }
+        return last;
+    }
+
+    private void fail(IOException e) {
+        try {
+            this.segment.close();
+        } catch (IOException closing) {
+            e.addSuppressed(closing);
+        }
+        synchronized (this.durableLock) {
+            this.failure = e;
+            this.durableLock.notifyAll();
+        }
+    }
+
+    public static Path segmentPath(Path directory, int segmentNumber) {
+        return directory.resolve(String.format("receipts_%06d.seg", segmentNumber));
+    }
+
+    private enum Flush {
+        INSTANCE
+    }
+
+    private enum Shutdown {
+        INSTANCE
+    }
+}
@@ -0,0 +1,306 @@
+package org.productMarket.writers;
+
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.identities.Identity;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders receipts as the text of {@link org.productMarket.utils.ReceiptUtil#formatReceipt(Receipt)},
+ * encoded in a given charset, straight into a reusable direct buffer.
+ *
+ * <p>The constant parts of the text are encoded once. Numbers, dates and UUIDs are written
+ * as digits, and names go through one reused encoder, so a receipt priced in cents is
+ * rendered without building strings or {@link BigDecimal}s. Receipts priced with the
+ * products' own selling prices fall back to formatting those prices. A renderer is not
+ * thread-safe; {@link #writeUtf8(Receipt, Path)} borrows one from a small shared pool.
+ */
+public class ReceiptRenderer {
+
+    // at most this many pooled renderers with direct buffers, however many threads save receipts
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final ArrayBlockingQueue<ReceiptRenderer> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final AtomicInteger pooled = new AtomicInteger();
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final Charset charset;
+    private final CharsetEncoder encoder;
+    private final byte[] serialNumberLabel;
+    private final byte[] dateLabel;
+    private final byte[] cashierLabel;
+    private final byte[] nameLabel;
+    private final byte[] idLabel;
+    private final byte[] lineSeparator;
+    private final byte[] productsLabel;
+    private final byte[] totalLabel;
+    private final byte[] priceSeparator;
+    private final byte[] nameSeparator;
+    private final byte[] digits = new byte[20];
+    private final boolean direct;
+    private ByteBuffer buffer;
+    private CharBuffer chars = CharBuffer.allocate(64);
+
+    public ReceiptRenderer(Charset charset) {
+        this(charset, true);
+    }
+
+    private ReceiptRenderer(Charset charset, boolean direct) {
+        if (charset == null) {
+            throw new NullPointerException("Charset cannot be null!");
+        }
+        String ascii = "0123456789abcdef.-+:x \t\n";
+        if (!Arrays.equals(ascii.getBytes(charset), ascii.getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("Receipts can only be rendered in ASCII compatible charsets, not " + charset + "!");
+        }
+        this.charset = charset;
+        this.direct = direct;
+        this.buffer = allocate(1024);
+        // replace what the charset cannot encode, like String.getBytes() and FileWriter do
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.serialNumberLabel = encode("Receipt serial number: ");
+        this.dateLabel = encode("\nDate of issue: ");
+        this.cashierLabel = encode("\nCashier: \n");
+        this.nameLabel = encode("\tName: ");
+        this.idLabel = encode("\tID: ");
+        this.lineSeparator = encode(System.lineSeparator());
+        this.productsLabel = encode("Products: \n");
+        this.totalLabel = encode("\nTotal receipt price: ");
+        this.priceSeparator = encode("x ");
+        this.nameSeparator = encode(" - ");
+    }
+
+    private byte[] encode(String constant) {
+        return constant.getBytes(this.charset);
+    }
+
+    /**
+     * Writes the receipt's text in UTF-8 to the file with a pooled renderer. When every pooled
+     * renderer is busy, the call renders into a heap buffer of its own instead of allocating
+     * another direct one.
+     */
+    public static void writeUtf8(Receipt receipt, Path file) throws IOException {
+        ReceiptRenderer renderer = pool.poll();
+        if (renderer == null) {
+            renderer = pooled.getAndUpdate(count -> Math.min(count + 1, POOL_SIZE)) < POOL_SIZE
+                    ? new ReceiptRenderer(StandardCharsets.UTF_8)
+                    : new ReceiptRenderer(StandardCharsets.UTF_8, false);
+        }
+        try {
+            renderer.write(receipt, file);
+        } finally {
+            if (renderer.direct) {
+                pool.offer(renderer);
+            }
+        }
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Renders the receipt and returns the buffer holding its text, ready to be read. The
+     * buffer is reused, so it is only valid until the next call.
+     */
+    public ByteBuffer render(Receipt receipt) {
+        this.buffer.clear();
+
+        put(this.serialNumberLabel);
+        putLong(receipt.getSerialNumber());
+        put(this.dateLabel);
+        putDate(receipt.getDateOfIssue());
+        put(this.cashierLabel);
+        putCashier(receipt.getCashier());
+        put((byte) '\n');
+        put(this.productsLabel);
+
+        boolean pricedInCents = receipt.hasUnitPrices();
+        for (Map.Entry<Product, Integer> line : receipt.getProducts().entrySet()) {
+            Product product = line.getKey();
+            int quantity = line.getValue();
+
+            put((byte) '\t');
+            putLong(quantity);
+            put(this.priceSeparator);
+            if (pricedInCents) {
+                long unitPrice = receipt.getUnitPriceMinor(product);
+                putCents(unitPrice);
+                put((byte) ' ');
+                putText(product.getName());
+                put(this.nameSeparator);
+                putCents(unitPrice * quantity);
+            } else {
+                BigDecimal unitPrice = receipt.getUnitPrice(product);
+                putText(unitPrice.toString());
+                put((byte) ' ');
+                putText(product.getName());
+                put(this.nameSeparator);
+                putText(unitPrice.multiply(BigDecimal.valueOf(quantity)).toString());
+            }
+            put((byte) '\n');
+        }
+
+        put(this.totalLabel);
+        putCents(receipt.getTotalPriceMinor());
+        return this.buffer.flip();
+    }
+
+    /**
+     * Writes the receipt's text to the file, replacing what it held.
+     */
+    public void write(Receipt receipt, Path file) throws IOException {
+        ByteBuffer text = render(receipt);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (text.hasRemaining()) {
+                channel.write(text);
+            }
+        }
+    }
+
+    private void putCashier(Cashier cashier) {
+        // the text of Cashier.toString()
+        put(this.nameLabel);
+        putText(cashier.getName());
+        put(this.lineSeparator);
+        put(this.idLabel);
+        Identity id = cashier.getIdentity();
+        if (id.isUuid()) {
+            putUuid(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        } else {
+            putText(id.toString());
+        }
+        put(this.lineSeparator);
+    }
+
+    private void putDate(LocalDate date) {
+        // LocalDate.toString() only pads years with digits between 0 and 9999
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            putText(date.toString());
+            return;
+        }
+        putPadded(date.getYear(), 4);
+        put((byte) '-');
+        putPadded(date.getMonthValue(), 2);
+        put((byte) '-');
+        putPadded(date.getDayOfMonth(), 2);
+    }
+
+    // the text of BigDecimal.valueOf(cents, 2).toString()
+    private void putCents(long cents) {
+        if (cents < 0) {
+            put((byte) '-');
+            if (cents == Long.MIN_VALUE) {
+                putText(BigDecimal.valueOf(cents, 2).negate().toString());
+                return;
+            }
+            cents = -cents;
+        }
+        putLong(cents / 100);
+        put((byte) '.');
+        putPadded((int) (cents % 100), 2);
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                putText(Long.toString(value));
+                return;
+            }
+            put((byte) '-');
+            value = -value;
+        }
+        int start = this.digits.length;
+        do {
+            this.digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        ensureRemaining(this.digits.length - start);
+        this.buffer.put(this.digits, start, this.digits.length - start);
+    }
+
+    private void putPadded(int value, int width) {
+        ensureRemaining(width);
+        for (int i = width - 1; i >= 0; i--) {
+            this.buffer.put(this.buffer.position() + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        this.buffer.position(this.buffer.position() + width);
+    }
+
+    // the text of UUID.toString(), lower case 8-4-4-4-12 hex digits
+    private void putUuid(long mostSignificantBits, long leastSignificantBits) {
+        putHex(mostSignificantBits >>> 32, 8);
+        put((byte) '-');
+        putHex(mostSignificantBits >>> 16, 4);
+        put((byte) '-');
+        putHex(mostSignificantBits, 4);
+        put((byte) '-');
+        putHex(leastSignificantBits >>> 48, 4);
+        put((byte) '-');
+        putHex(leastSignificantBits, 12);
+    }
+
+    private void putHex(long value, int digits) {
+        ensureRemaining(digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            this.buffer.put(this.buffer.position() + i, HEX_DIGITS[(int) (value & 0xF)]);
+            value >>>= 4;
+        }
+        this.buffer.position(this.buffer.position() + digits);
+    }
+
+    private void putText(String text) {
+        int length = text.length();
+        if (this.chars.capacity() < length) {
+            this.chars = CharBuffer.allocate(Math.max(length, this.chars.capacity() * 2));
+        }
+        text.getChars(0, length, this.chars.array(), 0);
+        this.chars.clear().limit(length);
+
+        ensureRemaining((int) Math.ceil(length * (double) this.encoder.maxBytesPerChar()));
+        this.encoder.reset();
+        this.encoder.encode(this.chars, this.buffer, true);
+        this.encoder.flush(this.buffer);
+    }
+
+    private void put(byte[] constant) {
+        ensureRemaining(constant.length);
+        this.buffer.put(constant);
+    }
+
+    private void put(byte value) {
+        ensureRemaining(1);
+        this.buffer.put(value);
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (this.buffer.remaining() < bytes) {
+            ByteBuffer grown = allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + bytes));
+            grown.put(this.buffer.flip());
+            this.buffer = grown;
+        }
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+}
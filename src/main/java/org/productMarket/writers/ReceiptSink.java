@@ -0,0 +1,8 @@
+package org.productMarket.writers;
+
+import org.productMarket.receipts.Receipt;
+
+public interface ReceiptSink {
+
+    void save(Receipt receipt);
+}
@@ -0,0 +1,152 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.enums.FlushPolicy;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NegativeSellingPrice;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.utils.ReceiptUtil;
+import org.productMarket.writers.AsyncReceiptWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AsyncReceiptWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Cashier cashier;
+    private Map<Product, Integer> products;
+
+    @Before
+    public void createProducts() throws NegativeDeliveryPrice, NegativeSellingPrice {
+        cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        Product product = new EdibleProduct("Banana", BigDecimal.valueOf(3), LocalDate.now().plusDays(10));
+        product.setSellingPrice(BigDecimal.valueOf(5));
+
+        products = new HashMap<>();
+        products.put(product, 2);
+    }
+
+    @Test
+    public void testReceiptsAreWrittenToSegment() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        List<String> expected = new ArrayList<>();
+
+        try (AsyncReceiptWriter writer = new AsyncReceiptWriter(directory)) {
+            for (int i = 0; i < 10; i++) {
+                Receipt receipt = new Receipt(cashier, products);
+                expected.add(ReceiptUtil.formatReceipt(receipt));
+                writer.save(receipt);
+            }
+        }
+
+        Assert.assertEquals(expected, readRecords(AsyncReceiptWriter.segmentPath(directory, 1)));
+    }
+
+    @Test
+    public void testFlushMakesQueuedReceiptsDurable() throws IOException {
+        Path directory = folder.getRoot().toPath();
+
+        try (AsyncReceiptWriter writer = new AsyncReceiptWriter(directory, 16, 1024 * 1024, FlushPolicy.TIME_WINDOW, 60_000)) {
+            writer.save(new Receipt(cashier, products));
+            writer.save(new Receipt(cashier, products));
+            writer.flush();
+
+            Assert.assertEquals(2, readRecords(AsyncReceiptWriter.segmentPath(directory, 1)).size());
+        }
+    }
+
+    @Test
+    public void testSegmentsRollWhenFull() throws IOException {
+        Path directory = folder.getRoot().toPath();
+
+        try (AsyncReceiptWriter writer = new AsyncReceiptWriter(directory, 16, 256, FlushPolicy.PER_RECEIPT, 0)) {
+            for (int i = 0; i < 5; i++) {
+                writer.save(new Receipt(cashier, products));
+            }
+        }
+
+        int records = 0;
+        for (int i = 1; Files.exists(AsyncReceiptWriter.segmentPath(directory, i)); i++) {
+            records += readRecords(AsyncReceiptWriter.segmentPath(directory, i)).size();
+        }
+        Assert.assertTrue(Files.exists(AsyncReceiptWriter.segmentPath(directory, 2)));
+        Assert.assertEquals(5, records);
+    }
+
+    @Test
+    public void testCashDeskHandsReceiptToSink() throws IOException {
+        Path directory = folder.getRoot().toPath();
+
+        try (AsyncReceiptWriter writer = new AsyncReceiptWriter(directory)) {
+            CashDesk cashDesk = new CashDesk(cashier, writer);
+            cashDesk.generateReceipt(products);
+            writer.flush();
+
+            Assert.assertEquals(1, readRecords(AsyncReceiptWriter.segmentPath(directory, 1)).size());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSaveAfterCloseThrows() throws IOException {
+        AsyncReceiptWriter writer = new AsyncReceiptWriter(folder.getRoot().toPath());
+        writer.close();
+
+        writer.save(new Receipt(cashier, products));
+    }
+
+    @Test(timeout = 10_000)
+    public void testSaveThrowsOnceTheWriterFailed() throws IOException {
+        Path directory = folder.getRoot().toPath().resolve("receipts");
+        AsyncReceiptWriter writer = new AsyncReceiptWriter(directory, 1, 1, FlushPolicy.PER_RECEIPT, 0);
+        // the second receipt needs a new segment, which cannot be created any more
+        Files.delete(AsyncReceiptWriter.segmentPath(directory, 1));
+        Files.delete(directory);
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                writer.save(new Receipt(cashier, products));
+            }
+            Assert.fail("Saving should fail once the writer failed");
+        } catch (UncheckedIOException e) {
+            Assert.assertNotNull(e.getCause());
+        }
+        try {
+            writer.close();
+            Assert.fail("Closing should report the failure");
+        } catch (IOException expected) {
+            // the writer failed, as it should
+        }
+    }
+
+    private static List<String> readRecords(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<String> records = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            byte[] text = new byte[buffer.getInt()];
+            buffer.get(text);
+            records.add(new String(text, StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+}
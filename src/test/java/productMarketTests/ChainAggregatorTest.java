@@ -0,0 +1,165 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.chains.ChainAggregator;
+import org.productMarket.chains.ChainReport;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.exceptions.NegativeStackOfMoney;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ChainAggregatorTest {
+
+    private Map<String, Market> markets;
+    private Map<String, CashDesk> cashDesks;
+
+    @Before
+    public void createMarkets() throws Exception {
+        markets = new HashMap<>();
+        cashDesks = new HashMap<>();
+        for (int i = 1; i <= 5; i++) {
+            Market market = new Market(20, 30, 5, 10);
+            Cashier cashier = new Cashier("Cashier " + i, BigDecimal.valueOf(1000));
+            market.addCashier(cashier);
+            market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30)), 10 * i);
+            market.addDeliveredProduct(new NonEdibleProduct("Soap", BigDecimal.valueOf(4), LocalDate.now().plusDays(300)), 5);
+            markets.put("store-" + i, market);
+            cashDesks.put("store-" + i, new CashDesk(cashier, receipt -> { }));
+        }
+    }
+
+    private void sell(String storeId, String productName, int quantity) throws NegativeStackOfMoney {
+        markets.get(storeId).checkout(Map.of(productName, quantity), cashDesks.get(storeId), new Customer("Ann", BigDecimal.valueOf(1000)));
+    }
+
+    private static void assertSameReport(ChainReport expected, ChainReport actual) {
+        Assert.assertEquals(expected.getProfitPerStore(), actual.getProfitPerStore());
+        Assert.assertEquals(expected.getStockByName(), actual.getStockByName());
+        Assert.assertEquals(expected.getSoldByName(), actual.getSoldByName());
+    }
+
+    @Test
+    public void testRollsUpTheStoresWhenTheyAreAdded() throws Exception {
+        sell("store-1", "Banana", 4);
+        ChainAggregator aggregator = new ChainAggregator();
+        aggregator.addStores(markets);
+
+        ChainReport report = aggregator.getReport();
+        Assert.assertEquals(5, report.getStores().size());
+        Assert.assertEquals(146, report.getStock("Banana"));
+        Assert.assertEquals(25, report.getStock("Soap"));
+        Assert.assertEquals(4L, (long) report.getSoldByName().get("Banana"));
+        Assert.assertEquals(markets.get("store-1").calculateProfit(), report.getStore("store-1").getProfit());
+
+        BigDecimal totalProfit = BigDecimal.ZERO;
+        for (Market market : markets.values()) {
+            totalProfit = totalProfit.add(market.calculateProfit());
+        }
+        Assert.assertEquals(0, totalProfit.compareTo(report.getTotalProfit()));
+    }
+
+    @Test
+    public void testRunningTotalsFollowTheMarkets() throws Exception {
+        ChainAggregator aggregator = new ChainAggregator();
+        aggregator.addStores(markets);
+
+        sell("store-2", "Banana", 3);
+        sell("store-3", "Soap", 2);
+        sell("store-3", "Banana", 7);
+        markets.get("store-4").addDeliveredProduct(new EdibleProduct("Milk", BigDecimal.valueOf(1.5), LocalDate.now().plusDays(1)), 8);
+        markets.get("store-5").addCashier(new Cashier("Eve", BigDecimal.valueOf(800)));
+        markets.get("store-4").rollOverDay(LocalDate.now().plusDays(2));
+
+        ChainReport report = aggregator.getReport();
+        Assert.assertEquals(0, report.getStock("Milk"));
+        Assert.assertEquals(140, report.getStock("Banana"));
+        Assert.assertEquals(0, markets.get("store-5").calculateProfit().compareTo(report.getStore("store-5").getProfit()));
+        assertSameReport(aggregator.recompute(), report);
+    }
+
+    @Test
+    public void testTopSellingProducts() throws Exception {
+        markets.get("store-1").addDeliveredProduct(new EdibleProduct("Apple", BigDecimal.valueOf(1), LocalDate.now().plusDays(30)), 20);
+        ChainAggregator aggregator = new ChainAggregator();
+        aggregator.addStores(markets);
+
+        sell("store-1", "Apple", 12);
+        sell("store-2", "Banana", 6);
+        sell("store-3", "Banana", 5);
+        sell("store-4", "Soap", 1);
+
+        Map<String, Long> top = aggregator.getReport().getTopSellingProducts(2);
+        Assert.assertEquals(List.of("Apple", "Banana"), List.copyOf(top.keySet()));
+        Assert.assertEquals(11L, (long) top.get("Banana"));
+    }
+
+    @Test
+    public void testRemovedStoreLeavesTheTotals() throws Exception {
+        ChainAggregator aggregator = new ChainAggregator();
+        aggregator.addStores(markets);
+        sell("store-1", "Banana", 2);
+
+        Assert.assertSame(markets.get("store-1"), aggregator.removeStore("store-1"));
+        sell("store-1", "Banana", 2);
+
+        ChainReport report = aggregator.getReport();
+        Assert.assertEquals(4, report.getStores().size());
+        Assert.assertEquals(140, report.getStock("Banana"));
+        Assert.assertNull(report.getSoldByName().get("Banana"));
+        assertSameReport(aggregator.recompute(), report);
+    }
+
+    @Test
+    public void testSalesWhileStoresAreAddedAreCountedOnce() throws Exception {
+        for (Market market : markets.values()) {
+            market.addDeliveredProduct(new EdibleProduct("Apple", BigDecimal.valueOf(1), LocalDate.now().plusDays(30)), 500);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(markets.size());
+        CountDownLatch started = new CountDownLatch(markets.size());
+        for (String storeId : markets.keySet()) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        sell(storeId, "Apple", 1);
+                    }
+                } catch (NegativeStackOfMoney e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        started.await();
+        ChainAggregator aggregator = new ChainAggregator();
+        aggregator.addStores(markets);
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        ChainReport report = aggregator.getReport();
+        Assert.assertEquals(2500L, (long) report.getSoldByName().get("Apple"));
+        Assert.assertEquals(0, report.getStock("Apple"));
+        assertSameReport(aggregator.recompute(), report);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStoreCannotBeAddedTwice() {
+        ChainAggregator aggregator = new ChainAggregator();
+        aggregator.addStore("store-1", markets.get("store-1"));
+        aggregator.addStore("store-1", markets.get("store-1"));
+    }
+}
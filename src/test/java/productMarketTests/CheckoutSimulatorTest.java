@@ -0,0 +1,53 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.enums.BasketSizeDistribution;
+import org.productMarket.simulations.CheckoutSimulator;
+import org.productMarket.simulations.LoadProfile;
+import org.productMarket.simulations.SimulationResult;
+
+import java.util.List;
+
+public class CheckoutSimulatorTest {
+
+    @Test
+    public void testEveryCustomerChecksOut() throws InterruptedException {
+        LoadProfile profile = new LoadProfile(2_000, 0, 50, 4, BasketSizeDistribution.GEOMETRIC, 5);
+        SimulationResult result = new CheckoutSimulator(profile).run();
+
+        Assert.assertEquals(2_000, result.getCompleted());
+        Assert.assertEquals(0, result.getNotSold());
+        Assert.assertEquals(2_000, result.getLatency().getCount());
+        Assert.assertTrue(result.getThroughput() > 0);
+        Assert.assertTrue(result.getLatency().getP99() >= result.getCheckoutLatency().getP50());
+        Assert.assertFalse(result.isSaturated());
+    }
+
+    @Test
+    public void testArrivalRateLimitsThroughput() throws InterruptedException {
+        LoadProfile profile = new LoadProfile(200, 2_000, 20, 2, BasketSizeDistribution.FIXED, 3);
+        SimulationResult result = new CheckoutSimulator(profile).run();
+
+        Assert.assertEquals(200, result.getCompleted());
+        // 200 customers at 2000 per second take about 100ms to arrive
+        Assert.assertTrue(result.getElapsedNanos() > 50_000_000L);
+    }
+
+    @Test
+    public void testSaturationSearchRaisesTheRate() throws InterruptedException {
+        LoadProfile profile = new LoadProfile(300, 1, 20, 2, BasketSizeDistribution.UNIFORM, 3);
+        List<SimulationResult> results = CheckoutSimulator.findSaturation(profile, 2_000, 4, 3);
+
+        Assert.assertFalse(results.isEmpty());
+        for (int i = 1; i < results.size(); i++) {
+            Assert.assertEquals(results.get(i - 1).getProfile().getArrivalRate() * 4, results.get(i).getProfile().getArrivalRate(), 1e-6);
+            Assert.assertFalse(results.get(i - 1).isSaturated());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProfile() {
+        new LoadProfile(0, 10, 20, 2, BasketSizeDistribution.FIXED, 3);
+    }
+}
@@ -0,0 +1,209 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.enums.RoutingPolicy;
+import org.productMarket.markets.Market;
+import org.productMarket.metrics.HistogramSnapshot;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.schedulers.DeskScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class DeskSchedulerTest {
+
+    private Market market;
+    private Customer customer;
+
+    @Before
+    public void createMarket() throws Exception {
+        market = new Market(50, 5, 3, 10);
+        for (int i = 0; i < 10; i++) {
+            market.addDeliveredProduct(new EdibleProduct("Product " + i, BigDecimal.valueOf(1 + i), LocalDate.now().plusDays(30)), 100_000);
+        }
+        customer = new Customer("Customer", BigDecimal.valueOf(1_000_000));
+    }
+
+    // a desk whose cashier needs the given time to scan each item
+    private static CashDesk desk(long nanosPerItem) {
+        return new CashDesk(new Cashier("Cashier", BigDecimal.valueOf(1000)), receipt -> {
+            int items = receipt.getProducts().values().stream().mapToInt(Integer::intValue).sum();
+            LockSupport.parkNanos(items * nanosPerItem);
+        });
+    }
+
+    /**
+     * Three desks scan an item in 1 ms and one slow desk in 4 ms. 500 customers with 1 to 10
+     * items arrive at 300 per second, about half of what the desks can serve together.
+     */
+    private HistogramSnapshot simulate(RoutingPolicy policy) throws Exception {
+        DeskScheduler scheduler = new DeskScheduler(market, policy);
+        long millisecond = TimeUnit.MILLISECONDS.toNanos(1);
+        for (long nanosPerItem : new long[]{millisecond, millisecond, millisecond, 4 * millisecond}) {
+            scheduler.openDesk(desk(nanosPerItem));
+        }
+
+        // the same customers arrive at the same times for both policies
+        Random random = new Random(42);
+        List<CompletableFuture<CheckoutResult>> results = new ArrayList<>();
+        long arrival = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            arrival += (long) (-Math.log(1 - random.nextDouble()) * 1e9 / 300);
+            Map<String, Integer> basket = Map.of("Product " + random.nextInt(10), 1 + random.nextInt(10));
+            LockSupport.parkNanos(arrival - System.nanoTime());
+            results.add(scheduler.submit(basket, customer));
+        }
+        for (CompletableFuture<CheckoutResult> result : results) {
+            Assert.assertTrue(result.get(60, TimeUnit.SECONDS).isCompleted());
+        }
+        scheduler.close();
+        return scheduler.getWaitTime();
+    }
+
+    @Test
+    public void testLeastLoadedRoutingHasLowerTailWaitThanRandom() throws Exception {
+        HistogramSnapshot random = simulate(RoutingPolicy.RANDOM);
+        HistogramSnapshot leastLoaded = simulate(RoutingPolicy.LEAST_LOADED);
+
+        Assert.assertEquals(500, leastLoaded.getCount());
+        Assert.assertTrue("p99 wait " + leastLoaded.getP99() + " ns should be below " + random.getP99() + " ns",
+                leastLoaded.getP99() < random.getP99());
+    }
+
+    @Test
+    public void testClosedDeskTakesNoNewCustomers() throws Exception {
+        DeskScheduler scheduler = new DeskScheduler(market, RoutingPolicy.LEAST_LOADED);
+        CashDesk first = desk(0);
+        CashDesk second = desk(0);
+        scheduler.openDesk(first);
+        scheduler.openDesk(second);
+
+        scheduler.closeDesk(first);
+        Assert.assertEquals(1, scheduler.getOpenDesks());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(scheduler.submit(Map.of("Product 1", 1), customer).get(10, TimeUnit.SECONDS).isCompleted());
+        }
+
+        Assert.assertEquals(0, first.getThroughput().getCheckouts());
+        Assert.assertEquals(20, second.getThroughput().getCheckouts());
+        Assert.assertTrue(market.getCashDesks().contains(first));
+        scheduler.close();
+        Assert.assertNull(second.getCurrentShift());
+    }
+
+    @Test
+    public void testClosingDeskDoesNotStealCustomers() throws Exception {
+        DeskScheduler scheduler = new DeskScheduler(market, RoutingPolicy.LEAST_LOADED);
+        CountDownLatch closingServing = new CountDownLatch(1);
+        CountDownLatch releaseClosing = new CountDownLatch(1);
+        CountDownLatch releaseOpen = new CountDownLatch(1);
+        CashDesk closing = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> {
+            closingServing.countDown();
+            awaitQuietly(releaseClosing);
+        });
+        CashDesk open = new CashDesk(new Cashier("Maria", BigDecimal.valueOf(1000)), receipt -> awaitQuietly(releaseOpen));
+
+        // the first desk is closed while it serves its last customer
+        scheduler.openDesk(closing);
+        CompletableFuture<CheckoutResult> last = scheduler.submit(Map.of("Product 1", 1), customer);
+        Assert.assertTrue(closingServing.await(10, TimeUnit.SECONDS));
+        scheduler.closeDesk(closing);
+
+        // meanwhile customers queue at the other desk
+        scheduler.openDesk(open);
+        List<CompletableFuture<CheckoutResult>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(scheduler.submit(Map.of("Product 1", 1), customer));
+        }
+        releaseClosing.countDown();
+        Assert.assertTrue(last.get(10, TimeUnit.SECONDS).isCompleted());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (closing.getCurrentShift() != null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        releaseOpen.countDown();
+        for (CompletableFuture<CheckoutResult> result : queued) {
+            Assert.assertTrue(result.get(10, TimeUnit.SECONDS).isCompleted());
+        }
+        scheduler.close();
+        Assert.assertEquals(1, closing.getThroughput().getCheckouts());
+        Assert.assertEquals(3, open.getThroughput().getCheckouts());
+    }
+
+    @Test
+    public void testQueuedCustomersFailWhenTheWorkerDies() throws Exception {
+        DeskScheduler scheduler = new DeskScheduler(market, RoutingPolicy.LEAST_LOADED);
+        CountDownLatch serving = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        scheduler.openDesk(new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> {
+            serving.countDown();
+            awaitQuietly(fail);
+            throw new AssertionError("The printer caught fire");
+        }));
+        List<CompletableFuture<CheckoutResult>> results = new ArrayList<>();
+        results.add(scheduler.submit(Map.of("Product 1", 1), customer));
+        Assert.assertTrue(serving.await(10, TimeUnit.SECONDS));
+        results.add(scheduler.submit(Map.of("Product 1", 1), customer));
+        results.add(scheduler.submit(Map.of("Product 1", 1), customer));
+
+        fail.countDown();
+
+        for (CompletableFuture<CheckoutResult> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                Assert.fail("The checkout should have failed");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof AssertionError || e.getCause() instanceof IllegalStateException);
+            }
+        }
+        scheduler.close();
+        Assert.assertEquals(0, scheduler.getQueuedCustomers());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSubmitWithoutOpenDeskThrows() throws Exception {
+        DeskScheduler scheduler = new DeskScheduler(market, RoutingPolicy.LEAST_LOADED);
+        scheduler.submit(Map.of("Product 1", 1), customer);
+    }
+
+    @Test
+    public void testCloseServesQueuedCustomers() throws Exception {
+        DeskScheduler scheduler = new DeskScheduler(market, RoutingPolicy.LEAST_LOADED);
+        scheduler.openDesk(desk(TimeUnit.MILLISECONDS.toNanos(1)));
+        List<CompletableFuture<CheckoutResult>> results = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            results.add(scheduler.submit(Map.of("Product 2", 2), customer));
+        }
+
+        scheduler.close();
+
+        for (CompletableFuture<CheckoutResult> result : results) {
+            Assert.assertTrue(result.isDone());
+        }
+        Assert.assertEquals(0, scheduler.getQueuedCustomers());
+    }
+}
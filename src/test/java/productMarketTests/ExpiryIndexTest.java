@@ -0,0 +1,63 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.stocks.ExpiryIndex;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class ExpiryIndexTest {
+
+    private final LocalDate today = LocalDate.of(2030, 1, 1);
+    private ExpiryIndex index;
+    private Product banana;
+    private Product apple;
+    private Product soap;
+
+    @Before
+    public void createIndex() throws NegativeDeliveryPrice {
+        index = new ExpiryIndex();
+        banana = new EdibleProduct("Banana", BigDecimal.valueOf(3), today.plusDays(2));
+        apple = new EdibleProduct("Apple", BigDecimal.valueOf(2), today.plusDays(2));
+        soap = new NonEdibleProduct("Soap", BigDecimal.valueOf(1), today.plusDays(300));
+
+        index.add(banana);
+        index.add(apple);
+        index.add(soap);
+    }
+
+    @Test
+    public void testAddSameBatchTwiceIndexesItOnce() {
+        index.add(banana);
+
+        Assert.assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testGetExpiringBetween() {
+        List<Product> expiring = index.getExpiringBetween(today.toEpochDay(), today.plusDays(3).toEpochDay());
+
+        Assert.assertEquals(2, expiring.size());
+        Assert.assertTrue(expiring.contains(banana));
+        Assert.assertTrue(expiring.contains(apple));
+        Assert.assertTrue(index.getExpiringBetween(today.plusDays(3).toEpochDay(), today.toEpochDay()).isEmpty());
+    }
+
+    @Test
+    public void testRemoveExpiringBefore() {
+        Assert.assertTrue(index.removeExpiringBefore(today.plusDays(2).toEpochDay()).isEmpty());
+
+        List<Product> expired = index.removeExpiringBefore(today.plusDays(3).toEpochDay());
+
+        Assert.assertEquals(2, expired.size());
+        Assert.assertEquals(1, index.size());
+        Assert.assertTrue(index.removeExpiringBefore(today.plusDays(3).toEpochDay()).isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.serials.FileSerialNumberAllocator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+public class FileSerialNumberAllocatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNumbersIncrease() throws IOException {
+        try (FileSerialNumberAllocator allocator = new FileSerialNumberAllocator(folder.getRoot().toPath().resolve("serials"), 10)) {
+            for (long expected = 1; expected <= 25; expected++) {
+                Assert.assertEquals(expected, allocator.next());
+            }
+        }
+    }
+
+    @Test
+    public void testRestartNeverReusesNumbers() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("serials");
+        long last;
+        try (FileSerialNumberAllocator allocator = new FileSerialNumberAllocator(file, 100)) {
+            allocator.next();
+            last = allocator.next();
+        }
+
+        try (FileSerialNumberAllocator allocator = new FileSerialNumberAllocator(file, 100)) {
+            // the rest of the first block is skipped
+            Assert.assertEquals(101, allocator.next());
+            Assert.assertTrue(allocator.next() > last);
+        }
+    }
+
+    @Test
+    public void testAllocatorsSharingAFileGetDistinctNumbers() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("serials");
+        try (FileSerialNumberAllocator first = new FileSerialNumberAllocator(file, 7);
+             FileSerialNumberAllocator second = new FileSerialNumberAllocator(file, 7)) {
+            Set<Long> numbers = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                FileSerialNumberAllocator allocator = t % 2 == 0 ? first : second;
+                tasks.add(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        Assert.assertTrue(numbers.add(allocator.next()));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            executor.shutdown();
+
+            Assert.assertEquals(8000, numbers.size());
+        }
+    }
+
+    @Test
+    public void testReserveUpTo() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("serials");
+        try (FileSerialNumberAllocator allocator = new FileSerialNumberAllocator(file, 10)) {
+            allocator.next();
+            allocator.reserveUpTo(500);
+            Assert.assertEquals(501, allocator.next());
+
+            // numbers already below the current one change nothing
+            allocator.reserveUpTo(3);
+            Assert.assertEquals(502, allocator.next());
+        }
+
+        Set<Long> afterRestart = new HashSet<>();
+        try (FileSerialNumberAllocator allocator = new FileSerialNumberAllocator(file, 10)) {
+            afterRestart.add(allocator.next());
+        }
+        Assert.assertTrue(afterRestart.iterator().next() > 502);
+    }
+}
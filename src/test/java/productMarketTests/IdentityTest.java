@@ -0,0 +1,97 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.identities.Identity;
+import org.productMarket.identities.IdentityRegistry;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.Product;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public class IdentityTest {
+
+    @Test
+    public void testUuidIdsKeepTheirStringForm() {
+        String id = UUID.randomUUID().toString();
+        Identity identity = Identity.of(id);
+
+        Assert.assertTrue(identity.isUuid());
+        Assert.assertEquals(id, identity.toString());
+        Assert.assertSame(identity, Identity.of(id));
+        Assert.assertSame(identity, IdentityRegistry.get(identity.getHandle()));
+    }
+
+    @Test
+    public void testOtherIdsAreKeptAsText() {
+        Identity identity = Identity.of("SKU-42");
+        // upper case is a valid UUID, but not the canonical form
+        Identity upperCase = Identity.of("6F9619FF-8B86-D011-B42D-00C04FC964FF");
+
+        Assert.assertFalse(identity.isUuid());
+        Assert.assertEquals("SKU-42", identity.toString());
+        Assert.assertFalse(upperCase.isUuid());
+        Assert.assertEquals("6F9619FF-8B86-D011-B42D-00C04FC964FF", upperCase.toString());
+        Assert.assertNotEquals(upperCase, Identity.of("6f9619ff-8b86-d011-b42d-00c04fc964ff"));
+    }
+
+    @Test
+    public void testHandlesAreDense() {
+        Identity first = Identity.random();
+        Identity second = Identity.random();
+
+        Assert.assertNotEquals(first, second);
+        Assert.assertNotEquals(first.getHandle(), second.getHandle());
+        Assert.assertTrue(first.getHandle() >= 0 && first.getHandle() < IdentityRegistry.size());
+        Assert.assertTrue(second.getHandle() >= 0 && second.getHandle() < IdentityRegistry.size());
+        Assert.assertSame(second, IdentityRegistry.get(second.getHandle()));
+        Assert.assertNull(IdentityRegistry.get(IdentityRegistry.size()));
+        Assert.assertNull(IdentityRegistry.find(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    public void testDroppedIdentitiesGiveTheirHandlesBack() {
+        Identity kept = Identity.random();
+        int handles = IdentityRegistry.size();
+        // IDs made and dropped, like the products of a long simulation
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                Identity.random();
+            }
+            System.gc();
+        }
+
+        Assert.assertTrue("handles grew to " + IdentityRegistry.size(), IdentityRegistry.size() - handles < 100_000);
+        Assert.assertSame(kept, IdentityRegistry.get(kept.getHandle()));
+        Assert.assertSame(kept, IdentityRegistry.find(kept.toString()));
+    }
+
+    @Test
+    public void testProductsWithTheSameIdAreEqual() throws Exception {
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30));
+        Product restored = new EdibleProduct(banana.getID(), "Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30));
+
+        Assert.assertEquals(banana, restored);
+        Assert.assertEquals(banana.hashCode(), restored.hashCode());
+        Assert.assertSame(banana.getIdentity(), restored.getIdentity());
+    }
+
+    @Test
+    public void testDeserializedIdentityIsInterned() throws Exception {
+        Identity identity = Identity.random();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(identity);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assert.assertSame(identity, in.readObject());
+        }
+    }
+}
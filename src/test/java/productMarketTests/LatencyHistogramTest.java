@@ -0,0 +1,63 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.metrics.HistogramSnapshot;
+import org.productMarket.metrics.LatencyHistogram;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+
+        Assert.assertEquals(0, snapshot.getCount());
+        Assert.assertEquals(0, snapshot.getP99());
+        Assert.assertEquals(0, snapshot.getMean(), 0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(50, snapshot.getCount());
+        Assert.assertEquals(25, snapshot.getP50());
+        Assert.assertEquals(50, snapshot.getMax());
+        Assert.assertEquals(25.5, snapshot.getMean(), 0.001);
+    }
+
+    @Test
+    public void testPercentilesStayWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertWithin(50_000_000, snapshot.getP50());
+        assertWithin(90_000_000, snapshot.getP90());
+        assertWithin(99_000_000, snapshot.getP99());
+        assertWithin(99_900_000, snapshot.getP999());
+        Assert.assertEquals(100_000_000, snapshot.getMax());
+    }
+
+    @Test
+    public void testExtremeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(2, snapshot.getCount());
+        Assert.assertEquals(0, snapshot.getP50());
+        Assert.assertEquals(Long.MAX_VALUE, snapshot.getP99());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assert.assertTrue("expected about " + expected + " but was " + actual, Math.abs(actual - expected) <= expected * 0.03);
+    }
+}
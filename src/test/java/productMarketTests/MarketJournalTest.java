@@ -0,0 +1,265 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.exceptions.*;
+import org.productMarket.journals.MarketJournal;
+import org.productMarket.journals.MarketRecovery;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.ReceiptHistory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MarketJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private Market market;
+    private Cashier cashier;
+    private CashDesk cashDesk;
+
+    @Before
+    public void createMarket() throws NegativeProductMarkup, NegativeDays, NegativeDiscountValue {
+        directory = folder.getRoot().toPath();
+        market = newMarket();
+        cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        cashDesk = new CashDesk(cashier, receipt -> { });
+    }
+
+    private static Market newMarket() throws NegativeProductMarkup, NegativeDays, NegativeDiscountValue {
+        return new Market(20, 30, 5, 10);
+    }
+
+    private void deliverAndSell() throws Exception {
+        market.addCashier(cashier);
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30)), 10);
+        market.addDeliveredProduct(new NonEdibleProduct("Soap", BigDecimal.valueOf(4), LocalDate.now().plusDays(300)), 5);
+
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("Banana", 3);
+        basket.put("Soap", 1);
+        market.checkout(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100)));
+    }
+
+    private static void assertSameState(Market expected, Market actual) {
+        Assert.assertEquals(0, expected.getIncome().compareTo(actual.getIncome()));
+        Assert.assertEquals(0, expected.getExpenses().compareTo(actual.getExpenses()));
+        Assert.assertEquals(expected.getCountReceipts(), actual.getCountReceipts());
+        Assert.assertEquals(expected.getProductsInStock(), actual.getProductsInStock());
+        Assert.assertEquals(cashierIds(expected), cashierIds(actual));
+        Assert.assertEquals(expected.getEdibleProductsMarkup(), actual.getEdibleProductsMarkup(), 0);
+        Assert.assertEquals(expected.getDiscount(), actual.getDiscount(), 0);
+    }
+
+    @Test
+    public void testRecoverFromJournal() throws Exception {
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            deliverAndSell();
+            market.setDiscount(15);
+        }
+
+        Market recovered = MarketRecovery.recover(directory, newMarket());
+
+        assertSameState(market, recovered);
+        Assert.assertEquals(15, recovered.getDiscount(), 0);
+        Assert.assertEquals(7, recovered.getStockCatalog().getTotalQuantity("Banana"));
+        Assert.assertEquals(market.getReceipts().get(0).getSerialNumber(), recovered.getReceipts().get(0).getSerialNumber());
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndJournalTail() throws Exception {
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            deliverAndSell();
+            market.writeSnapshot();
+
+            Map<String, Integer> basket = new HashMap<>();
+            basket.put("Banana", 2);
+            market.checkout(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100)));
+        }
+
+        Assert.assertEquals(1, listFiles(".snapshot").size());
+        Assert.assertEquals(1, listFiles(".journal").size());
+
+        Market recovered = MarketRecovery.recover(directory, newMarket());
+
+        assertSameState(market, recovered);
+        Assert.assertEquals(5, recovered.getStockCatalog().getTotalQuantity("Banana"));
+        Assert.assertEquals(2, recovered.getCountReceipts());
+    }
+
+    @Test
+    public void testRecoverBulkDelivery() throws Exception {
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30));
+        Product soap = new NonEdibleProduct("Soap", BigDecimal.valueOf(4), LocalDate.now().plusDays(300));
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            market.addDeliveredProducts(new Product[]{banana, soap}, new int[]{10, 5});
+        }
+
+        Market recovered = MarketRecovery.recover(directory, newMarket());
+
+        assertSameState(market, recovered);
+        Assert.assertEquals(banana.getSellingPrice(), recovered.getStockCatalog().getById(banana.getIdentity()).getSellingPrice());
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("Banana", 3);
+        basket.put("Soap", 1);
+        Assert.assertNotNull(recovered.sellProducts(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100))));
+        Assert.assertEquals(7, recovered.getStockCatalog().getTotalQuantity("Banana"));
+    }
+
+    @Test
+    public void testSaleIsUndoneWhenTheJournalFails() throws Exception {
+        Customer customer = new Customer("Ivan", BigDecimal.valueOf(100));
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("Banana", 3);
+        MarketJournal journal = MarketJournal.open(directory, false);
+        market.attachJournal(journal);
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30)), 10);
+        // the journal can no longer be written
+        journal.close();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                if (i == 0) {
+                    market.checkout(basket, cashDesk, customer);
+                } else {
+                    market.sellProducts(basket, cashDesk, customer);
+                }
+                Assert.fail("The sale should fail with the journal");
+            } catch (UncheckedIOException expected) {
+                // nothing was sold
+            }
+            Assert.assertEquals(0, new BigDecimal(100).compareTo(customer.getMoney()));
+            Assert.assertEquals(10, market.getStockCatalog().getTotalQuantity("Banana"));
+            Assert.assertEquals(0, market.getCountReceipts());
+        }
+    }
+
+    @Test
+    public void testJournalContinuesAfterReopen() throws Exception {
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            deliverAndSell();
+        }
+        try (MarketJournal journal = MarketJournal.open(directory, true)) {
+            market.attachJournal(journal);
+            market.addDeliveredProduct(new EdibleProduct("Apple", BigDecimal.valueOf(1), LocalDate.now().plusDays(30)), 4);
+            Assert.assertEquals(5, journal.getLastSequence());
+        }
+
+        assertSameState(market, MarketRecovery.recover(directory, newMarket()));
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws Exception {
+        Product apple = new EdibleProduct("Apple", BigDecimal.valueOf(1), LocalDate.now().plusDays(30));
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            deliverAndSell();
+            market.addDeliveredProduct(apple, 4);
+        }
+
+        // cut the last record in half, as a crash in the middle of a write would
+        Path journalFile = listFiles(".journal").get(0);
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        Market recovered = MarketRecovery.recover(directory, newMarket());
+        Assert.assertFalse(recovered.getStockCatalog().contains("Apple"));
+        Assert.assertEquals(1, recovered.getCountReceipts());
+
+        // reopening cuts the torn record off, so new events follow the last valid one
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            Assert.assertEquals(4, journal.getLastSequence());
+            recovered.attachJournal(journal);
+            recovered.addDeliveredProduct(apple, 4);
+        }
+
+        assertSameState(market, MarketRecovery.recover(directory, newMarket()));
+    }
+
+    @Test
+    public void testRecoverDayRollover() throws Exception {
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            deliverAndSell();
+            market.rollOverDay(LocalDate.now().plusDays(31));
+        }
+
+        Market recovered = MarketRecovery.recover(directory, newMarket());
+
+        assertSameState(market, recovered);
+        Assert.assertFalse(recovered.getStockCatalog().contains("Banana"));
+        Assert.assertEquals(market.getToday(), recovered.getToday());
+    }
+
+    @Test
+    public void testRecoverWithoutFilesReturnsEmptyMarket() throws Exception {
+        Market empty = newMarket();
+        Assert.assertSame(empty, MarketRecovery.recover(directory.resolve("missing"), empty));
+    }
+
+    private static Set<String> cashierIds(Market market) {
+        return market.getCashiers().stream().map(Cashier::getId).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testSnapshotDeletesHistoryFilesOnlyPrunedSnapshotsPointInto() throws Exception {
+        Path histories = folder.newFolder("histories").toPath();
+        ReceiptHistory first = new ReceiptHistory(1, histories);
+        market = new Market(20, 30, 5, 10, first);
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            market.attachJournal(journal);
+            deliverAndSell();
+            market.writeSnapshot();
+            market.writeSnapshot();
+        }
+        first.close();
+        Assert.assertTrue(Files.exists(first.getFile()));
+
+        // a market with a new history takes over the journal, the old file is dropped with its snapshot
+        ReceiptHistory second = new ReceiptHistory(1, histories);
+        Market next = new Market(20, 30, 5, 10, second);
+        try (MarketJournal journal = MarketJournal.open(directory, false)) {
+            next.attachJournal(journal);
+            next.writeSnapshot();
+        }
+
+        Assert.assertFalse(Files.exists(first.getFile()));
+        Assert.assertTrue(Files.exists(second.getFile()));
+        Assert.assertEquals(1, listFiles(".history").size());
+    }
+
+    private List<Path> listFiles(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).collect(Collectors.toList());
+        }
+    }
+}
@@ -3,18 +3,28 @@ package productMarketTests;
 import org.junit.Assert;
 import org.junit.Test;
 import org.productMarket.cashiers.Cashier;
+import org.productMarket.checkouts.CheckoutLine;
+import org.productMarket.checkouts.CheckoutResult;
 import org.productMarket.counters.CashDesk;
 import org.productMarket.customers.Customer;
+import org.productMarket.enums.CheckoutStatus;
+import org.productMarket.enums.LineStatus;
 import org.productMarket.exceptions.*;
 import org.productMarket.markets.Market;
 import org.productMarket.products.EdibleProduct;
 import org.productMarket.products.Product;
 import org.productMarket.receipts.Receipt;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class MarketTest {
 
@@ -231,6 +241,153 @@ public class MarketTest {
         Assert.assertEquals(1, (int) market.getProductsInStock().get(product2));
     }
 
+    @Test
+    public void testSellProductsFindsProductsByName() throws NegativeDays, NegativeProductMarkup, NegativeDiscountValue, NegativeDeliveryPrice, NonSellableExpiredProduct, InvalidQuantityOfProduct, NegativeSellingPrice, NegativeStackOfMoney {
+        Market market = new Market(50, 5, 3, 10);
+        CashDesk cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)));
+        Customer customer = new Customer("Ivan", BigDecimal.valueOf(100));
+
+        Product product1 = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30));
+        Product product2 = new EdibleProduct("Apple", BigDecimal.valueOf(4), LocalDate.now().plusDays(30));
+
+        market.addDeliveredProduct(product1, 5);
+        market.addDeliveredProduct(product2, 2);
+
+        Map<String, Integer> shoppingList = new HashMap<>();
+        shoppingList.put("Banana", 2);
+        shoppingList.put("Apple", 2);
+        shoppingList.put("Tomato", 1);
+
+        Receipt receipt = market.sellProducts(shoppingList, cashDesk, customer);
+
+        Assert.assertEquals(2, receipt.getProducts().size());
+        Assert.assertEquals(3, (int) market.getProductsInStock().get(product1));
+        Assert.assertFalse(market.getProductsInStock().containsKey(product2));
+        Assert.assertEquals(new BigDecimal("18.00"), market.getIncome());
+    }
+
+    @Test
+    public void testConcurrentSellProductsNeverOversells() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        Product product = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30));
+        market.addDeliveredProduct(product, 20);
+
+        int desks = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(desks);
+        List<Future<Receipt>> results = new ArrayList<>();
+        for (int i = 0; i < desks; i++) {
+            CashDesk cashDesk = new CashDesk(new Cashier("Cashier " + i, BigDecimal.valueOf(1000)));
+            for (int j = 0; j < 10; j++) {
+                Customer customer = new Customer("Customer " + i + j, BigDecimal.valueOf(100));
+                results.add(executor.submit(() -> market.sellProducts(Map.of("Banana", 1), cashDesk, customer)));
+            }
+        }
+
+        int sold = 0;
+        for (Future<Receipt> result : results) {
+            Receipt receipt = result.get();
+            sold += receipt.getProducts().values().stream().mapToInt(Integer::intValue).sum();
+            new File("receipt_" + receipt.getSerialNumber() + ".txt").delete();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(20, sold);
+        Assert.assertFalse(market.getProductsInStock().containsKey(product));
+        Assert.assertEquals(40, market.getCountReceipts());
+        Assert.assertEquals(0, new BigDecimal("60.00").compareTo(market.getIncome()));
+    }
+
+    @Test
+    public void testCheckoutSellsBasketAcrossBatches() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        CashDesk cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        Customer customer = new Customer("Ivan", BigDecimal.valueOf(100));
+
+        Product banana1 = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30));
+        Product banana2 = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(60));
+        market.addDeliveredProduct(banana1, 2);
+        market.addDeliveredProduct(banana2, 5);
+
+        CheckoutResult result = market.checkout(Map.of("Banana", 4), cashDesk, customer);
+
+        Assert.assertEquals(CheckoutStatus.COMPLETED, result.getStatus());
+        Assert.assertEquals(new BigDecimal("12.00"), result.getTotalPrice());
+        Assert.assertEquals(4, result.getReceipt().getProducts().values().stream().mapToInt(Integer::intValue).sum());
+        Assert.assertEquals(3, market.getStockCatalog().getTotalQuantity("Banana"));
+        Assert.assertEquals(new BigDecimal("88.00"), customer.getMoney());
+        Assert.assertEquals(0, new BigDecimal("12").compareTo(market.getIncome()));
+        Assert.assertEquals(1, market.getCountReceipts());
+    }
+
+    @Test
+    public void testCheckoutReportsUnavailableAndPartialLines() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        CashDesk cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        Customer customer = new Customer("Ivan", BigDecimal.valueOf(100));
+
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30));
+        Product apple = new EdibleProduct("Apple", BigDecimal.valueOf(4), LocalDate.now().plusDays(30));
+        market.addDeliveredProduct(banana, 5);
+        market.addDeliveredProduct(apple, 1);
+
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("Banana", 2);
+        basket.put("Apple", 3);
+        basket.put("Tomato", 1);
+        CheckoutResult result = market.checkout(basket, cashDesk, customer);
+
+        Assert.assertEquals(CheckoutStatus.COMPLETED, result.getStatus());
+        Assert.assertEquals(2, result.getUnsoldLines().size());
+        for (CheckoutLine line : result.getUnsoldLines()) {
+            if (line.getProductName().equals("Apple")) {
+                Assert.assertEquals(LineStatus.PARTIAL, line.getStatus());
+                Assert.assertEquals(1, line.getAvailableQuantity());
+            } else {
+                Assert.assertEquals(LineStatus.UNAVAILABLE, line.getStatus());
+            }
+        }
+        Assert.assertEquals(1, (int) market.getProductsInStock().get(apple));
+        Assert.assertEquals(3, (int) market.getProductsInStock().get(banana));
+    }
+
+    @Test
+    public void testCheckoutWithInsufficientFundsSellsNothing() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        CashDesk cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        Customer customer = new Customer("Ivan", BigDecimal.valueOf(10));
+
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30));
+        Product apple = new EdibleProduct("Apple", BigDecimal.valueOf(4), LocalDate.now().plusDays(30));
+        market.addDeliveredProduct(banana, 5);
+        market.addDeliveredProduct(apple, 5);
+
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("Banana", 2);
+        basket.put("Apple", 1);
+        CheckoutResult result = market.checkout(basket, cashDesk, customer);
+
+        Assert.assertEquals(CheckoutStatus.INSUFFICIENT_FUNDS, result.getStatus());
+        Assert.assertNull(result.getReceipt());
+        Assert.assertEquals(new BigDecimal("12.00"), result.getTotalPrice());
+        Assert.assertEquals(5, (int) market.getProductsInStock().get(banana));
+        Assert.assertEquals(5, (int) market.getProductsInStock().get(apple));
+        Assert.assertEquals(BigDecimal.valueOf(10), customer.getMoney());
+        Assert.assertEquals(0, market.getCountReceipts());
+    }
+
+    @Test
+    public void testCheckoutWithNothingAvailable() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        CashDesk cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        Customer customer = new Customer("Ivan", BigDecimal.valueOf(10));
+
+        CheckoutResult result = market.checkout(Map.of("Tomato", 1), cashDesk, customer);
+
+        Assert.assertEquals(CheckoutStatus.NOTHING_AVAILABLE, result.getStatus());
+        Assert.assertFalse(result.isCompleted());
+        Assert.assertTrue(market.getReceipts().isEmpty());
+    }
+
     @Test
     public void testCheckProductsAvailability() throws NegativeDays, NegativeProductMarkup, NegativeDiscountValue, NegativeDeliveryPrice, NonSellableExpiredProduct, InvalidQuantityOfProduct, NegativeSellingPrice {
         Market market = new Market(10, 5, 3, 10);
@@ -314,4 +471,80 @@ public class MarketTest {
 
         Assert.assertTrue(market.getCashDesks().contains(cashDesk));
     }
+
+    @Test
+    public void testRollOverDayDiscountsProductsEnteringTheDiscountWindow() throws Exception {
+        Market market = new Market(10, 5, 3, 10);
+        Product fresh = new EdibleProduct("Banana", BigDecimal.valueOf(10), LocalDate.now().plusDays(5));
+        Product lasting = new EdibleProduct("Apple", BigDecimal.valueOf(10), LocalDate.now().plusDays(30));
+        market.addDeliveredProduct(fresh, 2);
+        market.addDeliveredProduct(lasting, 2);
+        Assert.assertEquals(0, BigDecimal.valueOf(11).compareTo(fresh.getSellingPrice()));
+
+        market.rollOverDay(LocalDate.now().plusDays(3));
+        // discounted once when it enters the window, not again on later days
+        market.rollOverDay(LocalDate.now().plusDays(4));
+
+        Assert.assertEquals(0, BigDecimal.valueOf(9.9).compareTo(fresh.getSellingPrice()));
+        Assert.assertEquals(0, BigDecimal.valueOf(11).compareTo(lasting.getSellingPrice()));
+        Assert.assertEquals(LocalDate.now().plusDays(4), market.getToday());
+    }
+
+    @Test
+    public void testRollOverDayRemovesExpiredProducts() throws Exception {
+        Market market = new Market(10, 5, 3, 10);
+        Product expiring = new EdibleProduct("Banana", BigDecimal.valueOf(10), LocalDate.now().plusDays(5));
+        Product lasting = new EdibleProduct("Apple", BigDecimal.valueOf(10), LocalDate.now().plusDays(30));
+        market.addDeliveredProduct(expiring, 2);
+        market.addDeliveredProduct(lasting, 2);
+
+        Map<Product, Integer> expired = market.rollOverDay(LocalDate.now().plusDays(6));
+
+        Assert.assertEquals(1, expired.size());
+        Assert.assertEquals(2, (int) expired.get(expiring));
+        Assert.assertFalse(market.getProductsInStock().containsKey(expiring));
+        Assert.assertTrue(market.getProductsInStock().containsKey(lasting));
+        Assert.assertTrue(market.rollOverDay(LocalDate.now().plusDays(7)).isEmpty());
+    }
+
+    @Test(expected = NonSellableExpiredProduct.class)
+    public void testAddProductExpiredAfterRollOverThrows() throws Exception {
+        Market market = new Market(10, 5, 3, 10);
+        market.rollOverDay(LocalDate.now().plusDays(10));
+
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(10), LocalDate.now().plusDays(5)), 2);
+    }
+
+    @Test
+    public void testChangingMarkupRepricesTheStock() throws Exception {
+        Market market = new Market(10, 5, 3, 10);
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(10), LocalDate.now().plusDays(30));
+        market.addDeliveredProduct(banana, 5);
+
+        market.setEdibleProductsMarkup(50);
+        Cashier cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        CheckoutResult result = market.checkout(Map.of("Banana", 2), new CashDesk(cashier, receipt -> { }), new Customer("Ann", BigDecimal.valueOf(100)));
+
+        Assert.assertEquals(0, BigDecimal.valueOf(15).compareTo(market.getSellingPrice(banana)));
+        Assert.assertEquals(0, BigDecimal.valueOf(30).compareTo(result.getReceipt().getTotalPrice()));
+        Assert.assertEquals(0, BigDecimal.valueOf(15).compareTo(result.getReceipt().getUnitPrice(banana)));
+    }
+
+    @Test
+    public void testSameProductIsPricedByEachMarket() throws Exception {
+        Market cheap = new Market(10, 5, 3, 10);
+        Market expensive = new Market(40, 5, 3, 10);
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(10), LocalDate.now().plusDays(30));
+        cheap.addDeliveredProduct(banana, 5);
+        expensive.addDeliveredProduct(banana, 5);
+
+        Cashier cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        CashDesk cashDesk = new CashDesk(cashier, receipt -> { });
+        Receipt cheapReceipt = cheap.checkout(Map.of("Banana", 1), cashDesk, new Customer("Ann", BigDecimal.valueOf(100))).getReceipt();
+        Receipt expensiveReceipt = expensive.checkout(Map.of("Banana", 1), cashDesk, new Customer("Ann", BigDecimal.valueOf(100))).getReceipt();
+
+        Assert.assertEquals(0, BigDecimal.valueOf(11).compareTo(cheapReceipt.getTotalPrice()));
+        Assert.assertEquals(0, BigDecimal.valueOf(14).compareTo(expensiveReceipt.getTotalPrice()));
+        Assert.assertEquals(0, BigDecimal.valueOf(11).compareTo(cheap.getIncome()));
+    }
 }
@@ -0,0 +1,119 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.markets.Market;
+import org.productMarket.metrics.HistogramSnapshot;
+import org.productMarket.metrics.MetricsRegistry;
+import org.productMarket.metrics.MetricsSnapshot;
+import org.productMarket.products.EdibleProduct;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void testInstrumentsAreSharedByNameAndTags() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        registry.counter("sales", "desk", "1").increment();
+        registry.counter("sales", "desk", "1").add(2);
+        registry.counter("sales", "desk", "2").increment();
+        registry.histogram("latency").record(10);
+        registry.gauge("stock", () -> 42);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        Assert.assertEquals(3, snapshot.getCounter("sales", "desk", "1"));
+        Assert.assertEquals(1, snapshot.getCounter("sales", "desk", "2"));
+        Assert.assertEquals(1, snapshot.getHistogram("latency").getCount());
+        Assert.assertEquals(42, (long) snapshot.getGauges().get("stock"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddNumberOfTagsThrows() {
+        new MetricsRegistry().counter("sales", "desk");
+    }
+
+    @Test
+    public void testMarketIsInstrumentedPerCashDesk() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        Market market = new Market(10, 5, 3, 10);
+        market.setMetricsRegistry(registry);
+        Cashier cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        CashDesk cashDesk = new CashDesk(cashier, receipt -> { });
+        market.addCashDesk(cashDesk);
+
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30)), 10);
+        market.addDeliveredProduct(new EdibleProduct("Apple", BigDecimal.valueOf(1), LocalDate.now().plusDays(30)), 10);
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("Banana", 1);
+        basket.put("Apple", 2);
+        market.checkout(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100)));
+        market.sellProducts(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100)));
+
+        String desk = String.valueOf(cashDesk.getNumber());
+        MetricsSnapshot snapshot = registry.snapshot();
+        Assert.assertEquals(2, snapshot.getCounter("market.deliveries"));
+        Assert.assertEquals(2, snapshot.getCounter("market.receipts", "desk", desk, "cashier", cashier.getId()));
+        HistogramSnapshot latency = snapshot.getHistogram("market.checkout.latency", "desk", desk, "cashier", cashier.getId());
+        Assert.assertEquals(2, latency.getCount());
+        Assert.assertTrue(latency.getMax() > 0);
+        Assert.assertEquals(2, snapshot.getHistogram("market.basket.size", "desk", desk, "cashier", cashier.getId()).getP50());
+        Assert.assertEquals(2, snapshot.getHistogram("cashdesk.save.latency", "desk", desk, "cashier", cashier.getId()).getCount());
+        String store = String.valueOf(market.getNumber());
+        Assert.assertEquals(2, (long) snapshot.getGauge("market.receipts.count", "market", store));
+        Assert.assertEquals(2, (long) snapshot.getGauge("market.stock.batches", "market", store));
+
+        // a new cashier at the desk is recorded under its own tags
+        Cashier maria = new Cashier("Maria", BigDecimal.valueOf(1000));
+        cashDesk.changeCashier(maria);
+        market.checkout(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100)));
+        Assert.assertEquals(1, registry.snapshot().getCounter("market.receipts", "desk", desk, "cashier", maria.getId()));
+    }
+
+    @Test
+    public void testMarketsSharingARegistryKeepTheirOwnGauges() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        Market first = new Market(20, 30, 5, 10);
+        Market second = new Market(20, 30, 5, 10);
+        first.setMetricsRegistry(registry);
+        second.setMetricsRegistry(registry);
+
+        first.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30)), 10);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        Assert.assertEquals(1, (long) snapshot.getGauge("market.stock.batches", "market", String.valueOf(first.getNumber())));
+        Assert.assertEquals(0, (long) snapshot.getGauge("market.stock.batches", "market", String.valueOf(second.getNumber())));
+    }
+
+    @Test
+    public void testRegistryIsExposedOverJmx() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("sales").add(5);
+        registry.histogram("latency").record(100);
+
+        ObjectName name = registry.registerMBean("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            TabularData counters = (TabularData) server.getAttribute(name, "Counters");
+            CompositeData sales = counters.get(new Object[]{"sales"});
+            Assert.assertEquals(5L, sales.get("value"));
+
+            TabularData histograms = (TabularData) server.getAttribute(name, "Histograms");
+            Assert.assertEquals(100L, histograms.get(new Object[]{"latency.max"}).get("value"));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.money.Money;
+import org.productMarket.money.Percentage;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+public class MoneyTest {
+
+    @Test
+    public void testToMinorRoundsHalfUp() {
+        Assert.assertEquals(235, Money.toMinor(new BigDecimal("2.345")));
+        Assert.assertEquals(234, Money.toMinor(new BigDecimal("2.344")));
+        Assert.assertEquals(1200, Money.toMinor(BigDecimal.valueOf(12)));
+    }
+
+    @Test
+    public void testToBigDecimalUsesCurrencyScale() {
+        Assert.assertEquals(new BigDecimal("4.50"), Money.toBigDecimal(450));
+    }
+
+    @Test
+    public void testToBigDecimalKeepsTheGivenScale() {
+        Assert.assertEquals(BigDecimal.valueOf(2000), Money.toBigDecimal(200000, 0));
+        Assert.assertEquals(new BigDecimal("4.5"), Money.toBigDecimal(450, 1));
+        Assert.assertEquals(new BigDecimal("18.00"), Money.toBigDecimal(1800, 2));
+        // cents are never dropped
+        Assert.assertEquals(new BigDecimal("4.55"), Money.toBigDecimal(455, 0));
+        Assert.assertEquals(new BigDecimal("-0.05"), Money.toBigDecimal(-5, 1));
+    }
+
+    @Test
+    public void testScaleOfIsCappedAtCurrencyScale() {
+        Assert.assertEquals(0, Money.scaleOf(BigDecimal.valueOf(2000)));
+        Assert.assertEquals(1, Money.scaleOf(BigDecimal.valueOf(2.5)));
+        Assert.assertEquals(2, Money.scaleOf(new BigDecimal("0.075")));
+        Assert.assertEquals(0, Money.scaleOf(new BigDecimal("2E+3")));
+    }
+
+    @Test
+    public void testPercentageMatchesBigDecimalPricing() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] percentages = {50, 5, 12.5, 33.3, 0.75, 15, 99.99};
+
+        for (double percent : percentages) {
+            Percentage percentage = Percentage.of(percent);
+            for (int i = 0; i < 10_000; i++) {
+                long minor = random.nextLong(1, 10_000_000);
+                BigDecimal expected = Money.toBigDecimal(minor).multiply(BigDecimal.valueOf(percent)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+
+                Assert.assertEquals(Money.toMinor(expected), percentage.applyTo(minor));
+            }
+        }
+    }
+
+    @Test
+    public void testNonTerminatingPercentageMatchesBigDecimalPricing() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] percentages = {100.0 / 3, 0.1 + 0.2, 200.0 / 7, 1e-20, 123_456.789};
+
+        for (double percent : percentages) {
+            Percentage percentage = Percentage.of(percent);
+            for (long minor : new long[]{1, 277, 10_000, 99_999_999, random.nextLong(1, 10_000_000)}) {
+                BigDecimal expected = Money.toBigDecimal(minor).multiply(BigDecimal.valueOf(percent)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+
+                Assert.assertEquals(Money.toMinor(expected), percentage.applyTo(minor));
+            }
+        }
+    }
+
+    @Test
+    public void testArithmetic() {
+        Money price = Money.of(new BigDecimal("3.53"));
+
+        Assert.assertEquals(Money.ofMinor(706), price.times(2));
+        Assert.assertEquals(Money.ofMinor(353 + 600), price.plus(Money.ofMinor(600)));
+        Assert.assertEquals(Money.ZERO, price.minus(price));
+        Assert.assertEquals(Money.ofMinor(53), price.percent(Percentage.of(15)));
+        Assert.assertEquals("3.53", price.toString());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testTimesOverflowThrows() {
+        Money.times(Long.MAX_VALUE / 2, 3);
+    }
+}
@@ -0,0 +1,72 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.money.Percentage;
+import org.productMarket.prices.PriceTable;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PriceTableTest {
+
+    private static final long TODAY = LocalDate.now().toEpochDay();
+
+    private static PriceTable table(List<Product> batches) {
+        return new PriceTable(Percentage.of(20), Percentage.of(30), Percentage.of(10), TODAY + 5, batches);
+    }
+
+    @Test
+    public void testAppliesMarkupOfTheCategoryAndDiscount() throws Exception {
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30));
+        Product soap = new NonEdibleProduct("Soap", BigDecimal.valueOf(4), LocalDate.now().plusDays(300));
+        Product milk = new EdibleProduct("Milk", BigDecimal.valueOf(2), LocalDate.now().plusDays(2));
+        PriceTable table = table(List.of(banana, soap));
+
+        Assert.assertEquals(300, table.getPriceMinor(banana));
+        Assert.assertEquals(520, table.getPriceMinor(soap));
+        // priced on its first lookup: 2.40 minus 10%
+        Assert.assertEquals(216, table.getPriceMinor(milk));
+        Assert.assertTrue(table.isDiscounted(milk));
+        Assert.assertEquals(3, table.size());
+    }
+
+    @Test
+    public void testPricesLargeCatalogInParallel() throws Exception {
+        List<Product> batches = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            batches.add(new EdibleProduct("Product " + i, BigDecimal.valueOf(1 + i % 50), LocalDate.now().plusDays(1 + i % 10)));
+        }
+        PriceTable table = table(batches);
+
+        Assert.assertEquals(20_000, table.size());
+        for (Product product : batches) {
+            long price = product.getDeliveryPriceMinor() * 120 / 100;
+            if (product.getDateOfExpiry().toEpochDay() < TODAY + 5) {
+                price -= Percentage.of(10).applyTo(price);
+            }
+            Assert.assertEquals(price, table.getPriceMinor(product));
+        }
+    }
+
+    @Test
+    public void testLaterDiscountDayDiscountsBatchesAndDropsRemovedOnes() throws Exception {
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(10), LocalDate.now().plusDays(6));
+        Product apple = new EdibleProduct("Apple", BigDecimal.valueOf(10), LocalDate.now().plusDays(30));
+        Product milk = new EdibleProduct("Milk", BigDecimal.valueOf(10), LocalDate.now().plusDays(1));
+        PriceTable table = table(List.of(banana, apple, milk));
+
+        PriceTable next = table.withDiscountBefore(TODAY + 7, List.of(milk));
+
+        Assert.assertEquals(1200, table.getPriceMinor(banana));
+        Assert.assertEquals(1080, next.getPriceMinor(banana));
+        Assert.assertEquals(1200, next.getPriceMinor(apple));
+        Assert.assertEquals(2, next.size());
+        Assert.assertEquals(TODAY + 7, next.getDiscountBefore());
+    }
+}
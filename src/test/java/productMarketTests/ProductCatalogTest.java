@@ -0,0 +1,117 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.catalogs.ProductCatalog;
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.enums.ProductCategory;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class ProductCatalogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadsBackWrittenProducts() throws Exception {
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30));
+        Product soap = new NonEdibleProduct("Сапун", BigDecimal.valueOf(4), LocalDate.now().plusDays(300));
+        Map<Product, Integer> stock = new LinkedHashMap<>();
+        stock.put(banana, 10);
+        stock.put(soap, 5);
+        Path file = folder.getRoot().toPath().resolve("store.catalog");
+
+        ProductCatalog.write(file, stock);
+        ProductCatalog catalog = ProductCatalog.read(file);
+
+        Assert.assertEquals(2, catalog.size());
+        Product read = catalog.getProduct(1);
+        Assert.assertEquals(soap, read);
+        Assert.assertEquals("Сапун", read.getName());
+        Assert.assertEquals(ProductCategory.NON_EDIBLE, read.getType());
+        Assert.assertEquals(0, BigDecimal.valueOf(4).compareTo(read.getDeliveryPrice()));
+        Assert.assertEquals(soap.getDateOfExpiry(), read.getDateOfExpiry());
+        Assert.assertEquals(5, catalog.getQuantity(1));
+        Assert.assertEquals(banana.getID(), catalog.getProduct(0).getID());
+    }
+
+    @Test
+    public void testLoadedStoreSellsProducts() throws Exception {
+        Map<Product, Integer> stock = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            stock.put(new EdibleProduct("Product " + i, BigDecimal.valueOf(1 + i % 10), LocalDate.now().plusDays(10 + i % 100)), 1 + i % 5);
+        }
+        Path file = folder.getRoot().toPath().resolve("store.catalog");
+        ProductCatalog.write(file, stock);
+
+        Market market = new Market(20, 30, 5, 10);
+        ProductCatalog.read(file).deliverTo(market);
+
+        Assert.assertEquals(50_000, market.getProductsInStock().size());
+        Assert.assertEquals(3, market.getStockCatalog().getTotalQuantity("Product 7"));
+        Cashier cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        CheckoutResult result = market.checkout(Map.of("Product 7", 2), new CashDesk(cashier, receipt -> { }), new Customer("Ann", BigDecimal.valueOf(100)));
+        Assert.assertTrue(result.isCompleted());
+        Assert.assertEquals(0, BigDecimal.valueOf(19.2).compareTo(result.getTotalPrice()));
+    }
+
+    @Test
+    public void testStockChangingWhileWrittenGivesAConsistentFile() throws Exception {
+        Product banana = new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30));
+        Product soap = new NonEdibleProduct("Soap", BigDecimal.valueOf(4), LocalDate.now().plusDays(300));
+        // a live view: the banana batch sells out and is delivered again between reads
+        Map<Product, Integer> stock = new AbstractMap<>() {
+            private int reads;
+
+            @Override
+            public Set<Entry<Product, Integer>> entrySet() {
+                Entry<Product, Integer> bananas = new SimpleEntry<>(banana, 0) {
+                    @Override
+                    public Integer getValue() {
+                        return reads++ % 2 == 0 ? 10 : 0;
+                    }
+                };
+                return Set.of(bananas, new SimpleEntry<>(soap, 5));
+            }
+        };
+        Path file = folder.getRoot().toPath().resolve("store.catalog");
+
+        ProductCatalog.write(file, stock);
+        ProductCatalog catalog = ProductCatalog.read(file);
+
+        Assert.assertEquals(2, catalog.size());
+        for (int i = 0; i < catalog.size(); i++) {
+            Assert.assertEquals(catalog.getProduct(i).equals(banana) ? 10 : 5, catalog.getQuantity(i));
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testTruncatedCatalogIsRejected() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("store.catalog");
+        ProductCatalog.write(file, Map.of(new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30)), 10));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        ProductCatalog.read(file);
+    }
+}
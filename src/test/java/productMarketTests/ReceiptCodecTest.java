@@ -0,0 +1,161 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.codecs.BinaryInput;
+import org.productMarket.codecs.BinaryOutput;
+import org.productMarket.codecs.ReceiptCodec;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NegativeSellingPrice;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ReceiptCodecTest {
+
+    private Cashier cashier;
+    private Map<Product, Integer> products;
+
+    @Before
+    public void createReceiptContent() throws NegativeDeliveryPrice, NegativeSellingPrice {
+        cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+
+        Product product1 = new EdibleProduct("Banana", new BigDecimal("2.35"), LocalDate.of(2023, 7, 10));
+        Product product2 = new NonEdibleProduct("Eye cream", BigDecimal.valueOf(4), LocalDate.of(2024, 1, 1));
+        product1.setSellingPrice(new BigDecimal("3.53"));
+        product2.setSellingPrice(new BigDecimal("6.00"));
+
+        products = new HashMap<>();
+        products.put(product1, 2);
+        products.put(product2, 300);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Receipt receipt = new Receipt(cashier, products);
+
+        Receipt decoded = ReceiptCodec.decode(ReceiptCodec.encode(receipt));
+
+        Assert.assertEquals(receipt.getSerialNumber(), decoded.getSerialNumber());
+        Assert.assertEquals(receipt.getDateOfIssue(), decoded.getDateOfIssue());
+        Assert.assertEquals(cashier.getId(), decoded.getCashier().getId());
+        Assert.assertEquals(cashier.getName(), decoded.getCashier().getName());
+        Assert.assertEquals(cashier.getSalary(), decoded.getCashier().getSalary());
+        Assert.assertEquals(receipt.getTotalPrice(), decoded.getTotalPrice());
+        Assert.assertEquals(products, decoded.getProducts());
+
+        for (Product product : decoded.getProducts().keySet()) {
+            Product original = products.keySet().stream().filter(p -> p.equals(product)).findFirst().orElseThrow();
+            Assert.assertEquals(original.getName(), product.getName());
+            Assert.assertEquals(original.getType(), product.getType());
+            Assert.assertEquals(original.getDeliveryPrice(), product.getDeliveryPrice());
+            Assert.assertEquals(original.getSellingPrice(), product.getSellingPrice());
+            Assert.assertEquals(original.getDateOfExpiry(), product.getDateOfExpiry());
+            Assert.assertEquals(products.get(original), decoded.getProducts().get(product));
+        }
+    }
+
+    @Test
+    public void testStreamReusesDictionaryEntries() throws IOException {
+        BinaryOutput out = new BinaryOutput();
+        ReceiptCodec.Encoder encoder = new ReceiptCodec.Encoder();
+        encoder.writeHeader(out);
+        encoder.write(new Receipt(cashier, products), out);
+        int firstSize = out.size();
+        encoder.write(new Receipt(cashier, products), out);
+        int secondSize = out.size() - firstSize;
+
+        Assert.assertTrue(secondSize < firstSize / 3);
+
+        BinaryInput in = new BinaryInput(out.toByteArray());
+        ReceiptCodec.Decoder decoder = new ReceiptCodec.Decoder();
+        decoder.readHeader(in);
+        Receipt first = decoder.read(in);
+        Receipt second = decoder.read(in);
+
+        Assert.assertFalse(in.hasRemaining());
+        Assert.assertEquals(first.getProducts(), second.getProducts());
+        Assert.assertEquals(first.getTotalPrice(), second.getTotalPrice());
+    }
+
+    @Test
+    public void testNonUuidIdsRoundTrip() throws IOException {
+        Cashier legacy = new Cashier("Ivan", "cashier-7", BigDecimal.valueOf(900));
+
+        Receipt decoded = ReceiptCodec.decode(ReceiptCodec.encode(new Receipt(legacy, products)));
+
+        Assert.assertEquals("cashier-7", decoded.getCashier().getId());
+    }
+
+    @Test
+    public void testEncodedReceiptIsSmallerThanJavaSerialization() throws IOException {
+        Receipt receipt = new Receipt(cashier, products);
+
+        int binarySize = ReceiptCodec.encode(receipt).length;
+        int javaSize = javaSerialize(receipt).length;
+
+        Assert.assertTrue("binary " + binarySize + " bytes, java " + javaSize + " bytes", binarySize * 5 < javaSize);
+    }
+
+    @Test
+    public void testRoundTripIsFasterThanJavaSerialization() throws Exception {
+        Receipt receipt = new Receipt(cashier, products);
+
+        // warm up both paths before timing them
+        long binaryNanos = 0;
+        long javaNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 500; i++) {
+                ReceiptCodec.decode(ReceiptCodec.encode(receipt));
+            }
+            binaryNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < 500; i++) {
+                javaDeserialize(javaSerialize(receipt));
+            }
+            javaNanos = System.nanoTime() - start;
+        }
+
+        Assert.assertTrue("binary " + binaryNanos + " ns, java " + javaNanos + " ns", binaryNanos < javaNanos);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testDecodeRejectsUnknownVersion() throws IOException {
+        byte[] bytes = ReceiptCodec.encode(new Receipt(cashier, products));
+        bytes[2] = (byte) (ReceiptCodec.VERSION + 1);
+
+        ReceiptCodec.decode(bytes);
+    }
+
+    @Test(expected = EOFException.class)
+    public void testDecodeRejectsTruncatedData() throws IOException {
+        byte[] bytes = ReceiptCodec.encode(new Receipt(cashier, products));
+
+        ReceiptCodec.decode(java.util.Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    private static byte[] javaSerialize(Receipt receipt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(receipt);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+}
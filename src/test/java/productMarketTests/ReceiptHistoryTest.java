@@ -0,0 +1,232 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NegativeSellingPrice;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.receipts.ReceiptHistory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ReceiptHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Cashier cashier;
+    private Product banana;
+
+    @Before
+    public void createProducts() throws NegativeDeliveryPrice, NegativeSellingPrice {
+        cashier = new Cashier("Peter", BigDecimal.valueOf(1000));
+        banana = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(10));
+        banana.setSellingPrice(BigDecimal.valueOf(3));
+    }
+
+    private Receipt receipt(long serialNumber) {
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(banana, (int) serialNumber);
+        return new Receipt(serialNumber, cashier, LocalDate.now(), products);
+    }
+
+    @Test
+    public void testInMemoryHistoryKeepsEverything() {
+        ReceiptHistory history = new ReceiptHistory();
+        for (int i = 1; i <= 100; i++) {
+            history.add(receipt(i));
+        }
+
+        Assert.assertEquals(100, history.size());
+        Assert.assertEquals(0, history.getColdSize());
+        Assert.assertEquals(37, history.get(36).getSerialNumber());
+    }
+
+    @Test
+    public void testOldReceiptsAreSpilledToDisk() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (ReceiptHistory history = new ReceiptHistory(8, directory)) {
+            for (int i = 1; i <= 1000; i++) {
+                history.add(receipt(i));
+            }
+
+            Assert.assertEquals(1000, history.size());
+            Assert.assertTrue(history.getHotSize() <= 8);
+            Assert.assertEquals(1000, history.getColdSize() + history.getHotSize());
+            Assert.assertTrue(Files.size(history.getFile()) > 0);
+
+            Receipt spilled = history.get(499);
+            Assert.assertEquals(500, spilled.getSerialNumber());
+            Assert.assertEquals(0, BigDecimal.valueOf(1500).compareTo(spilled.getTotalPrice()));
+            Assert.assertEquals(cashier.getId(), spilled.getCashier().getId());
+        }
+    }
+
+    @Test
+    public void testPagesSpanSpilledAndHotReceipts() throws IOException {
+        try (ReceiptHistory history = new ReceiptHistory(10, folder.getRoot().toPath())) {
+            for (int i = 1; i <= 50; i++) {
+                history.add(receipt(i));
+            }
+
+            List<Receipt> page = history.getPage(30, 20);
+            Assert.assertEquals(20, page.size());
+            for (int i = 0; i < page.size(); i++) {
+                Assert.assertEquals(31 + i, page.get(i).getSerialNumber());
+            }
+            Assert.assertEquals(5, history.getPage(45, 100).size());
+            Assert.assertTrue(history.getPage(50, 10).isEmpty());
+
+            List<Receipt> all = history.asList();
+            Assert.assertEquals(50, all.size());
+            long serialNumbers = 0;
+            for (Receipt receipt : all) {
+                serialNumbers += receipt.getSerialNumber();
+            }
+            Assert.assertEquals(50 * 51 / 2, serialNumbers);
+        }
+    }
+
+    @Test
+    public void testSerializedHistoryKeepsItsFileAfterRestart() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try (ReceiptHistory history = new ReceiptHistory(4, directory)) {
+            for (int i = 1; i <= 40; i++) {
+                history.add(receipt(i));
+            }
+            try (ObjectOutputStream out = new ObjectOutputStream(snapshot)) {
+                out.writeObject(history);
+            }
+        }
+
+        // a restarted market opens a new history in the same directory before recovering
+        try (ReceiptHistory restarted = new ReceiptHistory(4, directory);
+             ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(snapshot.toByteArray()));
+             ReceiptHistory recovered = (ReceiptHistory) in.readObject()) {
+            Assert.assertNotEquals(recovered.getFile(), restarted.getFile());
+            Assert.assertTrue(Files.exists(recovered.getFile()));
+            Assert.assertEquals(40, recovered.size());
+            Assert.assertTrue(recovered.getColdSize() > 0);
+            for (int i = 0; i < 40; i++) {
+                Assert.assertEquals(i + 1, recovered.get(i).getSerialNumber());
+            }
+        }
+    }
+
+    @Test
+    public void testFailedSpillKeepsReceiptsInMemory() throws IOException {
+        try (ReceiptHistory history = new ReceiptHistory(4, folder.getRoot().toPath())) {
+            // a directory in place of the file makes every spill fail
+            Files.delete(history.getFile());
+            Files.createDirectory(history.getFile());
+            for (int i = 1; i <= 10; i++) {
+                history.add(receipt(i));
+            }
+
+            Assert.assertEquals(10, history.size());
+            Assert.assertEquals(0, history.getColdSize());
+            Assert.assertNotNull(history.getSpillFailure());
+
+            Files.delete(history.getFile());
+            history.add(receipt(11));
+
+            Assert.assertNull(history.getSpillFailure());
+            Assert.assertTrue(history.getColdSize() > 0);
+            for (int i = 0; i < 11; i++) {
+                Assert.assertEquals(i + 1, history.get(i).getSerialNumber());
+            }
+        }
+    }
+
+    @Test
+    public void testClosingUnsnapshottedHistoryDeletesItsFile() throws IOException {
+        ReceiptHistory history = new ReceiptHistory(4, folder.getRoot().toPath());
+        for (int i = 1; i <= 20; i++) {
+            history.add(receipt(i));
+        }
+        Assert.assertTrue(Files.exists(history.getFile()));
+
+        history.close();
+
+        Assert.assertFalse(Files.exists(history.getFile()));
+    }
+
+    @Test
+    public void testConcurrentAddsKeepEveryReceipt() throws Exception {
+        try (ReceiptHistory history = new ReceiptHistory(16, folder.getRoot().toPath())) {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int thread = 0; thread < 4; thread++) {
+                int first = thread * 1000;
+                executor.execute(() -> {
+                    for (int i = 1; i <= 1000; i++) {
+                        history.add(receipt(first + i));
+                    }
+                });
+            }
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+            Assert.assertEquals(4000, history.size());
+            Set<Long> serialNumbers = new HashSet<>();
+            for (Receipt receipt : history.asList()) {
+                serialNumbers.add(receipt.getSerialNumber());
+            }
+            Assert.assertEquals(4000, serialNumbers.size());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBoundsThrows() {
+        ReceiptHistory history = new ReceiptHistory();
+        history.add(receipt(1));
+
+        history.get(1);
+    }
+
+    @Test
+    public void testMarketServesReceiptsFromHistory() throws Exception {
+        try (ReceiptHistory history = new ReceiptHistory(4, folder.getRoot().toPath())) {
+            Market market = new Market(10, 5, 3, 10, history);
+            market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30)), 100);
+            CashDesk cashDesk = new CashDesk(cashier, receipt -> { });
+
+            Map<String, Integer> basket = new HashMap<>();
+            basket.put("Banana", 1);
+            for (int i = 0; i < 20; i++) {
+                market.checkout(basket, cashDesk, new Customer("Ivan", BigDecimal.valueOf(100)));
+            }
+
+            Assert.assertEquals(20, market.getCountReceipts());
+            Assert.assertEquals(20, market.getReceipts().size());
+            Assert.assertTrue(history.getColdSize() > 0);
+            Assert.assertEquals(5, market.getReceipts(0, 5).size());
+            Assert.assertEquals(market.getReceipts().get(0).getSerialNumber() + 19, market.getReceipts().get(19).getSerialNumber());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.exceptions.NegativeSellingPrice;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.readers.ReceiptQuery;
+import org.productMarket.readers.ReceiptReader;
+import org.productMarket.readers.ReceiptRecord;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.utils.ReceiptUtil;
+import org.productMarket.utils.SerializerUtil;
+import org.productMarket.writers.AsyncReceiptWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ReceiptReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final LocalDate day = LocalDate.of(2030, 3, 1);
+    private Path directory;
+    private Cashier peter;
+    private Cashier maria;
+    private Product banana;
+    private Product eyeCream;
+
+    @Before
+    public void createProducts() throws NegativeDeliveryPrice, NegativeSellingPrice {
+        directory = folder.getRoot().toPath();
+        peter = new Cashier("Peter", BigDecimal.valueOf(1000));
+        maria = new Cashier("Maria", BigDecimal.valueOf(1200));
+        banana = new EdibleProduct("Banana", BigDecimal.valueOf(2), day.plusDays(10));
+        banana.setSellingPrice(new BigDecimal("2.40"));
+        eyeCream = new NonEdibleProduct("Eye cream - night", BigDecimal.valueOf(4), day.plusDays(300));
+        eyeCream.setSellingPrice(new BigDecimal("5.00"));
+    }
+
+    private Receipt receipt(long serialNumber, Cashier cashier, int daysLater, Product product, int quantity) {
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(product, quantity);
+        return new Receipt(serialNumber, cashier, day.plusDays(daysLater), products);
+    }
+
+    private void writeText(Receipt receipt) throws IOException {
+        Files.writeString(directory.resolve("receipt_" + receipt.getSerialNumber() + ".txt"), ReceiptUtil.formatReceipt(receipt), StandardCharsets.UTF_8);
+    }
+
+    private List<ReceiptRecord> read(ReceiptQuery query) throws IOException {
+        try (Stream<ReceiptRecord> records = ReceiptReader.read(directory, query, 64)) {
+            return records.sorted((a, b) -> Long.compare(a.getSerialNumber(), b.getSerialNumber())).collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testReadTextReceipt() throws IOException {
+        Map<Product, Integer> products = new HashMap<>();
+        products.put(banana, 2);
+        products.put(eyeCream, 3);
+        writeText(new Receipt(1, peter, day, products));
+
+        List<ReceiptRecord> records = read(ReceiptQuery.all());
+
+        Assert.assertEquals(1, records.size());
+        ReceiptRecord record = records.get(0);
+        Assert.assertEquals(1, record.getSerialNumber());
+        Assert.assertEquals(day, record.getDateOfIssue());
+        Assert.assertEquals("Peter", record.getCashierName());
+        Assert.assertEquals(peter.getId(), record.getCashierId());
+        Assert.assertEquals(0, new BigDecimal("19.80").compareTo(record.getTotalPrice()));
+        Assert.assertEquals(2, record.getLines().size());
+        Assert.assertTrue(record.containsProduct("Eye cream - night"));
+    }
+
+    @Test
+    public void testReadsAllFormats() throws IOException {
+        writeText(receipt(1, peter, 0, banana, 1));
+        SerializerUtil.serializeReceipt(directory.resolve("receipt_2_serialized.ser").toString(), receipt(2, peter, 0, banana, 2));
+        try (AsyncReceiptWriter writer = new AsyncReceiptWriter(directory)) {
+            for (int i = 3; i <= 20; i++) {
+                writer.save(receipt(i, maria, i, eyeCream, i));
+            }
+        }
+
+        List<ReceiptRecord> records = read(ReceiptQuery.all());
+
+        Assert.assertEquals(20, records.size());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i + 1, records.get(i).getSerialNumber());
+        }
+        Assert.assertEquals(20, records.get(19).getLines().get(0).getQuantity());
+    }
+
+    @Test
+    public void testQueryFilters() throws IOException {
+        writeText(receipt(1, peter, 0, banana, 1));
+        writeText(receipt(2, peter, 5, eyeCream, 1));
+        writeText(receipt(3, maria, 5, banana, 10));
+        writeText(receipt(4, maria, 9, eyeCream, 2));
+
+        Assert.assertEquals(2, read(ReceiptQuery.all().issuedBetween(day.plusDays(1), day.plusDays(5))).size());
+        Assert.assertEquals(2, read(ReceiptQuery.all().byCashier(maria.getId())).size());
+        Assert.assertEquals(2, read(ReceiptQuery.all().containingProduct("Banana")).size());
+        Assert.assertEquals(2, read(ReceiptQuery.all().withTotalBetween(BigDecimal.valueOf(5), BigDecimal.valueOf(10))).size());
+
+        List<ReceiptRecord> records = read(ReceiptQuery.all().byCashier(maria.getId()).containingProduct("Eye cream - night"));
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals(4, records.get(0).getSerialNumber());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testCorruptedReceiptThrows() throws IOException {
+        Files.writeString(directory.resolve("receipt_1.txt"), "not a receipt");
+
+        read(ReceiptQuery.all());
+    }
+}
@@ -0,0 +1,122 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.utils.ReceiptUtil;
+import org.productMarket.writers.ReceiptRenderer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ReceiptRendererTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static Map<Product, Integer> lines() throws Exception {
+        Map<Product, Integer> lines = new LinkedHashMap<>();
+        lines.put(new EdibleProduct("Banana", BigDecimal.valueOf(2.5), LocalDate.now().plusDays(30)), 3);
+        lines.put(new NonEdibleProduct("Сапун", BigDecimal.valueOf(0.04), LocalDate.now().plusDays(300)), 12);
+        lines.put(new EdibleProduct("Milk", BigDecimal.valueOf(1200), LocalDate.now().plusDays(3)), 1);
+        return lines;
+    }
+
+    @Test
+    public void testMatchesFormattedReceiptPricedInCents() throws Exception {
+        Map<Product, Integer> lines = lines();
+        long[] prices = {300, 5, 144_000};
+        Map<Product, Long> unitPrices = new LinkedHashMap<>();
+        int i = 0;
+        for (Product product : lines.keySet()) {
+            unitPrices.put(product, prices[i++]);
+        }
+        Receipt receipt = new Receipt(new Cashier("Петър", BigDecimal.valueOf(1000)), lines, unitPrices::get);
+        ReceiptRenderer renderer = new ReceiptRenderer(StandardCharsets.UTF_8);
+
+        Assert.assertArrayEquals(ReceiptUtil.formatReceipt(receipt).getBytes(StandardCharsets.UTF_8), bytes(renderer.render(receipt)));
+        // the buffer is reused for the next receipt
+        Assert.assertArrayEquals(ReceiptUtil.formatReceipt(receipt).getBytes(StandardCharsets.UTF_8), bytes(renderer.render(receipt)));
+    }
+
+    @Test
+    public void testMatchesFormattedReceiptPricedBySellingPrices() throws Exception {
+        Map<Product, Integer> lines = lines();
+        int i = 0;
+        for (Product product : lines.keySet()) {
+            product.setSellingPrice(i++ == 0 ? BigDecimal.valueOf(3) : new BigDecimal("0.075"));
+        }
+        Receipt receipt = new Receipt(42, new Cashier("Peter", "desk-7", BigDecimal.valueOf(1000)), LocalDate.of(812, 1, 9), lines);
+        // Latin-1 cannot encode Cyrillic names; both replace them the same way
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+
+        Assert.assertArrayEquals(ReceiptUtil.formatReceipt(receipt).getBytes(latin1), bytes(new ReceiptRenderer(latin1).render(receipt)));
+    }
+
+    @Test
+    public void testWritesReceiptFile() throws Exception {
+        Map<Product, Integer> lines = new LinkedHashMap<>();
+        for (int i = 0; i < 200; i++) {
+            lines.put(new EdibleProduct("Product number " + i, BigDecimal.valueOf(1 + i), LocalDate.now().plusDays(30)), 1 + i);
+        }
+        Receipt receipt = new Receipt(new Cashier("Peter", BigDecimal.valueOf(1000)), lines, product -> product.getDeliveryPriceMinor() * 2);
+        Path file = folder.getRoot().toPath().resolve("receipt.txt");
+
+        new ReceiptRenderer(StandardCharsets.UTF_8).write(receipt, file);
+
+        Assert.assertEquals(ReceiptUtil.formatReceipt(receipt), Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testPooledRenderersWriteUtf8FromManyThreads() throws Exception {
+        Receipt receipt = new Receipt(new Cashier("Петър", BigDecimal.valueOf(1000)), lines(), product -> product.getDeliveryPriceMinor() * 2);
+        String expected = ReceiptUtil.formatReceipt(receipt);
+        Path directory = folder.getRoot().toPath();
+        ExecutorService executor = Executors.newFixedThreadPool(4 * Runtime.getRuntime().availableProcessors());
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Path file = directory.resolve("receipt_" + i + ".txt");
+            writes.add(executor.submit(() -> {
+                ReceiptRenderer.writeUtf8(receipt, file);
+                return null;
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(expected, Files.readString(directory.resolve("receipt_" + i + ".txt"), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCharsetMustBeAsciiCompatible() {
+        new ReceiptRenderer(StandardCharsets.UTF_16);
+    }
+}
@@ -0,0 +1,148 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.replenishments.ReorderSuggestion;
+import org.productMarket.replenishments.ReplenishmentEngine;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+public class ReplenishmentEngineTest {
+
+    // a clock moved forward by the test
+    private static class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T08:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private TestClock clock;
+    private Market market;
+    private ReplenishmentEngine engine;
+    private CashDesk cashDesk;
+    private Customer customer;
+
+    @Before
+    public void createMarket() throws Exception {
+        clock = new TestClock();
+        market = new Market(50, 5, 3, 10);
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30)), 100);
+        engine = new ReplenishmentEngine(7, 2, 5, clock);
+        engine.attach(market);
+        cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        customer = new Customer("Ann", BigDecimal.valueOf(100_000));
+    }
+
+    @Test
+    public void testVelocityFollowsRecentSales() throws Exception {
+        Assert.assertEquals(100, engine.getStock("Banana"));
+        Assert.assertEquals(Double.POSITIVE_INFINITY, engine.getDaysUntilStockout("Banana"), 0);
+
+        for (int day = 0; day < 60; day++) {
+            clock.advance(Duration.ofDays(1));
+            market.checkout(Map.of("Banana", 1), cashDesk, customer);
+        }
+        double steady = engine.getVelocity("Banana");
+        Assert.assertEquals(1, steady, 0.1);
+        clock.advance(Duration.ofDays(7));
+
+        // sales one half-life older count about half
+        Assert.assertEquals(steady / 2, engine.getVelocity("Banana"), steady * 0.1);
+        Assert.assertEquals(40, engine.getStock("Banana"));
+        Assert.assertEquals(40 / engine.getVelocity("Banana"), engine.getDaysUntilStockout("Banana"), 1e-9);
+        Assert.assertEquals(0, engine.getVelocity("Apple"), 0);
+    }
+
+    @Test
+    public void testSuggestsReorderBeforeStockOut() throws Exception {
+        // about 8 bananas a day; 100 last 12 days and run out within the 2 day lead time after day 10
+        int day = 0;
+        while (engine.drainSuggestions().isEmpty() && day < 20) {
+            clock.advance(Duration.ofDays(1));
+            market.checkout(Map.of("Banana", 8), cashDesk, customer);
+            day++;
+        }
+        Assert.assertTrue("reorder suggested on day " + day, day < 12);
+        Assert.assertTrue(market.getStockCatalog().getTotalQuantity("Banana") > 0);
+        Assert.assertTrue(engine.getDaysUntilStockout("Banana") <= 2);
+
+        // one suggestion until the next delivery
+        market.checkout(Map.of("Banana", 8), cashDesk, customer);
+        Assert.assertTrue(engine.drainSuggestions().isEmpty());
+    }
+
+    @Test
+    public void testSuggestionIsDeliveredToTheMarket() throws Exception {
+        market.checkout(Map.of("Banana", 100), cashDesk, customer);
+        List<ReorderSuggestion> suggestions = engine.drainSuggestions();
+        Assert.assertEquals(1, suggestions.size());
+        ReorderSuggestion suggestion = suggestions.get(0);
+        Assert.assertEquals("Banana", suggestion.getProductName());
+        Assert.assertEquals(0, suggestion.getStock());
+        Assert.assertEquals(0, suggestion.getDaysUntilStockout(), 0);
+        Assert.assertEquals(0, market.getStockCatalog().getTotalQuantity("Banana"));
+
+        Product batch = suggestion.deliverTo(market, LocalDate.now().plusDays(30));
+
+        Assert.assertTrue(market.getStockCatalog().getTotalQuantity("Banana") > 0);
+        Assert.assertEquals(suggestion.getQuantity(), market.getStockCatalog().getTotalQuantity("Banana"));
+        Assert.assertEquals(suggestion.getQuantity(), engine.getStock("Banana"));
+        Assert.assertNotEquals(suggestion.getLastBatch().getIdentity(), batch.getIdentity());
+        Assert.assertEquals(0, suggestion.getLastBatch().getDeliveryPrice().compareTo(batch.getDeliveryPrice()));
+
+        // after the delivery a new stock-out gets a new suggestion
+        market.checkout(Map.of("Banana", suggestion.getQuantity()), cashDesk, customer);
+        Assert.assertEquals(1, engine.drainSuggestions().size());
+    }
+
+    @Test
+    public void testStockTakenOutWithoutAnEventIsNotOverstated() throws Exception {
+        Product banana = market.getStockCatalog().getBatches("Banana").get(0);
+        Assert.assertTrue(market.getStockCatalog().tryReserve(banana, 95));
+        Assert.assertEquals(5, engine.getStock("Banana"));
+
+        // the next sale sees the stock that is really left
+        market.checkout(Map.of("Banana", 3), cashDesk, customer);
+        List<ReorderSuggestion> suggestions = engine.drainSuggestions();
+        Assert.assertEquals(1, suggestions.size());
+        Assert.assertEquals(2, suggestions.get(0).getStock());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAttachToSecondMarketThrows() throws Exception {
+        engine.attach(new Market(50, 5, 3, 10));
+    }
+}
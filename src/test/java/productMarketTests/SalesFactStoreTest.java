@@ -0,0 +1,110 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.identities.Identity;
+import org.productMarket.markets.Market;
+import org.productMarket.money.Money;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.receipts.Receipt;
+import org.productMarket.sales.SalesFactStore;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SalesFactStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static Product product(String name, int price) throws Exception {
+        Product product = new EdibleProduct(name, BigDecimal.valueOf(price), TODAY.plusDays(30));
+        product.setSellingPrice(BigDecimal.valueOf(price));
+        return product;
+    }
+
+    @Test
+    public void testUnitsSoldPerProductPerDay() throws Exception {
+        Cashier peter = new Cashier("Peter", BigDecimal.valueOf(1000));
+        Product banana1 = product("Banana", 2);
+        Product banana2 = product("Banana", 3);
+        Product apple = product("Apple", 4);
+        SalesFactStore store = new SalesFactStore();
+
+        store.append(new Receipt(1, peter, TODAY.minusDays(1), Map.of(banana1, 2, apple, 1)));
+        store.append(new Receipt(2, peter, TODAY, Map.of(banana1, 1, banana2, 4)));
+        store.append(new Receipt(3, peter, TODAY.minusDays(5), Map.of(apple, 7)));
+
+        Map<LocalDate, Map<String, Long>> perDay = store.getUnitsSoldPerDay(TODAY.minusDays(1), TODAY);
+        Assert.assertEquals(List.of(TODAY.minusDays(1), TODAY), List.copyOf(perDay.keySet()));
+        Assert.assertEquals(Map.of("Banana", 2L, "Apple", 1L), perDay.get(TODAY.minusDays(1)));
+        Assert.assertEquals(Map.of("Banana", 5L), perDay.get(TODAY));
+        Assert.assertEquals(Map.of("Banana", 7L, "Apple", 8L), store.getUnitsSold(TODAY.minusDays(10), TODAY));
+        Assert.assertEquals(Map.of(banana1.getIdentity(), 3L, banana2.getIdentity(), 4L, apple.getIdentity(), 1L),
+                store.getUnitsSoldByBatch(TODAY.minusDays(1), TODAY));
+        Assert.assertEquals(2 * 2 + 4 + 2 + 3 * 4, store.getRevenueMinor(TODAY.minusDays(1), TODAY) / 100);
+        Assert.assertEquals(5, store.size());
+    }
+
+    @Test
+    public void testFedByMarketSales() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        SalesFactStore store = new SalesFactStore();
+        market.addListener(store);
+        Cashier peter = new Cashier("Peter", BigDecimal.valueOf(1000));
+        Cashier maria = new Cashier("Maria", BigDecimal.valueOf(1000));
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), TODAY.plusDays(30)), 20);
+        market.addDeliveredProduct(new NonEdibleProduct("Soap", BigDecimal.valueOf(4), TODAY.plusDays(300)), 20);
+
+        CheckoutResult first = market.checkout(Map.of("Banana", 3, "Soap", 1), new CashDesk(peter, receipt -> { }), new Customer("Ann", BigDecimal.valueOf(100)));
+        CheckoutResult second = market.checkout(Map.of("Soap", 2), new CashDesk(maria, receipt -> { }), new Customer("Ivan", BigDecimal.valueOf(100)));
+
+        Assert.assertEquals(Map.of("Banana", 3L, "Soap", 3L), store.getUnitsSold(TODAY, TODAY));
+        Assert.assertEquals(Money.toMinor(market.getIncome()), store.getRevenueMinor(TODAY, TODAY));
+        Map<Identity, Long> byCashier = store.getRevenueByCashier(TODAY, TODAY);
+        Assert.assertEquals(first.getTotalPriceMinor(), (long) byCashier.get(peter.getIdentity()));
+        Assert.assertEquals(second.getTotalPriceMinor(), (long) byCashier.get(maria.getIdentity()));
+    }
+
+    @Test
+    public void testParallelScanOfManySegments() throws Exception {
+        Cashier peter = new Cashier("Peter", BigDecimal.valueOf(1000));
+        Product[] products = new Product[50];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = product("Product " + i, 1 + i);
+        }
+        SalesFactStore store = new SalesFactStore();
+        long[] expected = new long[products.length];
+        // 30,000 receipts of 10 lines each fill several segments
+        for (int receipt = 0; receipt < 30_000; receipt++) {
+            Map<Product, Integer> lines = new HashMap<>();
+            for (int line = 0; line < 10; line++) {
+                int index = (receipt + line * 5) % products.length;
+                lines.put(products[index], 1 + receipt % 3);
+                expected[index] += 1 + receipt % 3;
+            }
+            store.append(new Receipt(receipt + 1, peter, TODAY.minusDays(receipt % 7), lines));
+        }
+
+        Map<String, Long> sold = store.getUnitsSold(TODAY.minusDays(6), TODAY);
+        for (int i = 0; i < products.length; i++) {
+            Assert.assertEquals(expected[i], (long) sold.get("Product " + i));
+        }
+        Assert.assertEquals(300_000, store.size());
+
+        Map<String, Long> top = store.getTopSellingProducts(TODAY.minusDays(6), TODAY, 3);
+        Assert.assertEquals(3, top.size());
+        long best = top.values().iterator().next();
+        for (long units : expected) {
+            Assert.assertTrue(units <= best);
+        }
+    }
+}
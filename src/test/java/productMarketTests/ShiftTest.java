@@ -0,0 +1,107 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.shifts.Shift;
+import org.productMarket.shifts.ShiftReport;
+import org.productMarket.shifts.Throughput;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ShiftTest {
+
+    private Market market;
+    private CashDesk cashDesk;
+    private Customer customer;
+
+    @Before
+    public void createMarket() throws Exception {
+        market = new Market(50, 5, 3, 10);
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30)), 10_000);
+        cashDesk = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        customer = new Customer("Ann", BigDecimal.valueOf(100_000));
+    }
+
+    @Test
+    public void testHandoverSplitsTheDeskIntoShifts() throws Exception {
+        Cashier peter = new Cashier("Peter", BigDecimal.valueOf(1000));
+        Cashier maria = new Cashier("Maria", BigDecimal.valueOf(1000));
+        CashDesk first = new CashDesk(peter, receipt -> { });
+        CashDesk second = new CashDesk(maria, receipt -> { });
+        market.addCashDesk(first);
+        market.addCashDesk(second);
+
+        market.checkout(Map.of("Banana", 2), first, customer);
+        market.checkout(Map.of("Banana", 3), first, customer);
+        first.changeCashier(maria);
+        market.checkout(Map.of("Banana", 1), first, customer);
+        market.checkout(Map.of("Banana", 4), second, customer);
+        market.checkout(Map.of("Tomato", 1), second, customer);
+
+        List<Shift> shifts = first.getShifts();
+        Assert.assertEquals(2, shifts.size());
+        Assert.assertFalse(shifts.get(0).isOpen());
+        Assert.assertSame(shifts.get(1), first.getCurrentShift());
+        Assert.assertEquals(shifts.get(0).getEnd(), shifts.get(1).getStart());
+
+        ShiftReport report = market.getShiftReport();
+        Throughput firstDesk = report.getDesk(first.getNumber());
+        Assert.assertEquals(3, firstDesk.getReceipts());
+        Assert.assertEquals(6, firstDesk.getItems());
+        Assert.assertEquals(1800, firstDesk.getRevenueMinor());
+        Throughput secondDesk = report.getDesk(second.getNumber());
+        // the customer who found nothing was still served
+        Assert.assertEquals(2, secondDesk.getCheckouts());
+        Assert.assertEquals(1, secondDesk.getReceipts());
+
+        Assert.assertEquals(5, report.getCashier(peter.getIdentity()).getItems());
+        Assert.assertEquals(5, report.getCashier(maria.getIdentity()).getItems());
+        Assert.assertEquals(market.getIncome().movePointRight(2).longValueExact(), report.getTotal().getRevenueMinor());
+        Assert.assertTrue(report.getTotal().getBusyNanos() > 0);
+        Assert.assertTrue(report.getTotal().getUtilization() <= 1);
+    }
+
+    @Test
+    public void testClosedDeskReopensOnNextCheckout() throws Exception {
+
+        market.checkout(Map.of("Banana", 1), cashDesk, customer);
+        cashDesk.endShift();
+        Assert.assertNull(cashDesk.getCurrentShift());
+        Throughput closed = cashDesk.getThroughput();
+
+        market.checkout(Map.of("Banana", 1), cashDesk, customer);
+
+        Assert.assertEquals(2, cashDesk.getShifts().size());
+        Assert.assertTrue(cashDesk.getCurrentShift().isOpen());
+        Assert.assertEquals(2, cashDesk.getThroughput().getReceipts());
+        Assert.assertEquals(closed.getOnShiftNanos(), cashDesk.getShifts().get(0).getThroughput(Instant.now()).getOnShiftNanos());
+    }
+
+    @Test
+    public void testConcurrentCheckoutsAtOneDesk() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> market.checkout(Map.of("Banana", 2), cashDesk, customer));
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Throughput throughput = cashDesk.getThroughput();
+        Assert.assertEquals(400, throughput.getReceipts());
+        Assert.assertEquals(800, throughput.getItems());
+        Assert.assertEquals(400 * 600, throughput.getRevenueMinor());
+    }
+}
@@ -0,0 +1,154 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.exceptions.NegativeDeliveryPrice;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.products.NonEdibleProduct;
+import org.productMarket.products.Product;
+import org.productMarket.stocks.StockCatalog;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StockCatalogTest {
+
+    private StockCatalog catalog;
+    private Product banana1;
+    private Product banana2;
+    private Product soap;
+
+    @Before
+    public void createCatalog() throws NegativeDeliveryPrice {
+        catalog = new StockCatalog();
+        banana1 = new EdibleProduct("Banana", BigDecimal.valueOf(3), LocalDate.now().plusDays(10));
+        banana2 = new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(20));
+        soap = new NonEdibleProduct("Soap", BigDecimal.valueOf(1), LocalDate.now().plusDays(300));
+
+        catalog.add(banana1, 5);
+        catalog.add(banana2, 3);
+        catalog.add(soap, 4);
+    }
+
+    @Test
+    public void testGetBatchesByName() {
+        Assert.assertEquals(2, catalog.getBatches("Banana").size());
+        Assert.assertTrue(catalog.getBatches("Banana").contains(banana1));
+        Assert.assertTrue(catalog.getBatches("Banana").contains(banana2));
+        Assert.assertTrue(catalog.getBatches("Apple").isEmpty());
+    }
+
+    @Test
+    public void testGetById() {
+        Assert.assertEquals(soap, catalog.getById(soap.getID()));
+        Assert.assertNull(catalog.getById("missing"));
+    }
+
+    @Test
+    public void testAddToExistingBatchIncreasesQuantity() {
+        catalog.add(banana1, 2);
+
+        Assert.assertEquals(7, catalog.getQuantity(banana1));
+        Assert.assertEquals(10, catalog.getTotalQuantity("Banana"));
+        Assert.assertEquals(2, catalog.getBatches("Banana").size());
+    }
+
+    @Test
+    public void testReserveWholeBatchRemovesIt() {
+        Assert.assertTrue(catalog.tryReserve(banana1, 5));
+
+        Assert.assertEquals(0, catalog.getQuantity(banana1));
+        Assert.assertNull(catalog.getById(banana1.getID()));
+        Assert.assertEquals(1, catalog.getBatches("Banana").size());
+        Assert.assertFalse(catalog.asMap().containsKey(banana1));
+    }
+
+    @Test
+    public void testReserveLastBatchRemovesName() {
+        Assert.assertTrue(catalog.tryReserve(soap, 4));
+
+        Assert.assertFalse(catalog.contains("Soap"));
+        Assert.assertEquals(2, catalog.size());
+    }
+
+    @Test
+    public void testTryReserveMoreThanAvailableLeavesStockUnchanged() {
+        Assert.assertFalse(catalog.tryReserve(soap, 5));
+        Assert.assertEquals(4, catalog.getQuantity(soap));
+    }
+
+    @Test
+    public void testReleaseReturnsReservedQuantity() {
+        Assert.assertTrue(catalog.tryReserve(soap, 4));
+        catalog.release(soap, 4);
+
+        Assert.assertEquals(4, catalog.getQuantity(soap));
+        Assert.assertEquals(soap, catalog.getById(soap.getID()));
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverOversell() throws InterruptedException {
+        int threads = 8;
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 100; j++) {
+                    if (catalog.tryReserve(banana1, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(5, reserved.get());
+        Assert.assertEquals(0, catalog.getQuantity(banana1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAsMapIsUnmodifiable() {
+        catalog.asMap().put(soap, 10);
+    }
+
+    @Test
+    public void testRefillAfterSoldOutListsBatchAgain() {
+        Assert.assertTrue(catalog.tryReserve(soap, 4));
+        catalog.add(soap, 2);
+
+        Assert.assertTrue(catalog.contains("Soap"));
+        Assert.assertEquals(2, catalog.getQuantity(soap));
+        Assert.assertEquals(1, catalog.getBatches("Soap").size());
+    }
+
+    @Test
+    public void testForEachInStock() {
+        Assert.assertTrue(catalog.tryReserve(banana2, 3));
+        AtomicInteger total = new AtomicInteger();
+        AtomicInteger batches = new AtomicInteger();
+
+        catalog.forEachInStock((product, quantity) -> {
+            batches.incrementAndGet();
+            total.addAndGet(quantity);
+        });
+
+        Assert.assertEquals(2, batches.get());
+        Assert.assertEquals(9, total.get());
+        Assert.assertTrue(catalog.getQuantityFootprint() > 0);
+    }
+}
@@ -0,0 +1,96 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.productMarket.stocks.StockQuantities;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StockQuantitiesTest {
+
+    private StockQuantities quantities;
+
+    @Before
+    public void createStore() {
+        quantities = new StockQuantities();
+    }
+
+    @Test
+    public void testAllocateReturnsDenseIndexes() {
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(i, quantities.allocate());
+        }
+        Assert.assertEquals(10, quantities.size());
+        Assert.assertEquals(0, quantities.get(9));
+    }
+
+    @Test
+    public void testAddAndTake() {
+        int index = quantities.allocate();
+
+        Assert.assertEquals(0, quantities.getAndAdd(index, 5));
+        Assert.assertTrue(quantities.tryTake(index, 3));
+        Assert.assertFalse(quantities.tryTake(index, 3));
+        Assert.assertEquals(2, quantities.get(index));
+
+        Assert.assertEquals(2, quantities.takeUpTo(index, 10));
+        Assert.assertEquals(0, quantities.takeUpTo(index, 10));
+        Assert.assertEquals(0, quantities.get(index));
+    }
+
+    @Test
+    public void testGrowsBeyondOneChunkAndKeepsQuantities() {
+        long initialFootprint = quantities.memoryFootprint();
+        for (int i = 0; i < 10_000; i++) {
+            quantities.getAndAdd(quantities.allocate(), i + 1);
+        }
+
+        Assert.assertEquals(1, quantities.get(0));
+        Assert.assertEquals(10_000, quantities.get(9_999));
+        Assert.assertTrue(quantities.memoryFootprint() > initialFootprint);
+        Assert.assertTrue(quantities.memoryFootprint() >= 4L * 10_000);
+    }
+
+    @Test
+    public void testForEachSkipsEmptySlots() {
+        int apples = quantities.allocate();
+        quantities.allocate();
+        int bananas = quantities.allocate();
+        quantities.getAndAdd(apples, 4);
+        quantities.getAndAdd(bananas, 7);
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        quantities.forEach(visited::put);
+
+        Assert.assertEquals(2, visited.size());
+        Assert.assertEquals(4, (int) visited.get(apples));
+        Assert.assertEquals(7, (int) visited.get(bananas));
+    }
+
+    @Test
+    public void testConcurrentTakesNeverGoBelowZero() throws InterruptedException {
+        int index = quantities.allocate();
+        quantities.getAndAdd(index, 1000);
+        AtomicInteger taken = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            executor.execute(() -> {
+                if (quantities.tryTake(index, 1)) {
+                    taken.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(1000, taken.get());
+        Assert.assertEquals(0, quantities.get(index));
+    }
+}
@@ -0,0 +1,127 @@
+package productMarketTests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.productMarket.cashiers.Cashier;
+import org.productMarket.checkouts.CheckoutResult;
+import org.productMarket.counters.CashDesk;
+import org.productMarket.customers.Customer;
+import org.productMarket.enums.WalletEntryType;
+import org.productMarket.exceptions.NegativeStackOfMoney;
+import org.productMarket.markets.Market;
+import org.productMarket.products.EdibleProduct;
+import org.productMarket.wallets.Wallet;
+import org.productMarket.wallets.WalletEntry;
+import org.productMarket.wallets.WalletReservation;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class WalletTest {
+
+    @Test
+    public void testReserveCommitAndRelease() throws Exception {
+        Wallet wallet = new Wallet(BigDecimal.valueOf(100));
+
+        WalletReservation groceries = wallet.tryReserve(6000);
+        WalletReservation shoes = wallet.tryReserve(3000);
+        Assert.assertNull(wallet.tryReserve(2000));
+        Assert.assertEquals(1000, wallet.getAvailableMinor());
+
+        groceries.commit();
+        shoes.release();
+
+        Assert.assertEquals(4000, wallet.getAvailableMinor());
+        Assert.assertTrue(shoes.isSettled());
+        List<WalletEntry> entries = wallet.getEntries();
+        Assert.assertEquals(5, entries.size());
+        Assert.assertEquals(WalletEntryType.DEPOSIT, entries.get(0).getType());
+        Assert.assertEquals(WalletEntryType.RELEASE, entries.get(4).getType());
+        Assert.assertEquals(shoes.getNumber(), entries.get(4).getReservation());
+        Assert.assertEquals(4000, entries.get(4).getAvailableAfterMinor());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReservationIsSettledOnce() throws Exception {
+        WalletReservation reservation = new Wallet(BigDecimal.valueOf(10)).tryReserve(500);
+        reservation.commit();
+        reservation.release();
+    }
+
+    @Test
+    public void testFractionsOfACentAreNotSpendable() throws Exception {
+        Wallet wallet = new Wallet(new BigDecimal("10.005"));
+
+        Assert.assertEquals(1000, wallet.getAvailableMinor());
+        Assert.assertNull(wallet.tryReserve(1001));
+        Assert.assertNotNull(wallet.tryReserve(1000));
+    }
+
+    @Test(expected = NegativeStackOfMoney.class)
+    public void testNegativeMoneyThrows() throws Exception {
+        new Wallet(BigDecimal.valueOf(-1));
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverOverspend() throws Exception {
+        Wallet wallet = new Wallet(BigDecimal.valueOf(100));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Callable<Integer> task = () -> {
+                start.await();
+                int paid = 0;
+                for (int j = 0; j < 1000; j++) {
+                    WalletReservation reservation = wallet.tryReserve(7);
+                    if (reservation != null) {
+                        reservation.commit();
+                        paid++;
+                    }
+                }
+                return paid;
+            };
+            futures.add(executor.submit(task));
+        }
+        start.countDown();
+        int paid = 0;
+        for (Future<Integer> future : futures) {
+            paid += future.get();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(10000 / 7, paid);
+        Assert.assertEquals(10000 % 7, wallet.getAvailableMinor());
+    }
+
+    @Test
+    public void testCustomersSharingAWalletAtTwoDesks() throws Exception {
+        Market market = new Market(50, 5, 3, 10);
+        market.addDeliveredProduct(new EdibleProduct("Banana", BigDecimal.valueOf(2), LocalDate.now().plusDays(30)), 100);
+        Wallet familyCard = new Wallet(BigDecimal.valueOf(20));
+        Customer ann = new Customer("Ann", familyCard);
+        Customer ivan = new Customer("Ivan", familyCard);
+        CashDesk first = new CashDesk(new Cashier("Peter", BigDecimal.valueOf(1000)), receipt -> { });
+        CashDesk second = new CashDesk(new Cashier("Maria", BigDecimal.valueOf(1000)), receipt -> { });
+
+        // each basket costs 12, so only one of them can be paid
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<CheckoutResult> annResult = executor.submit(() -> market.checkout(Map.of("Banana", 4), first, ann));
+        Future<CheckoutResult> ivanResult = executor.submit(() -> market.checkout(Map.of("Banana", 4), second, ivan));
+        int completed = (annResult.get().isCompleted() ? 1 : 0) + (ivanResult.get().isCompleted() ? 1 : 0);
+        executor.shutdown();
+
+        Assert.assertEquals(1, completed);
+        Assert.assertEquals(800, familyCard.getAvailableMinor());
+        Assert.assertEquals(96, market.getStockCatalog().getTotalQuantity("Banana"));
+        Assert.assertEquals(1, market.getCountReceipts());
+    }
+}